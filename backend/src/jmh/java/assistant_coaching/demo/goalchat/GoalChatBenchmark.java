@@ -0,0 +1,87 @@
+package assistant_coaching.demo.goalchat;
+
+import assistant_coaching.demo.goalchat.FallbackCoachFormatter.AnswerValue;
+import assistant_coaching.demo.goalchat.FallbackCoachFormatter.FallbackMessage;
+import assistant_coaching.demo.llm.LlmMessage;
+import assistant_coaching.demo.model.GoalChatHistory;
+import assistant_coaching.demo.model.GoalChatSessionSummary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Goal chat hot paths: system prompt building, answer fact extraction, the offline plan and
+ * the session summary fold that replaced the per-request history dedupe.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GoalChatBenchmark {
+
+    @Param({"50", "500"})
+    public int entriesPerSession;
+
+    private GoalQuestionBank questionBank;
+    private FallbackCoachFormatter formatter;
+    private List<AnswerValue> answers;
+    private List<GoalChatHistory> history;
+
+    @Setup
+    public void setUp() {
+        questionBank = new GoalQuestionBank();
+        formatter = new FallbackCoachFormatter();
+        answers = List.of(
+                new AnswerValue("Quel est votre revenu mensuel ?", "9000 MAD"),
+                new AnswerValue("Quelles sont vos charges fixes ?", "4200"),
+                new AnswerValue("Combien voulez-vous epargner ?", "environ 800 dh"),
+                new AnswerValue("Pour quand ?", "dans 6 mois"));
+        history = new ArrayList<>(entriesPerSession);
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 8, 0);
+        for (int i = 0; i < entriesPerSession; i++) {
+            GoalChatHistory entry = new GoalChatHistory("session-1", 7L, "emergency_fund", "Fonds d'urgence",
+                    "Message " + i, "Reponse " + i);
+            entry.setTimestamp(start.plusMinutes(i));
+            history.add(entry);
+        }
+    }
+
+    @Benchmark
+    public String systemPrompt() {
+        return questionBank.systemPrompt("emergency_fund", "Fonds d'urgence");
+    }
+
+    @Benchmark
+    public LlmMessage systemMessage() {
+        return questionBank.systemMessage("emergency_fund", "Fonds d'urgence");
+    }
+
+    @Benchmark
+    public GoalFacts extractFacts() {
+        return AnswerExtractor.extract("Je gagne 9 500 dh et je peux mettre 800 de cote par mois pendant 2 ans",
+                "Quel est ton revenu mensuel approximatif ?");
+    }
+
+    @Benchmark
+    public FallbackMessage buildPlanMessage() {
+        return formatter.buildPlanMessage("Fonds d'urgence", answers);
+    }
+
+    @Benchmark
+    public GoalChatSessionSummary summaryFold() {
+        GoalChatSessionSummary summary = new GoalChatSessionSummary("session-1");
+        for (GoalChatHistory entry : history) {
+            summary.apply(entry);
+        }
+        return summary;
+    }
+}
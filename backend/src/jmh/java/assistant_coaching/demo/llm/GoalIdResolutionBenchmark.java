@@ -0,0 +1,41 @@
+package assistant_coaching.demo.llm;
+
+import assistant_coaching.demo.model.FinancialGoal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GoalIdResolutionBenchmark {
+
+    private List<FinancialGoal> goals;
+
+    @Setup
+    public void setUp() {
+        LocalDate target = LocalDate.of(2027, 1, 1);
+        goals = List.of(
+                new FinancialGoal("Constituer un matelas de sécurité", BigDecimal.TEN, target),
+                new FinancialGoal("Rembourser mon crédit auto", BigDecimal.TEN, target),
+                new FinancialGoal("Investir en ETF", BigDecimal.TEN, target),
+                new FinancialGoal("Voyage au Japon", BigDecimal.TEN, target));
+    }
+
+    @Benchmark
+    public void resolveGoalId(Blackhole blackhole) {
+        for (FinancialGoal goal : goals) {
+            blackhole.consume(LlmService.resolveGoalId(goal));
+        }
+    }
+}
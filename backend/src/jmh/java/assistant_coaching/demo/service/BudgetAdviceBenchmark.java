@@ -0,0 +1,51 @@
+package assistant_coaching.demo.service;
+
+import assistant_coaching.demo.dto.BudgetTipDto;
+import assistant_coaching.demo.model.Budget;
+import assistant_coaching.demo.model.BudgetPeriodType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BudgetAdviceBenchmark {
+
+    @Param({"6", "60"})
+    public int categories;
+
+    private BudgetService budgetService;
+    private List<Budget> budgets;
+
+    @Setup
+    public void setUp() {
+        budgetService = new BudgetService(null, null);
+        budgets = new ArrayList<>(categories);
+        for (int i = 0; i < categories; i++) {
+            Budget budget = new Budget();
+            budget.setCategory("Categorie " + i);
+            budget.setBudgetAmount(BigDecimal.valueOf(500 + i * 10L));
+            budget.setSpentAmount(BigDecimal.valueOf(100 + i * 9L));
+            budget.setPeriodType(BudgetPeriodType.MONTHLY);
+            budget.setPeriodYear(2026);
+            budget.setPeriodMonth(10);
+            budgets.add(budget);
+        }
+    }
+
+    @Benchmark
+    public BudgetTipDto buildAdvice() {
+        return budgetService.buildAdvice(budgets, 1_250);
+    }
+}
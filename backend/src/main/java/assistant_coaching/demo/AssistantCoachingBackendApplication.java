@@ -1,12 +1,19 @@
 package assistant_coaching.demo;
 
+import assistant_coaching.demo.cache.SessionStoreProperties;
+import assistant_coaching.demo.goalchat.HistoryWriteBehindProperties;
+import assistant_coaching.demo.goalchat.HybridEngineProperties;
 import assistant_coaching.demo.llm.OpenAiProperties;
+import assistant_coaching.demo.report.ReportProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
-@EnableConfigurationProperties(OpenAiProperties.class)
+@EnableScheduling
+@EnableConfigurationProperties({OpenAiProperties.class, SessionStoreProperties.class,
+		HistoryWriteBehindProperties.class, HybridEngineProperties.class, ReportProperties.class})
 public class AssistantCoachingBackendApplication {
 
 	public static void main(String[] args) {
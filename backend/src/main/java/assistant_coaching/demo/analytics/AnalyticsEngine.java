@@ -0,0 +1,245 @@
+package assistant_coaching.demo.analytics;
+
+import assistant_coaching.demo.dto.CategoryShareDto;
+import assistant_coaching.demo.dto.PeriodAnalysisDto;
+import assistant_coaching.demo.model.AnalysisPeriod;
+import assistant_coaching.demo.model.RollupGrain;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Turns materialised rollup rows into the week / month / year analysis. Each period reads
+ * the grain that matches it (days for weeks, months, years) and every row is visited once
+ * and summed into primitive cent accumulators, so the cost is linear in a handful of rows
+ * whatever the length of the user's history, and nothing is boxed or sorted per row.
+ */
+@Component
+public class AnalyticsEngine {
+
+    /** Number of consecutive periods in each trend series, the current one last. */
+    public static final int TREND_POINTS = 5;
+
+    private static final AnalysisPeriod[] PERIODS = AnalysisPeriod.values();
+    private static final int CURRENT = 0;
+    private static final int PREVIOUS = 1;
+
+    private static final Map<String, String> CATEGORY_COLORS = Map.of(
+            "alimentation", "#1E88E5",
+            "logement", "#00BFA5",
+            "sante", "#26C6DA",
+            "transport", "#00ACC1",
+            "shopping", "#66BB6A",
+            "loisirs", "#00796B");
+    private static final String[] FALLBACK_COLORS = {"#5C6BC0", "#FFA726", "#AB47BC", "#8D6E63", "#78909C"};
+
+    /**
+     * Rollup grain read for a period: weeks are assembled from daily rows.
+     */
+    public static RollupGrain grainOf(AnalysisPeriod period) {
+        return switch (period) {
+            case WEEK -> RollupGrain.DAY;
+            case MONTH -> RollupGrain.MONTH;
+            case YEAR -> RollupGrain.YEAR;
+        };
+    }
+
+    /**
+     * First period start a row of {@link #grainOf(AnalysisPeriod)} can have to fall in the
+     * oldest trend point of {@code period}.
+     */
+    public static LocalDate horizonStart(AnalysisPeriod period, LocalDate today) {
+        return switch (period) {
+            case WEEK -> today.minusDays(today.getDayOfWeek().getValue() - 1L).minusWeeks(TREND_POINTS - 1);
+            case MONTH -> today.withDayOfMonth(1).minusMonths(TREND_POINTS - 1);
+            case YEAR -> LocalDate.of(today.getYear() - (TREND_POINTS - 1), 1, 1);
+        };
+    }
+
+    public List<PeriodAnalysisDto> analyse(Map<AnalysisPeriod, List<RollupRow>> rowsByPeriod, LocalDate today) {
+        long[][] income = new long[PERIODS.length][TREND_POINTS];
+        long[][] expense = new long[PERIODS.length][TREND_POINTS];
+        // Per category: current and previous expense for each period, flattened.
+        Map<String, long[]> categories = new HashMap<>();
+
+        long currentWeekStart = today.toEpochDay() - (today.getDayOfWeek().getValue() - 1);
+        int currentMonthIndex = today.getYear() * 12 + today.getMonthValue() - 1;
+
+        for (AnalysisPeriod period : PERIODS) {
+            int p = period.ordinal();
+            for (RollupRow row : rowsByPeriod.getOrDefault(period, List.of())) {
+                LocalDate start = row.periodStart();
+                int periodsBack = switch (period) {
+                    case WEEK -> (int) ((currentWeekStart
+                            - (start.toEpochDay() - (start.getDayOfWeek().getValue() - 1))) / 7);
+                    case MONTH -> currentMonthIndex - (start.getYear() * 12 + start.getMonthValue() - 1);
+                    case YEAR -> today.getYear() - start.getYear();
+                };
+                if (periodsBack < 0 || periodsBack >= TREND_POINTS) {
+                    continue;
+                }
+                int slot = TREND_POINTS - 1 - periodsBack;
+                income[p][slot] += row.incomeCents();
+                expense[p][slot] += row.expenseCents();
+                if (periodsBack <= PREVIOUS && row.expenseCents() != 0) {
+                    categories.computeIfAbsent(row.category(), key -> new long[PERIODS.length * 2])
+                            [p * 2 + periodsBack] += row.expenseCents();
+                }
+            }
+        }
+
+        List<PeriodAnalysisDto> result = new ArrayList<>(PERIODS.length);
+        for (AnalysisPeriod period : PERIODS) {
+            result.add(buildPeriod(period, income[period.ordinal()], expense[period.ordinal()], categories));
+        }
+        return result;
+    }
+
+    private PeriodAnalysisDto buildPeriod(AnalysisPeriod period, long[] income, long[] expense,
+                                          Map<String, long[]> categories) {
+        int p = period.ordinal();
+        long revenue = income[TREND_POINTS - 1];
+        long spent = expense[TREND_POINTS - 1];
+
+        List<CategoryShareDto> distribution = distribution(categories, p, spent);
+        String risingCategory = null;
+        double risingChange = 0;
+        for (Map.Entry<String, long[]> entry : categories.entrySet()) {
+            long current = entry.getValue()[p * 2 + CURRENT];
+            long previous = entry.getValue()[p * 2 + PREVIOUS];
+            double change = change(current, previous);
+            if (previous > 0 && change > risingChange) {
+                risingChange = change;
+                risingCategory = entry.getKey();
+            }
+        }
+
+        return new PeriodAnalysisDto(
+                period,
+                toAmount(revenue),
+                change(revenue, income[TREND_POINTS - 2]),
+                toAmount(spent),
+                change(spent, expense[TREND_POINTS - 2]),
+                series(income),
+                series(expense),
+                distribution,
+                insightTitle(period),
+                insightBody(period, revenue, spent, risingCategory, risingChange),
+                recommendations(revenue, spent, risingCategory, distribution));
+    }
+
+    private List<CategoryShareDto> distribution(Map<String, long[]> categories, int p, long spent) {
+        if (spent <= 0) {
+            return List.of();
+        }
+        List<Map.Entry<String, long[]>> spending = new ArrayList<>();
+        for (Map.Entry<String, long[]> entry : categories.entrySet()) {
+            if (entry.getValue()[p * 2 + CURRENT] > 0) {
+                spending.add(entry);
+            }
+        }
+        spending.sort((a, b) -> Long.compare(b.getValue()[p * 2 + CURRENT], a.getValue()[p * 2 + CURRENT]));
+        List<CategoryShareDto> shares = new ArrayList<>(spending.size());
+        int fallback = 0;
+        for (Map.Entry<String, long[]> entry : spending) {
+            String color = CATEGORY_COLORS.get(colorKey(entry.getKey()));
+            if (color == null) {
+                color = FALLBACK_COLORS[fallback++ % FALLBACK_COLORS.length];
+            }
+            shares.add(new CategoryShareDto(entry.getKey(), round1(entry.getValue()[p * 2 + CURRENT] * 100.0 / spent), color));
+        }
+        return shares;
+    }
+
+    private String insightTitle(AnalysisPeriod period) {
+        return switch (period) {
+            case WEEK -> "Analyse IA de la semaine";
+            case MONTH -> "Analyse IA du mois";
+            case YEAR -> "Analyse IA de l'annee";
+        };
+    }
+
+    private String insightBody(AnalysisPeriod period, long revenue, long spent, String risingCategory, double risingChange) {
+        if (revenue == 0 && spent == 0) {
+            return "Aucune transaction enregistree sur cette periode pour le moment.";
+        }
+        if (risingCategory != null) {
+            return "Vos depenses " + risingCategory + " ont augmente de " + Math.round(risingChange) + "% vs "
+                    + previousLabel(period) + ". Surveillez ce poste pour rester dans le budget.";
+        }
+        if (spent <= revenue) {
+            return "Bonne dynamique: vos depenses restent sous vos revenus et aucun poste n'est en hausse vs "
+                    + previousLabel(period) + ".";
+        }
+        return "Vos depenses depassent vos revenus sur cette periode. Identifiez les postes a reduire en priorite.";
+    }
+
+    private List<String> recommendations(long revenue, long spent, String risingCategory,
+                                         List<CategoryShareDto> distribution) {
+        List<String> recommendations = new ArrayList<>(3);
+        if (revenue == 0 && spent == 0) {
+            recommendations.add("Ajoutez vos revenus et depenses pour obtenir une analyse personnalisee");
+            return recommendations;
+        }
+        if (risingCategory != null) {
+            recommendations.add("Fixez un plafond pour le poste " + risingCategory + " afin de contenir la hausse");
+        }
+        if (!distribution.isEmpty()) {
+            CategoryShareDto top = distribution.get(0);
+            recommendations.add("Le poste " + top.getLabel() + " represente " + Math.round(top.getValue())
+                    + "% de vos depenses : c'est votre premier levier d'economie");
+        }
+        if (revenue <= 0) {
+            recommendations.add("Enregistrez vos revenus pour suivre votre taux d'epargne");
+        } else {
+            double savingsRate = (revenue - spent) * 100.0 / revenue;
+            recommendations.add(savingsRate < 10
+                    ? "Visez au moins 10% d'epargne sur vos revenus"
+                    : "Bon taux d'epargne (" + Math.round(savingsRate) + "%) : pensez a placer l'excedent");
+        }
+        return recommendations;
+    }
+
+    private String previousLabel(AnalysisPeriod period) {
+        return switch (period) {
+            case WEEK -> "la semaine derniere";
+            case MONTH -> "le mois dernier";
+            case YEAR -> "l'annee derniere";
+        };
+    }
+
+    private static List<Double> series(long[] cents) {
+        List<Double> values = new ArrayList<>(cents.length);
+        for (long value : cents) {
+            values.add(toAmount(value));
+        }
+        return values;
+    }
+
+    private static double change(long current, long previous) {
+        if (previous == 0) {
+            return 0;
+        }
+        return round1((current - previous) * 100.0 / previous);
+    }
+
+    private static double toAmount(long cents) {
+        return cents / 100.0;
+    }
+
+    private static double round1(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+
+    private static String colorKey(String category) {
+        return Normalizer.normalize(category, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "")
+                .toLowerCase(Locale.ROOT);
+    }
+}
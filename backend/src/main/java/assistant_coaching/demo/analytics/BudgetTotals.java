@@ -0,0 +1,15 @@
+package assistant_coaching.demo.analytics;
+
+/**
+ * Budget and spent totals of a month, summed over its materialised category rollups.
+ */
+public record BudgetTotals(long budgetCents, long spentCents) {
+
+    public double budgetAmount() {
+        return budgetCents / 100.0;
+    }
+
+    public double spentAmount() {
+        return spentCents / 100.0;
+    }
+}
@@ -0,0 +1,129 @@
+package assistant_coaching.demo.analytics;
+
+import assistant_coaching.demo.model.Budget;
+import assistant_coaching.demo.model.BudgetMonthRollup;
+import assistant_coaching.demo.model.CategoryRollup;
+import assistant_coaching.demo.model.RollupGrain;
+import assistant_coaching.demo.model.TransactionType;
+import assistant_coaching.demo.repository.BudgetMonthRollupRepository;
+import assistant_coaching.demo.repository.BudgetRepository;
+import assistant_coaching.demo.repository.CategoryRollupRepository;
+import assistant_coaching.demo.repository.FinancialTransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Recomputes the materialised rollups from their sources, for backfills or after data was
+ * changed behind the services' back. Each user is rebuilt in its own transaction so a
+ * full rebuild never holds one long transaction; on start-up, empty rollup tables are
+ * backfilled when their sources are not.
+ */
+@Component
+public class RollupRebuildJob {
+
+    private static final Logger log = LoggerFactory.getLogger(RollupRebuildJob.class);
+
+    private final FinancialTransactionRepository transactions;
+    private final BudgetRepository budgets;
+    private final CategoryRollupRepository categoryRollups;
+    private final BudgetMonthRollupRepository budgetRollups;
+    private final TransactionTemplate transactionTemplate;
+
+    public RollupRebuildJob(FinancialTransactionRepository transactions,
+                            BudgetRepository budgets,
+                            CategoryRollupRepository categoryRollups,
+                            BudgetMonthRollupRepository budgetRollups,
+                            PlatformTransactionManager transactionManager) {
+        this.transactions = transactions;
+        this.budgets = budgets;
+        this.categoryRollups = categoryRollups;
+        this.budgetRollups = budgetRollups;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (categoryRollups.count() == 0 && transactions.count() > 0) {
+            log.info("Backfilled {} transaction rollup rows", rebuildTransactions());
+        }
+        if (budgetRollups.count() == 0 && budgets.count() > 0) {
+            log.info("Backfilled {} budget rollup rows", rebuildBudgets());
+        }
+    }
+
+    /**
+     * Rebuilds the transaction rollups of every user; returns the number of rows written.
+     */
+    public int rebuildTransactions() {
+        int written = 0;
+        for (Long userId : transactions.findDistinctUserIds()) {
+            written += rebuildUser(userId);
+        }
+        return written;
+    }
+
+    public int rebuildUser(Long userId) {
+        Integer written = transactionTemplate.execute(status -> {
+            categoryRollups.deleteByUserId(userId);
+            Map<RollupKey, long[]> totals = new HashMap<>();
+            for (TransactionDaySum sum : transactions.sumByDay(userId)) {
+                long cents = RollupService.cents(sum.total());
+                int slot = sum.type() == TransactionType.INCOME ? 0 : 1;
+                for (RollupGrain grain : RollupGrain.values()) {
+                    RollupKey key = new RollupKey(grain, grain.periodStart(sum.day()), sum.category());
+                    totals.computeIfAbsent(key, k -> new long[2])[slot] += cents;
+                }
+            }
+            List<CategoryRollup> rows = new ArrayList<>(totals.size());
+            totals.forEach((key, values) -> rows.add(
+                    new CategoryRollup(userId, key.grain(), key.periodStart(), key.category(), values[0], values[1])));
+            categoryRollups.saveAll(rows);
+            return rows.size();
+        });
+        return written == null ? 0 : written;
+    }
+
+    /**
+     * Rebuilds the budget month rollups from all budgets; returns the number of rows written.
+     */
+    public int rebuildBudgets() {
+        Integer written = transactionTemplate.execute(status -> {
+            budgetRollups.deleteAllInBatch();
+            Map<BudgetKey, long[]> totals = new HashMap<>();
+            for (Budget budget : budgets.findAll()) {
+                long budgetCents = RollupService.cents(budget.getBudgetAmount());
+                long spentCents = RollupService.cents(budget.getSpentAmount());
+                for (YearMonth month : RollupService.monthsCovered(budget)) {
+                    long[] values = totals.computeIfAbsent(new BudgetKey(month, budget.getCategory()), k -> new long[3]);
+                    values[0] += budgetCents;
+                    values[1] += spentCents;
+                    values[2]++;
+                }
+            }
+            List<BudgetMonthRollup> rows = new ArrayList<>(totals.size());
+            totals.forEach((key, values) -> rows.add(new BudgetMonthRollup(key.month().getYear(),
+                    key.month().getMonthValue(), key.category(), values[0], values[1], (int) values[2])));
+            budgetRollups.saveAll(rows);
+            return rows.size();
+        });
+        return written == null ? 0 : written;
+    }
+
+    private record RollupKey(RollupGrain grain, LocalDate periodStart, String category) {
+    }
+
+    private record BudgetKey(YearMonth month, String category) {
+    }
+}
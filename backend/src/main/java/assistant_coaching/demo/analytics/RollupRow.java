@@ -0,0 +1,9 @@
+package assistant_coaching.demo.analytics;
+
+import java.time.LocalDate;
+
+/**
+ * One materialised (period, category) rollup row as read by the analytics engine.
+ */
+public record RollupRow(LocalDate periodStart, String category, long incomeCents, long expenseCents) {
+}
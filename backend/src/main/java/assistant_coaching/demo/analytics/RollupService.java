@@ -0,0 +1,95 @@
+package assistant_coaching.demo.analytics;
+
+import assistant_coaching.demo.model.Budget;
+import assistant_coaching.demo.model.BudgetPeriodType;
+import assistant_coaching.demo.model.FinancialTransaction;
+import assistant_coaching.demo.model.RollupGrain;
+import assistant_coaching.demo.model.TransactionType;
+import assistant_coaching.demo.repository.BudgetMonthRollupRepository;
+import assistant_coaching.demo.repository.CategoryRollupRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps the materialised rollups in step with their sources. Every transaction write
+ * adjusts its day, month and year rows and every budget write adjusts the months it
+ * covers, each with a single upsert that increments the row in place (inserting it the
+ * first time), so reads never have to aggregate raw rows.
+ */
+@Service
+public class RollupService {
+
+    private final CategoryRollupRepository categoryRollups;
+    private final BudgetMonthRollupRepository budgetRollups;
+
+    public RollupService(CategoryRollupRepository categoryRollups, BudgetMonthRollupRepository budgetRollups) {
+        this.categoryRollups = categoryRollups;
+        this.budgetRollups = budgetRollups;
+    }
+
+    /**
+     * Adds ({@code sign = 1}) or removes ({@code sign = -1}) a transaction from its rollups.
+     */
+    @Transactional
+    public void applyTransaction(FinancialTransaction transaction, int sign) {
+        long cents = sign * transaction.amountCents();
+        long incomeCents = transaction.getType() == TransactionType.INCOME ? cents : 0;
+        long expenseCents = transaction.getType() == TransactionType.EXPENSE ? cents : 0;
+        for (RollupGrain grain : RollupGrain.values()) {
+            categoryRollups.addToPeriod(transaction.getUserId(), grain.name(),
+                    grain.periodStart(transaction.getOccurredOn()), transaction.getCategory(),
+                    incomeCents, expenseCents);
+        }
+    }
+
+    /**
+     * Adds ({@code sign = 1}) or removes ({@code sign = -1}) a budget, in its current state,
+     * from the rollups of every month it covers.
+     */
+    @Transactional
+    public void applyBudget(Budget budget, int sign) {
+        long budgetCents = sign * cents(budget.getBudgetAmount());
+        long spentCents = sign * cents(budget.getSpentAmount());
+        for (YearMonth month : monthsCovered(budget)) {
+            budgetRollups.addToMonth(month.getYear(), month.getMonthValue(), budget.getCategory(),
+                    budgetCents, spentCents, sign);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<RollupRow> rows(Long userId, RollupGrain grain, LocalDate from, LocalDate to) {
+        return categoryRollups.findRows(userId, grain, from, to);
+    }
+
+    @Transactional(readOnly = true)
+    public BudgetTotals budgetTotals(YearMonth month) {
+        return budgetRollups.sumForMonth(month.getYear(), month.getMonthValue());
+    }
+
+    /**
+     * Months a budget is listed in: the month it is filed under plus, for weekly and
+     * custom budgets, every month its date range overlaps.
+     */
+    static Set<YearMonth> monthsCovered(Budget budget) {
+        Set<YearMonth> months = new LinkedHashSet<>();
+        months.add(YearMonth.of(budget.getPeriodYear(), budget.getPeriodMonth()));
+        if (budget.getPeriodType() != BudgetPeriodType.MONTHLY && budget.getCustomStart() != null) {
+            YearMonth last = YearMonth.from(budget.getCustomEnd() != null ? budget.getCustomEnd() : budget.getCustomStart());
+            for (YearMonth month = YearMonth.from(budget.getCustomStart()); !month.isAfter(last); month = month.plusMonths(1)) {
+                months.add(month);
+            }
+        }
+        return months;
+    }
+
+    static long cents(BigDecimal amount) {
+        return amount == null ? 0 : amount.movePointRight(2).longValue();
+    }
+}
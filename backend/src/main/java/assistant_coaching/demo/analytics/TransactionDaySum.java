@@ -0,0 +1,12 @@
+package assistant_coaching.demo.analytics;
+
+import assistant_coaching.demo.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Raw transactions of one user summed per (day, category, type), the input of a rollup rebuild.
+ */
+public record TransactionDaySum(LocalDate day, String category, TransactionType type, BigDecimal total) {
+}
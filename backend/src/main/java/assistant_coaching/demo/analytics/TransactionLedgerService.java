@@ -0,0 +1,72 @@
+package assistant_coaching.demo.analytics;
+
+import assistant_coaching.demo.dto.CreateTransactionRequest;
+import assistant_coaching.demo.dto.TransactionResponse;
+import assistant_coaching.demo.model.FinancialTransaction;
+import assistant_coaching.demo.repository.FinancialTransactionRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Writes user transactions and keeps their day / month / year rollups in step within the
+ * same transaction, so the analytics read path only ever touches the rollups.
+ */
+@Service
+public class TransactionLedgerService {
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private final FinancialTransactionRepository transactions;
+    private final RollupService rollups;
+
+    public TransactionLedgerService(FinancialTransactionRepository transactions, RollupService rollups) {
+        this.transactions = transactions;
+        this.rollups = rollups;
+    }
+
+    @Transactional
+    public TransactionResponse record(CreateTransactionRequest request) {
+        FinancialTransaction transaction = new FinancialTransaction(
+                request.getUserId(),
+                request.getType(),
+                normalizeCategory(request.getCategory()),
+                request.getAmount(),
+                request.getDate() == null ? LocalDate.now() : request.getDate(),
+                request.getLabel());
+        FinancialTransaction saved = transactions.save(transaction);
+        rollups.applyTransaction(saved, 1);
+        return new TransactionResponse(saved);
+    }
+
+    @Transactional
+    public void delete(Long id, Long userId) {
+        FinancialTransaction existing = transactions.findByIdAndUserId(id, userId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Transaction introuvable"));
+        transactions.delete(existing);
+        rollups.applyTransaction(existing, -1);
+    }
+
+    @Transactional(readOnly = true)
+    public List<TransactionResponse> recent(Long userId, Integer limit) {
+        int size = limit == null || limit < 1 ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        return transactions.findByUserIdOrderByOccurredOnDescIdDesc(userId, PageRequest.of(0, size)).stream()
+                .map(TransactionResponse::new)
+                .toList();
+    }
+
+    private String normalizeCategory(String raw) {
+        String trimmed = raw == null ? "" : raw.trim();
+        if (trimmed.isEmpty()) {
+            return "Autre";
+        }
+        return trimmed.substring(0, 1).toUpperCase(Locale.FRENCH) + trimmed.substring(1);
+    }
+}
@@ -0,0 +1,206 @@
+package assistant_coaching.demo.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * LRU store capped by entry count and total weight, with idle-time expiry.
+ * <p>
+ * Entries live in an access-ordered {@link LinkedHashMap}, so the eldest entry is
+ * always the least recently used one: expiry and capacity eviction only ever look at
+ * the head of the map. Weights are re-read on every hit because session values keep
+ * growing after they are stored.
+ */
+public class BoundedSessionStore<K, V> implements SessionStore<K, V> {
+
+    private final String name;
+    private final int maxEntries;
+    private final long maxWeight;
+    private final long idleTtlNanos;
+    private final ToLongFunction<? super V> weigher;
+    private final LongSupplier nanoClock;
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private long totalWeight;
+
+    public BoundedSessionStore(String name, SessionStoreProperties.Limits limits, ToLongFunction<? super V> weigher) {
+        this(name, limits, weigher, System::nanoTime);
+    }
+
+    BoundedSessionStore(String name, SessionStoreProperties.Limits limits, ToLongFunction<? super V> weigher,
+                        LongSupplier nanoClock) {
+        this.name = name;
+        this.maxEntries = Math.max(1, limits.getMaxEntries());
+        this.maxWeight = limits.getMaxWeight() <= 0 ? Long.MAX_VALUE : limits.getMaxWeight();
+        this.idleTtlNanos = limits.getIdleTtl() == null || limits.getIdleTtl().isZero()
+                ? Long.MAX_VALUE
+                : limits.getIdleTtl().toNanos();
+        this.weigher = weigher;
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public V get(K key) {
+        long now = nanoClock.getAsLong();
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            if (isExpired(entry, now)) {
+                discard(key, entry);
+                misses.increment();
+                return null;
+            }
+            entry.lastAccess = now;
+            reweigh(entry);
+            hits.increment();
+            evictOverflow();
+            return entry.value;
+        }
+    }
+
+    @Override
+    public V getOrLoad(K key, Function<? super K, ? extends V> loader) {
+        V cached = get(key);
+        if (cached != null) {
+            return cached;
+        }
+        V loaded = loader.apply(key);
+        if (loaded == null) {
+            return null;
+        }
+        long now = nanoClock.getAsLong();
+        synchronized (entries) {
+            Entry<V> raced = entries.get(key);
+            if (raced != null && !isExpired(raced, now)) {
+                raced.lastAccess = now;
+                return raced.value;
+            }
+            store(key, loaded, now);
+            return loaded;
+        }
+    }
+
+    @Override
+    public void put(K key, V value) {
+        long now = nanoClock.getAsLong();
+        synchronized (entries) {
+            store(key, value, now);
+        }
+    }
+
+    @Override
+    public V remove(K key) {
+        synchronized (entries) {
+            Entry<V> removed = entries.remove(key);
+            if (removed == null) {
+                return null;
+            }
+            totalWeight -= removed.weight;
+            return removed.value;
+        }
+    }
+
+    @Override
+    public long size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @Override
+    public SessionStoreStats stats() {
+        synchronized (entries) {
+            return new SessionStoreStats(name, entries.size(), totalWeight,
+                    hits.sum(), misses.sum(), evictions.sum());
+        }
+    }
+
+    /**
+     * Drops every idle entry; useful when traffic stops and no write triggers a sweep.
+     */
+    @Override
+    public void evictExpired() {
+        long now = nanoClock.getAsLong();
+        synchronized (entries) {
+            evictExpiredHead(now);
+        }
+    }
+
+    private void store(K key, V value, long now) {
+        Entry<V> previous = entries.remove(key);
+        if (previous != null) {
+            totalWeight -= previous.weight;
+        }
+        Entry<V> entry = new Entry<>(value, now, weigh(value));
+        entries.put(key, entry);
+        totalWeight += entry.weight;
+        evictExpiredHead(now);
+        evictOverflow();
+    }
+
+    private void evictExpiredHead(long now) {
+        Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Entry<V> eldest = iterator.next().getValue();
+            if (!isExpired(eldest, now)) {
+                return;
+            }
+            iterator.remove();
+            totalWeight -= eldest.weight;
+            evictions.increment();
+        }
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+        // Always keep the most recent entry, even if it alone exceeds the weight cap.
+        while ((entries.size() > maxEntries || totalWeight > maxWeight) && entries.size() > 1 && iterator.hasNext()) {
+            Entry<V> eldest = iterator.next().getValue();
+            iterator.remove();
+            totalWeight -= eldest.weight;
+            evictions.increment();
+        }
+    }
+
+    private void discard(K key, Entry<V> entry) {
+        entries.remove(key);
+        totalWeight -= entry.weight;
+        evictions.increment();
+    }
+
+    private void reweigh(Entry<V> entry) {
+        long updated = weigh(entry.value);
+        totalWeight += updated - entry.weight;
+        entry.weight = updated;
+    }
+
+    private long weigh(V value) {
+        return Math.max(1, weigher.applyAsLong(value));
+    }
+
+    private boolean isExpired(Entry<V> entry, long now) {
+        return idleTtlNanos != Long.MAX_VALUE && now - entry.lastAccess > idleTtlNanos;
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private long lastAccess;
+        private long weight;
+
+        private Entry(V value, long lastAccess, long weight) {
+            this.value = value;
+            this.lastAccess = lastAccess;
+            this.weight = weight;
+        }
+    }
+}
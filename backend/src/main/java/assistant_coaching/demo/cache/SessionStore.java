@@ -0,0 +1,33 @@
+package assistant_coaching.demo.cache;
+
+import java.util.function.Function;
+
+/**
+ * In-memory home for per-conversation state (chat sessions, offline fallback progress).
+ * Implementations are expected to bound their footprint and may drop entries at any
+ * time, so callers must be able to rebuild a value through the loader.
+ */
+public interface SessionStore<K, V> {
+
+    V get(K key);
+
+    /**
+     * Returns the cached value or builds it with {@code loader}. The loader runs outside
+     * of any store lock and may hit the database.
+     */
+    V getOrLoad(K key, Function<? super K, ? extends V> loader);
+
+    void put(K key, V value);
+
+    V remove(K key);
+
+    long size();
+
+    /**
+     * Drops the entries that have been idle for longer than the store's TTL. Stores
+     * without expiry may ignore this.
+     */
+    void evictExpired();
+
+    SessionStoreStats stats();
+}
@@ -0,0 +1,52 @@
+package assistant_coaching.demo.cache;
+
+import assistant_coaching.demo.llm.LlmMetrics;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.ToLongFunction;
+
+/**
+ * Creates the named session stores, binds their statistics to {@link LlmMetrics} and
+ * keeps track of them for the expiry sweep. Replace this bean to plug a different store
+ * implementation.
+ */
+@Component
+public class SessionStoreFactory {
+
+    private final SessionStoreProperties properties;
+    private final LlmMetrics metrics;
+    private final List<SessionStore<?, ?>> stores = new CopyOnWriteArrayList<>();
+
+    public SessionStoreFactory(SessionStoreProperties properties, LlmMetrics metrics) {
+        this.properties = properties;
+        this.metrics = metrics;
+    }
+
+    public <K, V> SessionStore<K, V> create(String name, ToLongFunction<? super V> weigher) {
+        SessionStore<K, V> store = new BoundedSessionStore<>(name, properties.limitsFor(name), weigher);
+        stores.add(store);
+        metrics.bindSessionStore(store);
+        return store;
+    }
+
+    public List<SessionStore<?, ?>> stores() {
+        return List.copyOf(stores);
+    }
+
+    /**
+     * Expiry otherwise only happens on writes, so a store that stops receiving traffic
+     * would keep its idle sessions until the next put.
+     */
+    @Scheduled(fixedDelayString = "${app.session-store.sweep-interval:1m}",
+            initialDelayString = "${app.session-store.sweep-interval:1m}")
+    public void evictExpired() {
+        stores.forEach(SessionStore::evictExpired);
+    }
+
+    public List<SessionStoreStats> stats() {
+        return stores.stream().map(SessionStore::stats).toList();
+    }
+}
@@ -0,0 +1,69 @@
+package assistant_coaching.demo.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Limits for the in-memory session stores, keyed by store name
+ * ({@code app.session-store.stores.goal-chat.max-entries=...}).
+ */
+@ConfigurationProperties(prefix = "app.session-store")
+public class SessionStoreProperties {
+
+    private Limits defaults = new Limits();
+    private Map<String, Limits> stores = new LinkedHashMap<>();
+
+    public Limits getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Limits defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<String, Limits> getStores() {
+        return stores;
+    }
+
+    public void setStores(Map<String, Limits> stores) {
+        this.stores = stores;
+    }
+
+    public Limits limitsFor(String name) {
+        return stores.getOrDefault(name, defaults);
+    }
+
+    public static class Limits {
+
+        private int maxEntries = 5_000;
+        private long maxWeight = 20_000_000;
+        private Duration idleTtl = Duration.ofHours(2);
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public long getMaxWeight() {
+            return maxWeight;
+        }
+
+        public void setMaxWeight(long maxWeight) {
+            this.maxWeight = maxWeight;
+        }
+
+        public Duration getIdleTtl() {
+            return idleTtl;
+        }
+
+        public void setIdleTtl(Duration idleTtl) {
+            this.idleTtl = idleTtl;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package assistant_coaching.demo.cache;
+
+public record SessionStoreStats(String name, long size, long weight, long hits, long misses, long evictions) {
+
+    public double hitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+}
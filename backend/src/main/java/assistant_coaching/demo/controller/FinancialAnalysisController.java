@@ -1,37 +1,80 @@
 package assistant_coaching.demo.controller;
 
+import assistant_coaching.demo.analytics.RollupRebuildJob;
 import assistant_coaching.demo.dto.FinancialAnalysisResponse;
+import assistant_coaching.demo.report.AnalysisReportService;
+import assistant_coaching.demo.report.RenderedReport;
 import assistant_coaching.demo.service.FinancialAnalysisService;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/analysis")
 public class FinancialAnalysisController {
 
     private final FinancialAnalysisService service;
+    private final AnalysisReportService reportService;
+    private final RollupRebuildJob rollupRebuildJob;
 
-    public FinancialAnalysisController(FinancialAnalysisService service) {
+    public FinancialAnalysisController(FinancialAnalysisService service, AnalysisReportService reportService,
+                                       RollupRebuildJob rollupRebuildJob) {
         this.service = service;
+        this.reportService = reportService;
+        this.rollupRebuildJob = rollupRebuildJob;
     }
 
     @GetMapping
-    public FinancialAnalysisResponse getAnalysis() {
-        return service.getAnalysis();
+    public FinancialAnalysisResponse getAnalysis(@RequestParam(required = false) Long userId) {
+        return service.getAnalysis(userId);
     }
 
+    /**
+     * Streams the cached PDF for the current analysis data; the file is opened before the
+     * response starts so a concurrent cache eviction cannot pull it away mid-download.
+     */
     @GetMapping(value = "/report.pdf", produces = MediaType.APPLICATION_PDF_VALUE)
-    public ResponseEntity<byte[]> downloadReport() {
-        byte[] pdf = service.generatePdfReport();
+    public ResponseEntity<StreamingResponseBody> downloadReport(@RequestParam(required = false) Long userId)
+            throws IOException {
+        RenderedReport report = reportService.monthlyReport(userId);
+        long size = Files.size(report.file());
+        InputStream in = Files.newInputStream(report.file());
+        StreamingResponseBody body = out -> {
+            try (in) {
+                in.transferTo(out);
+            }
+        };
         HttpHeaders headers = new HttpHeaders();
-        headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"rapport_financier.pdf\"");
+        headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + report.filename() + "\"");
         return ResponseEntity.ok()
                 .headers(headers)
                 .contentType(MediaType.APPLICATION_PDF)
-                .body(pdf);
+                .contentLength(size)
+                .body(body);
+    }
+
+    /**
+     * Backfill endpoint: rebuilds the transaction rollups of one user (or of everyone) and,
+     * for a full rebuild, the budget month rollups.
+     */
+    @PostMapping("/rollups/rebuild")
+    public Map<String, Integer> rebuildRollups(@RequestParam(required = false) Long userId) {
+        if (userId != null) {
+            return Map.of("transactionRollups", rollupRebuildJob.rebuildUser(userId));
+        }
+        return Map.of(
+                "transactionRollups", rollupRebuildJob.rebuildTransactions(),
+                "budgetRollups", rollupRebuildJob.rebuildBudgets());
     }
 }
@@ -1,5 +1,8 @@
 package assistant_coaching.demo.controller;
 
+import assistant_coaching.demo.dto.CursorPage;
+import assistant_coaching.demo.dto.GoalChatBatchUpdateRequest;
+import assistant_coaching.demo.dto.GoalChatBatchUpdateResponse;
 import assistant_coaching.demo.dto.GoalChatConversationDto;
 import assistant_coaching.demo.dto.GoalChatHistoryItemDto;
 import assistant_coaching.demo.dto.GoalChatRenameRequest;
@@ -8,9 +11,12 @@ import assistant_coaching.demo.dto.GoalMessageRequest;
 import assistant_coaching.demo.dto.GoalMessageResponse;
 import assistant_coaching.demo.dto.GoalSessionStartRequest;
 import assistant_coaching.demo.dto.GoalSessionStartResponse;
+import assistant_coaching.demo.dto.PageCursor;
 import assistant_coaching.demo.goalchat.GoalChatService;
 import jakarta.validation.Valid;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -19,6 +25,8 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
 
@@ -33,27 +41,39 @@ public class GoalChatController {
     }
 
     @PostMapping("/start")
-    public ResponseEntity<GoalSessionStartResponse> start(@Valid @RequestBody GoalSessionStartRequest request) {
-        return ResponseEntity.ok(goalChatService.startSession(request));
+    public Mono<ResponseEntity<GoalSessionStartResponse>> start(@Valid @RequestBody GoalSessionStartRequest request) {
+        return goalChatService.startSession(request).map(ResponseEntity::ok);
     }
 
     @PostMapping("/message")
-    public ResponseEntity<GoalMessageResponse> message(@Valid @RequestBody GoalMessageRequest request) {
-        return ResponseEntity.ok(goalChatService.continueConversation(request));
+    public Mono<ResponseEntity<GoalMessageResponse>> message(@Valid @RequestBody GoalMessageRequest request) {
+        return goalChatService.continueConversation(request).map(ResponseEntity::ok);
+    }
+
+    @PostMapping(value = "/message/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> messageStream(@Valid @RequestBody GoalMessageRequest request) {
+        return goalChatService.streamConversation(request);
     }
 
     @GetMapping("/history")
     public ResponseEntity<List<GoalChatHistoryItemDto>> history(
             @RequestParam(name = "userId") Long userId,
-            @RequestParam(name = "limit", required = false) Integer limit) {
-        return ResponseEntity.ok(goalChatService.recentHistory(limit, userId));
+            @RequestParam(name = "limit", required = false) Integer limit,
+            @RequestParam(name = "cursor", required = false) String cursor) {
+        CursorPage<GoalChatHistoryItemDto> page =
+                goalChatService.recentHistory(limit, userId, PageCursor.decode(cursor));
+        return withNextCursor(page.nextCursor()).body(page.items());
     }
 
     @GetMapping("/history/{sessionId}")
     public ResponseEntity<GoalChatConversationDto> conversation(
             @PathVariable String sessionId,
-            @RequestParam(name = "userId") Long userId) {
-        return ResponseEntity.ok(goalChatService.conversation(sessionId, userId));
+            @RequestParam(name = "userId") Long userId,
+            @RequestParam(name = "limit", required = false) Integer limit,
+            @RequestParam(name = "cursor", required = false) String cursor) {
+        GoalChatConversationDto conversation =
+                goalChatService.conversation(sessionId, userId, limit, PageCursor.decode(cursor));
+        return withNextCursor(conversation.getNextCursor()).body(conversation);
     }
 
     @PostMapping("/history/save")
@@ -68,6 +88,12 @@ public class GoalChatController {
         return ResponseEntity.ok().build();
     }
 
+    @PostMapping("/history/batch")
+    public ResponseEntity<GoalChatBatchUpdateResponse> batchUpdateHistory(
+            @Valid @RequestBody GoalChatBatchUpdateRequest request) {
+        return ResponseEntity.ok(goalChatService.batchUpdate(request));
+    }
+
     @DeleteMapping("/history/{sessionId}")
     public ResponseEntity<Void> deleteHistory(
             @PathVariable String sessionId,
@@ -75,4 +101,12 @@ public class GoalChatController {
         goalChatService.deleteConversation(sessionId, userId);
         return ResponseEntity.noContent().build();
     }
+
+    private ResponseEntity.BodyBuilder withNextCursor(String nextCursor) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (nextCursor != null) {
+            builder.header(PageCursor.NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return builder;
+    }
 }
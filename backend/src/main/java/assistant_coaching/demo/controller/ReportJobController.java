@@ -0,0 +1,46 @@
+package assistant_coaching.demo.controller;
+
+import assistant_coaching.demo.dto.ReportJobStatusDto;
+import assistant_coaching.demo.report.BulkReportJobService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/api/reports/jobs")
+public class ReportJobController {
+
+    private final BulkReportJobService jobService;
+
+    public ReportJobController(BulkReportJobService jobService) {
+        this.jobService = jobService;
+    }
+
+    @PostMapping
+    public ResponseEntity<ReportJobStatusDto> submit() {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(jobService.submit());
+    }
+
+    @GetMapping("/{jobId}")
+    public ReportJobStatusDto status(@PathVariable String jobId) {
+        return jobService.status(jobId);
+    }
+
+    @GetMapping(value = "/{jobId}/download", produces = "application/zip")
+    public ResponseEntity<StreamingResponseBody> download(@PathVariable String jobId) {
+        // Validates the job before the response is committed; the ZIP is then written as it is read.
+        String filename = jobService.archiveName(jobId);
+        StreamingResponseBody body = out -> jobService.writeArchive(jobId, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(body);
+    }
+}
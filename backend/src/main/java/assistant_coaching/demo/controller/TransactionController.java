@@ -0,0 +1,46 @@
+package assistant_coaching.demo.controller;
+
+import assistant_coaching.demo.analytics.TransactionLedgerService;
+import assistant_coaching.demo.dto.CreateTransactionRequest;
+import assistant_coaching.demo.dto.TransactionResponse;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/transactions")
+public class TransactionController {
+
+    private final TransactionLedgerService ledgerService;
+
+    public TransactionController(TransactionLedgerService ledgerService) {
+        this.ledgerService = ledgerService;
+    }
+
+    @GetMapping
+    public List<TransactionResponse> recent(@RequestParam Long userId,
+                                            @RequestParam(required = false) Integer limit) {
+        return ledgerService.recent(userId, limit);
+    }
+
+    @PostMapping
+    public ResponseEntity<TransactionResponse> create(@Valid @RequestBody CreateTransactionRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(ledgerService.record(request));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(@PathVariable Long id, @RequestParam Long userId) {
+        ledgerService.delete(id, userId);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,6 +1,8 @@
 package assistant_coaching.demo.controller;
 
+import assistant_coaching.demo.dto.CursorPage;
 import assistant_coaching.demo.dto.InteractionSummaryDto;
+import assistant_coaching.demo.dto.PageCursor;
 import assistant_coaching.demo.dto.StartSessionRequest;
 import assistant_coaching.demo.dto.StartSessionResponse;
 import assistant_coaching.demo.dto.VoiceInputRequest;
@@ -16,7 +18,9 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
 import java.util.Optional;
@@ -34,9 +38,8 @@ public class VoiceController {
     }
 
     @PostMapping("/voice-input")
-    public ResponseEntity<VoiceResponseDto> receiveVoice(@RequestBody VoiceInputRequest request) {
-        VoiceResponseDto response = voiceService.processVoiceInput(request);
-        return ResponseEntity.ok(response);
+    public Mono<ResponseEntity<VoiceResponseDto>> receiveVoice(@RequestBody VoiceInputRequest request) {
+        return voiceService.processVoiceInput(request).map(ResponseEntity::ok);
     }
 
     @PostMapping("/sessions")
@@ -70,8 +73,16 @@ public class VoiceController {
     }
 
     @GetMapping("/responses/{sessionId}")
-    public ResponseEntity<List<InteractionSummaryDto>> listResponses(@PathVariable Long sessionId) {
-        List<InteractionSummaryDto> interactions = voiceService.getSessionInteractions(sessionId);
-        return ResponseEntity.ok(interactions);
+    public ResponseEntity<List<InteractionSummaryDto>> listResponses(
+            @PathVariable Long sessionId,
+            @RequestParam(name = "limit", required = false) Integer limit,
+            @RequestParam(name = "cursor", required = false) String cursor) {
+        CursorPage<InteractionSummaryDto> page =
+                voiceService.getSessionInteractions(sessionId, limit, PageCursor.decode(cursor));
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            builder.header(PageCursor.NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return builder.body(page.items());
     }
 }
@@ -0,0 +1,27 @@
+package assistant_coaching.demo.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One keyset page and the cursor of the next one (null on the last page).
+ */
+public record CursorPage<T>(List<T> items, PageCursor next) {
+
+    /**
+     * Builds a page from a query that fetched {@code size + 1} rows: the extra row only
+     * signals that another page exists.
+     */
+    public static <R, T> CursorPage<T> of(List<R> rows, int size,
+                                          Function<R, PageCursor> cursorOf,
+                                          Function<R, T> mapper) {
+        boolean hasMore = rows.size() > size;
+        List<R> pageRows = hasMore ? rows.subList(0, size) : rows;
+        PageCursor next = hasMore ? cursorOf.apply(pageRows.get(pageRows.size() - 1)) : null;
+        return new CursorPage<>(pageRows.stream().map(mapper).toList(), next);
+    }
+
+    public String nextCursor() {
+        return next == null ? null : next.encode();
+    }
+}
@@ -0,0 +1,56 @@
+package assistant_coaching.demo.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Stars/unstars and/or renames several conversations at once. Fields left null are not changed.
+ */
+public class GoalChatBatchUpdateRequest {
+
+    @NotEmpty
+    @Size(max = 500)
+    private List<String> sessionIds;
+
+    @NotNull
+    private Long userId;
+
+    private Boolean starred;
+
+    private String newLabel;
+
+    public List<String> getSessionIds() {
+        return sessionIds;
+    }
+
+    public void setSessionIds(List<String> sessionIds) {
+        this.sessionIds = sessionIds;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Boolean getStarred() {
+        return starred;
+    }
+
+    public void setStarred(Boolean starred) {
+        this.starred = starred;
+    }
+
+    public String getNewLabel() {
+        return newLabel;
+    }
+
+    public void setNewLabel(String newLabel) {
+        this.newLabel = newLabel;
+    }
+}
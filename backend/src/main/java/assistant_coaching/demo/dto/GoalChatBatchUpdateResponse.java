@@ -0,0 +1,14 @@
+package assistant_coaching.demo.dto;
+
+public class GoalChatBatchUpdateResponse {
+
+    private final int updatedEntries;
+
+    public GoalChatBatchUpdateResponse(int updatedEntries) {
+        this.updatedEntries = updatedEntries;
+    }
+
+    public int getUpdatedEntries() {
+        return updatedEntries;
+    }
+}
@@ -8,15 +8,18 @@ public class GoalChatConversationDto {
     private final String goalId;
     private final String goalLabel;
     private final List<GoalChatMessageDto> messages;
+    private final String nextCursor;
 
     public GoalChatConversationDto(String sessionId,
                                    String goalId,
                                    String goalLabel,
-                                   List<GoalChatMessageDto> messages) {
+                                   List<GoalChatMessageDto> messages,
+                                   String nextCursor) {
         this.sessionId = sessionId;
         this.goalId = goalId;
         this.goalLabel = goalLabel;
         this.messages = messages;
+        this.nextCursor = nextCursor;
     }
 
     public String getSessionId() {
@@ -34,4 +37,11 @@ public class GoalChatConversationDto {
     public List<GoalChatMessageDto> getMessages() {
         return messages;
     }
+
+    /**
+     * Cursor of the following messages, null once the whole conversation was returned.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
 }
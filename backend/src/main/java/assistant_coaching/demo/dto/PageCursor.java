@@ -0,0 +1,50 @@
+package assistant_coaching.demo.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position: the (timestamp, key) of the last row of a page. Clients get it
+ * in the {@value #NEXT_CURSOR_HEADER} response header and send it back unchanged.
+ */
+public record PageCursor(LocalDateTime timestamp, String key) {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final char SEPARATOR = '|';
+
+    public String encode() {
+        String raw = timestamp + String.valueOf(SEPARATOR) + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns null for a missing cursor (first page) and rejects anything that was not
+     * produced by {@link #encode()}.
+     */
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Curseur de pagination invalide");
+            }
+            return new PageCursor(LocalDateTime.parse(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            throw new IllegalArgumentException("Curseur de pagination invalide", ex);
+        }
+    }
+
+    public long longKey() {
+        try {
+            return Long.parseLong(key);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Curseur de pagination invalide", ex);
+        }
+    }
+}
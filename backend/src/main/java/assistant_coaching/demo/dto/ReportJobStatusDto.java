@@ -0,0 +1,20 @@
+package assistant_coaching.demo.dto;
+
+import java.time.Instant;
+
+/**
+ * Progress of a bulk report export job.
+ */
+public record ReportJobStatusDto(
+        String jobId,
+        String state,
+        String month,
+        int total,
+        int completed,
+        int failed,
+        double progressPercent,
+        double reportsPerMinute,
+        Instant submittedAt,
+        Instant startedAt,
+        Instant finishedAt) {
+}
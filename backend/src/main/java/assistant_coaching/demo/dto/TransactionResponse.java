@@ -0,0 +1,48 @@
+package assistant_coaching.demo.dto;
+
+import assistant_coaching.demo.model.FinancialTransaction;
+
+import java.time.LocalDate;
+
+public class TransactionResponse {
+
+    private final Long id;
+    private final String type;
+    private final String category;
+    private final double amount;
+    private final LocalDate date;
+    private final String label;
+
+    public TransactionResponse(FinancialTransaction transaction) {
+        this.id = transaction.getId();
+        this.type = transaction.getType().name();
+        this.category = transaction.getCategory();
+        this.amount = transaction.getAmount().doubleValue();
+        this.date = transaction.getOccurredOn();
+        this.label = transaction.getLabel();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,151 @@
+package assistant_coaching.demo.goalchat;
+
+import assistant_coaching.demo.goalchat.GoalFacts.RiskTolerance;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parses one user answer into {@link GoalFacts}. Keyword-anchored amounts ("je gagne
+ * 9 000", "credit de 20k") are read first; a bare amount is attributed using the question
+ * it answers (the assistant's previous message). All patterns are compiled once and each
+ * answer is normalised a single time, so every turn is parsed exactly once.
+ */
+final class AnswerExtractor {
+
+    // Atomic, so a number followed by a duration or a rate cannot backtrack to a shorter prefix
+    // ("10 ans" must not yield 1).
+    private static final String AMOUNT = "(?>(\\d{1,3}(?:[ .]\\d{3})+|\\d+)(?:,\\d{1,2})?\\s*(k\\b)?)";
+    private static final String NOT_A_DURATION_OR_RATE = "(?!\\s*(?:%|mois|ans?\\b|annees?))";
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("[\\s\\u00a0\\u202f]+");
+    private static final Pattern INCOME = Pattern.compile(
+            "(?:revenu|salaire|gagne|touche)\\D{0,30}?" + AMOUNT + NOT_A_DURATION_OR_RATE);
+    private static final Pattern SAVINGS = Pattern.compile(
+            "(?:epargne|mettre de cote|mets de cote|economise|capacite)\\D{0,30}?" + AMOUNT + NOT_A_DURATION_OR_RATE);
+    private static final Pattern DEBT = Pattern.compile(
+            "(?:dette|credit|pret|emprunt|dois)\\D{0,30}?" + AMOUNT + NOT_A_DURATION_OR_RATE);
+    private static final Pattern BARE_AMOUNT = Pattern.compile(AMOUNT + NOT_A_DURATION_OR_RATE);
+    private static final Pattern RATE = Pattern.compile("(\\d+(?:[.,]\\d+)?)\\s*%");
+    private static final Pattern HORIZON = Pattern.compile("(\\d{1,3})\\s*(mois|ans?\\b|annees?)");
+    private static final Pattern RISK_LOW = Pattern.compile("prudent|sans risque|faible risque|peu de risque");
+    private static final Pattern RISK_MEDIUM = Pattern.compile("equilibre|modere");
+    private static final Pattern RISK_HIGH = Pattern.compile("dynamique|agressi|risque eleve|beaucoup de risque");
+
+    private static final Pattern ASKS_INCOME = Pattern.compile("revenu|salaire|gagnes");
+    private static final Pattern ASKS_SAVINGS = Pattern.compile("epargn|mettre de cote|economis|par mois");
+    private static final Pattern ASKS_DEBT = Pattern.compile("dette|credit|pret|rembours");
+    private static final Pattern ASKS_HORIZON = Pattern.compile("echeance|quand|horizon|delai|combien de temps");
+
+    private AnswerExtractor() {
+    }
+
+    /**
+     * Facts of one answer, plus the amount it states whatever that amount refers to, with
+     * the bound typed around it ({@code <}, {@code >} or {@code =}).
+     */
+    record Reading(GoalFacts facts, Long amount, String bound) {
+
+        static final Reading EMPTY = new Reading(GoalFacts.EMPTY, null, null);
+    }
+
+    static GoalFacts extract(String answer, String question) {
+        return read(answer, question).facts();
+    }
+
+    static Reading read(String answer, String question) {
+        if (answer == null || answer.isBlank()) {
+            return Reading.EMPTY;
+        }
+        String text = normalize(answer);
+        String asked = question == null ? "" : normalize(question);
+
+        Long income = amount(INCOME.matcher(text));
+        Long savings = amount(SAVINGS.matcher(text));
+        Long debt = amount(DEBT.matcher(text));
+        Integer horizon = horizonMonths(text);
+        Long bare = null;
+        if (income == null && savings == null && debt == null) {
+            bare = amount(BARE_AMOUNT.matcher(text));
+            if (bare != null) {
+                if (ASKS_INCOME.matcher(asked).find()) {
+                    income = bare;
+                } else if (ASKS_DEBT.matcher(asked).find()) {
+                    debt = bare;
+                } else if (ASKS_SAVINGS.matcher(asked).find()) {
+                    savings = bare;
+                }
+            }
+        }
+        if (horizon == null && ASKS_HORIZON.matcher(asked).find()) {
+            Long months = bare != null ? bare : amount(BARE_AMOUNT.matcher(text));
+            if (months != null && months <= 600) {
+                horizon = months.intValue();
+                bare = null;
+            }
+        }
+        GoalFacts facts = new GoalFacts(income, savings, debt, rate(text), horizon, risk(text));
+        Long stated = income != null ? income : savings != null ? savings : debt != null ? debt : bare;
+        return new Reading(facts, stated, stated == null ? null : bound(text));
+    }
+
+    static String normalize(String value) {
+        String stripped = MARKS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("");
+        return SPACES.matcher(stripped.toLowerCase(Locale.ROOT)).replaceAll(" ");
+    }
+
+    private static Long amount(Matcher matcher) {
+        if (!matcher.find()) {
+            return null;
+        }
+        String digits = matcher.group(1);
+        long value = 0;
+        for (int i = 0; i < digits.length(); i++) {
+            char c = digits.charAt(i);
+            if (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+                if (value > 1_000_000_000_000L) {
+                    return null;
+                }
+            }
+        }
+        return matcher.group(2) != null ? value * 1_000 : value;
+    }
+
+    private static String bound(String text) {
+        if (text.indexOf('<') >= 0) {
+            return "<";
+        }
+        return text.indexOf('>') >= 0 ? ">" : "=";
+    }
+
+    private static Double rate(String text) {
+        Matcher matcher = RATE.matcher(text);
+        return matcher.find() ? Double.parseDouble(matcher.group(1).replace(',', '.')) : null;
+    }
+
+    private static Integer horizonMonths(String text) {
+        Matcher matcher = HORIZON.matcher(text);
+        if (!matcher.find()) {
+            return null;
+        }
+        int value = Integer.parseInt(matcher.group(1));
+        return matcher.group(2).startsWith("mois") ? value : value * 12;
+    }
+
+    private static RiskTolerance risk(String text) {
+        if (RISK_HIGH.matcher(text).find()) {
+            return RiskTolerance.HIGH;
+        }
+        if (RISK_LOW.matcher(text).find()) {
+            return RiskTolerance.LOW;
+        }
+        if (RISK_MEDIUM.matcher(text).find()) {
+            return RiskTolerance.MEDIUM;
+        }
+        return null;
+    }
+}
@@ -36,9 +36,31 @@ public class FallbackCoachFormatter {
         return new FallbackMessage(followUp, quickReplies);
     }
 
+    public FallbackMessage buildOpeningMessage(String goalLabel, String firstQuestion) {
+        FallbackMessage question = buildQuestionMessage(goalLabel, firstQuestion);
+        String opening = "Bonjour ! Construisons ensemble ton plan pour \"" + goalLabel + "\". " + question.message();
+        return new FallbackMessage(opening, question.quickReplies());
+    }
+
     public FallbackMessage buildPlanMessage(String goalLabel, List<AnswerValue> answers) {
+        return buildPlanMessage(goalLabel, answers, GoalFacts.EMPTY);
+    }
+
+    /**
+     * Same plan, grounded in the facts already extracted from the session's answers.
+     */
+    public FallbackMessage buildPlanMessage(String goalLabel, List<AnswerValue> answers, GoalFacts facts) {
         StringBuilder builder = new StringBuilder();
         builder.append(buildSummaryLine(goalLabel)).append("\n");
+        if (facts != null && !facts.isEmpty()) {
+            builder.append("Tes chiffres : ").append(facts.describe()).append(".\n");
+            if (facts.monthlySavings() != null && facts.horizonMonths() != null) {
+                long projected = facts.monthlySavings() * facts.horizonMonths();
+                builder.append("À ce rythme : ~")
+                        .append(NumberFormat.getIntegerInstance(Locale.FRANCE).format(projected))
+                        .append(" MAD en ").append(facts.horizonMonths()).append(" mois.\n");
+            }
+        }
         builder.append("Actions (cette semaine) :\n");
 
         List<String> actions = new ArrayList<>(buildActionLines());
@@ -1,29 +1,55 @@
 package assistant_coaching.demo.goalchat;
 
+import assistant_coaching.demo.dto.CursorPage;
+import assistant_coaching.demo.dto.PageCursor;
 import assistant_coaching.demo.model.GoalChatHistory;
+import assistant_coaching.demo.model.GoalChatSessionSummary;
 import assistant_coaching.demo.repository.GoalChatHistoryRepository;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collection;
 import java.util.List;
-import java.util.Set;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @Service
 public class GoalChatHistoryService {
 
     private static final int DEFAULT_LIMIT = 30;
     private static final int MAX_LIMIT = 200;
+    private static final int DEFAULT_ENTRY_PAGE = 200;
+    private static final int MAX_ENTRY_PAGE = 500;
 
     private final GoalChatHistoryRepository historyRepository;
+    private final GoalChatHistoryWriteBehind writeBehind;
+    private final GoalChatSessionSummaryService summaryService;
+    private final TransactionTemplate transactionTemplate;
 
-    public GoalChatHistoryService(GoalChatHistoryRepository historyRepository) {
+    public GoalChatHistoryService(GoalChatHistoryRepository historyRepository,
+                                  GoalChatHistoryWriteBehind writeBehind,
+                                  GoalChatSessionSummaryService summaryService,
+                                  PlatformTransactionManager transactionManager) {
         this.historyRepository = historyRepository;
+        this.writeBehind = writeBehind;
+        this.summaryService = summaryService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
-    @Transactional
+    /**
+     * Persists one chat turn. In write-behind mode the entry is only queued (its id stays
+     * null) and session listings may lag by up to the flush interval.
+     * <p>
+     * The first turns of a new session can race to create its summary row; the loser's
+     * transaction fails on the primary key and is replayed once, which then finds the row
+     * and updates it. Any other integrity violation (the summary row still missing) is
+     * rethrown as is.
+     */
     public GoalChatHistory recordEntry(String sessionId,
                                        Long userId,
                                        String goalId,
@@ -34,64 +60,104 @@ public class GoalChatHistoryService {
                                        Integer promptTokens,
                                        Integer completionTokens,
                                        Integer totalTokens) {
-        GoalChatHistory entry = new GoalChatHistory(sessionId, userId, goalId, goalLabel, userInput, assistantReply);
-        entry.setModelName(modelName);
-        entry.setPromptTokens(promptTokens);
-        entry.setCompletionTokens(completionTokens);
-        entry.setTotalTokens(totalTokens);
-        return historyRepository.save(entry);
-    }
-
-    public List<GoalChatHistory> recentSessions(Integer limit, Long userId) {
-        int size = normalizeLimit(limit);
-        int fetchSize = Math.min(size * 5, MAX_LIMIT * 2);
-        List<GoalChatHistory> latestEntries =
-                historyRepository.findAllByUserIdOrderByTimestampDesc(userId, PageRequest.of(0, fetchSize));
-        List<GoalChatHistory> deduped = new ArrayList<>(size);
-        Set<String> seenSessionIds = new HashSet<>();
-        for (GoalChatHistory entry : latestEntries) {
-            if (!seenSessionIds.add(entry.getSessionId())) {
-                continue;
-            }
-            deduped.add(entry);
-            if (deduped.size() >= size) {
-                break;
+        Supplier<GoalChatHistory> newEntry = () -> {
+            GoalChatHistory entry = new GoalChatHistory(sessionId, userId, goalId, goalLabel, userInput, assistantReply);
+            entry.setModelName(modelName);
+            entry.setPromptTokens(promptTokens);
+            entry.setCompletionTokens(completionTokens);
+            entry.setTotalTokens(totalTokens);
+            return entry;
+        };
+        if (writeBehind.isEnabled()) {
+            GoalChatHistory entry = newEntry.get();
+            writeBehind.enqueue(entry);
+            return entry;
+        }
+        try {
+            return transactionTemplate.execute(status -> save(newEntry.get()));
+        } catch (DataIntegrityViolationException ex) {
+            if (!summaryService.exists(sessionId)) {
+                throw ex;
             }
+            return transactionTemplate.execute(status -> save(newEntry.get()));
         }
-        return deduped;
+    }
+
+    private GoalChatHistory save(GoalChatHistory entry) {
+        GoalChatHistory saved = historyRepository.save(entry);
+        summaryService.record(saved);
+        return saved;
+    }
+
+    /**
+     * One summary per session, most recent first, read by keyset from the summary table.
+     */
+    public CursorPage<GoalChatSessionSummary> recentSessions(Integer limit, Long userId, PageCursor cursor) {
+        return summaryService.page(userId, normalizeLimit(limit), cursor);
+    }
+
+    public Optional<GoalChatSessionSummary> sessionSummary(String sessionId, Long userId) {
+        writeBehind.flush();
+        return summaryService.find(sessionId, userId);
+    }
+
+    /**
+     * Entries of one session in chronological order, one keyset page at a time.
+     */
+    public CursorPage<GoalChatHistory> entriesPage(String sessionId, Long userId, Integer limit, PageCursor cursor) {
+        writeBehind.flush();
+        int size = limit == null || limit < 1 ? DEFAULT_ENTRY_PAGE : Math.min(limit, MAX_ENTRY_PAGE);
+        PageRequest pageRequest = PageRequest.of(0, size + 1);
+        List<GoalChatHistory> rows = cursor == null
+                ? historyRepository.findBySessionIdAndUserIdOrderByTimestampAscIdAsc(sessionId, userId, pageRequest)
+                : historyRepository.findPageAfter(sessionId, userId, cursor.timestamp(), cursor.longKey(), pageRequest);
+        return CursorPage.of(rows, size,
+                entry -> new PageCursor(entry.getTimestamp(), String.valueOf(entry.getId())),
+                Function.identity());
     }
 
     @Transactional
     public void markSessionStarred(String sessionId, Long userId, boolean starred) {
-        List<GoalChatHistory> entries = historyRepository.findBySessionIdAndUserId(sessionId, userId);
-        if (entries.isEmpty()) {
+        if (markSessionsStarred(List.of(sessionId), userId, starred) == 0) {
             throw new IllegalArgumentException("Session introuvable: " + sessionId);
         }
-        for (GoalChatHistory entry : entries) {
-            entry.setStarred(starred);
-        }
-        historyRepository.saveAll(entries);
+    }
+
+    /**
+     * Stars or unstars every entry of the given sessions with a single UPDATE.
+     * Returns the number of history rows touched.
+     */
+    @Transactional
+    public int markSessionsStarred(Collection<String> sessionIds, Long userId, boolean starred) {
+        writeBehind.flush();
+        summaryService.markStarred(sessionIds, userId, starred);
+        return historyRepository.updateStarredForSessions(userId, sessionIds, starred);
     }
 
     public List<GoalChatHistory> entriesForSession(String sessionId, Long userId) {
+        writeBehind.flush();
         return historyRepository.findBySessionIdAndUserIdOrderByTimestampAsc(sessionId, userId);
     }
 
     @Transactional
     public void renameSession(String sessionId, Long userId, String newLabel) {
-        List<GoalChatHistory> entries = historyRepository.findBySessionIdAndUserId(sessionId, userId);
-        if (entries.isEmpty()) {
+        if (renameSessions(List.of(sessionId), userId, newLabel) == 0) {
             throw new IllegalArgumentException("Session introuvable: " + sessionId);
         }
-        for (GoalChatHistory entry : entries) {
-            entry.setGoalLabel(newLabel);
-        }
-        historyRepository.saveAll(entries);
+    }
+
+    @Transactional
+    public int renameSessions(Collection<String> sessionIds, Long userId, String newLabel) {
+        writeBehind.flush();
+        summaryService.rename(sessionIds, userId, newLabel);
+        return historyRepository.updateGoalLabelForSessions(userId, sessionIds, newLabel);
     }
 
     @Transactional
     public void deleteSession(String sessionId, Long userId) {
+        writeBehind.flush();
         historyRepository.deleteBySessionIdAndUserId(sessionId, userId);
+        summaryService.delete(sessionId, userId);
     }
 
     private int normalizeLimit(Integer limit) {
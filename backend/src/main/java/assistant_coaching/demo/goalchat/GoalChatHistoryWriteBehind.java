@@ -0,0 +1,468 @@
+package assistant_coaching.demo.goalchat;
+
+import assistant_coaching.demo.llm.LlmMetrics;
+import assistant_coaching.demo.model.GoalChatHistory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Write-behind persistence for goal chat history, enabled with
+ * {@code app.goal-chat.write-behind.enabled=true}.
+ * <p>
+ * Entries are queued in memory and a background thread inserts them with JDBC batch
+ * statements. When the queue is full, or a batch cannot be written, the entries are
+ * appended to a local spill file that is replayed once the database accepts writes
+ * again; rows the database rejects during a replay go to a dead-letter file next to it.
+ * Stopping the context drains the queue before the datasource goes away.
+ */
+@Component
+public class GoalChatHistoryWriteBehind implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(GoalChatHistoryWriteBehind.class);
+    private static final String INSERT_SQL = """
+            INSERT INTO goal_chat_history
+                (session_id, user_id, goal_id, goal_label, user_input, assistant_reply, timestamp, starred,
+                 model_name, prompt_tokens, completion_tokens, total_tokens)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+    private static final long REPLAY_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final HistoryWriteBehindProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JsonMapper jsonMapper;
+    private final GoalChatSessionSummaryService summaryService;
+    private final BlockingQueue<PendingEntry> queue;
+    private final Object writeLock = new Object();
+    private final Object spillLock = new Object();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder spilled = new LongAdder();
+    private final LongAdder deadLettered = new LongAdder();
+    private volatile boolean running;
+    private volatile Thread writer;
+    private long nextReplayNanos;
+
+    public GoalChatHistoryWriteBehind(HistoryWriteBehindProperties properties,
+                                      DataSource dataSource,
+                                      PlatformTransactionManager transactionManager,
+                                      JsonMapper jsonMapper,
+                                      GoalChatSessionSummaryService summaryService,
+                                      LlmMetrics metrics) {
+        this.properties = properties;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        // Flushes run inside the caller's transaction (e.g. starring sessions); a failed
+        // batch is spilled, and must not mark that transaction rollback-only.
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.jsonMapper = jsonMapper;
+        this.summaryService = summaryService;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity()));
+        this.nextReplayNanos = System.nanoTime();
+        metrics.bindHistoryWriter(this);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Queues the entry without touching the database. The entry gets its timestamp here
+     * since no JPA callback will run for it.
+     */
+    public void enqueue(GoalChatHistory entry) {
+        if (entry.getTimestamp() == null) {
+            entry.setTimestamp(LocalDateTime.now());
+        }
+        PendingEntry pending = PendingEntry.of(entry);
+        if (!queue.offer(pending)) {
+            spill(List.of(pending));
+            return;
+        }
+        Thread current = writer;
+        if (current != null && queue.size() >= batchSize()) {
+            LockSupport.unpark(current);
+        }
+    }
+
+    /**
+     * Writes everything queued so far on the calling thread. Called before reads and
+     * updates of a session so they observe its latest turns.
+     */
+    public void flush() {
+        if (isEnabled()) {
+            drainQueue();
+        }
+    }
+
+    public long pending() {
+        return queue.size();
+    }
+
+    public long written() {
+        return written.sum();
+    }
+
+    public long spilled() {
+        return spilled.sum();
+    }
+
+    public long deadLettered() {
+        return deadLettered.sum();
+    }
+
+    @Override
+    public void start() {
+        if (!isEnabled() || running) {
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(this::run, "goal-chat-history-writer");
+        thread.setDaemon(true);
+        writer = thread;
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        Thread thread = writer;
+        writer = null;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        drainQueue();
+        log.info("Goal chat history writer stopped ({} written, {} spilled)", written.sum(), spilled.sum());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        long intervalNanos = Math.max(1, properties.getFlushInterval().toNanos());
+        while (running) {
+            try {
+                drainQueue();
+                replaySpill();
+            } catch (RuntimeException ex) {
+                log.warn("Goal chat history writer iteration failed", ex);
+            }
+            LockSupport.parkNanos(this, intervalNanos);
+        }
+    }
+
+    private void drainQueue() {
+        synchronized (writeLock) {
+            List<PendingEntry> batch = new ArrayList<>(batchSize());
+            while (queue.drainTo(batch, batchSize()) > 0) {
+                try {
+                    insert(batch);
+                } catch (RuntimeException ex) {
+                    log.warn("Could not write {} goal chat history entries, spilling them to {}",
+                            batch.size(), properties.getSpillFile(), ex);
+                    spill(batch);
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Inserts the batch and folds it into the session summaries in the same transaction,
+     * with the generated ids so summaries point at their last entry.
+     */
+    private void insert(List<PendingEntry> entries) {
+        transactionTemplate.executeWithoutResult(status -> {
+            KeyHolder keys = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_SQL, new String[] {"id"}),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement statement, int index) throws SQLException {
+                            bind(statement, entries.get(index));
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return entries.size();
+                        }
+                    }, keys);
+            List<Map<String, Object>> generated = keys.getKeyList();
+            List<GoalChatHistory> rows = new ArrayList<>(entries.size());
+            for (int i = 0; i < entries.size(); i++) {
+                GoalChatHistory row = entries.get(i).toHistory();
+                if (i < generated.size()) {
+                    row.setId(idOf(generated.get(i)));
+                }
+                rows.add(row);
+            }
+            summaryService.recordAll(rows);
+        });
+        written.add(entries.size());
+    }
+
+    private static void bind(PreparedStatement statement, PendingEntry entry) throws SQLException {
+        statement.setString(1, entry.sessionId());
+        setLong(statement, 2, entry.userId());
+        statement.setString(3, entry.goalId());
+        statement.setString(4, entry.goalLabel());
+        statement.setString(5, entry.userInput());
+        statement.setString(6, entry.assistantReply());
+        statement.setTimestamp(7, Timestamp.valueOf(entry.timestamp()));
+        statement.setBoolean(8, false);
+        statement.setString(9, entry.modelName());
+        setInt(statement, 10, entry.promptTokens());
+        setInt(statement, 11, entry.completionTokens());
+        setInt(statement, 12, entry.totalTokens());
+    }
+
+    private static Long idOf(Map<String, Object> keys) {
+        return keys.values().stream()
+                .filter(Number.class::isInstance)
+                .map(value -> ((Number) value).longValue())
+                .findFirst()
+                .orElse(null);
+    }
+
+    private void spill(List<PendingEntry> entries) {
+        synchronized (spillLock) {
+            Path file = properties.getSpillFile();
+            try {
+                if (file.getParent() != null) {
+                    Files.createDirectories(file.getParent());
+                }
+                try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.DSYNC)) {
+                    for (PendingEntry entry : entries) {
+                        out.write(jsonMapper.writeValueAsString(entry));
+                        out.newLine();
+                    }
+                }
+                spilled.add(entries.size());
+            } catch (IOException ex) {
+                log.error("Lost {} goal chat history entries: spill file {} is not writable",
+                        entries.size(), file, ex);
+            }
+        }
+    }
+
+    /**
+     * Moves the spill file aside and inserts its rows one batch at a time. A batch the
+     * database rejects is retried row by row and the offending rows, like unreadable
+     * lines, go to the dead-letter file. When the database is unreachable the rows not yet
+     * written stay in the replay file for the next attempt, which starts where this one
+     * stopped.
+     */
+    void replaySpill() {
+        if (System.nanoTime() - nextReplayNanos < 0) {
+            return;
+        }
+        Path spillFile = properties.getSpillFile();
+        Path replayFile = spillFile.resolveSibling(spillFile.getFileName() + ".replay");
+        synchronized (writeLock) {
+            List<String> lines;
+            try {
+                synchronized (spillLock) {
+                    if (!Files.exists(replayFile)) {
+                        if (!Files.exists(spillFile)) {
+                            return;
+                        }
+                        Files.move(spillFile, replayFile, StandardCopyOption.ATOMIC_MOVE);
+                    }
+                }
+                lines = Files.readAllLines(replayFile, StandardCharsets.UTF_8);
+            } catch (IOException ex) {
+                nextReplayNanos = System.nanoTime() + REPLAY_BACKOFF_NANOS;
+                log.warn("Could not read spilled goal chat history from {}", replayFile, ex);
+                return;
+            }
+            List<PendingEntry> entries = new ArrayList<>(lines.size());
+            List<String> sources = new ArrayList<>(lines.size());
+            for (String line : lines) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    entries.add(jsonMapper.readValue(line, PendingEntry.class));
+                    sources.add(line);
+                } catch (RuntimeException ex) {
+                    deadLetter(line, ex);
+                }
+            }
+            int done = 0;
+            int replayed = 0;
+            try {
+                while (done < entries.size()) {
+                    List<PendingEntry> batch = entries.subList(done, Math.min(entries.size(), done + batchSize()));
+                    if (tryInsert(batch) == null) {
+                        done += batch.size();
+                        replayed += batch.size();
+                        continue;
+                    }
+                    for (PendingEntry entry : List.copyOf(batch)) {
+                        RuntimeException rejected = tryInsert(List.of(entry));
+                        if (rejected == null) {
+                            replayed++;
+                        } else {
+                            deadLetter(sources.get(done), rejected);
+                        }
+                        done++;
+                    }
+                }
+            } catch (RuntimeException ex) {
+                nextReplayNanos = System.nanoTime() + REPLAY_BACKOFF_NANOS;
+                log.warn("Database unavailable while replaying {}, {} rows left for the next attempt",
+                        replayFile, entries.size() - done, ex);
+            }
+            try {
+                if (done == entries.size()) {
+                    Files.delete(replayFile);
+                } else {
+                    rewrite(replayFile, sources.subList(done, sources.size()));
+                }
+            } catch (IOException ex) {
+                log.error("Could not update replay file {}, its rows may be written twice", replayFile, ex);
+            }
+            if (replayed > 0) {
+                log.info("Replayed {} spilled goal chat history entries", replayed);
+            }
+        }
+    }
+
+    /**
+     * Inserts the entries and returns null, or returns the exception when the database
+     * rejected them. Throws when the database itself is unavailable.
+     */
+    private RuntimeException tryInsert(List<PendingEntry> entries) {
+        try {
+            insert(entries);
+            return null;
+        } catch (RuntimeException ex) {
+            if (isUnavailable(ex)) {
+                throw ex;
+            }
+            return ex;
+        }
+    }
+
+    private void deadLetter(String line, Exception cause) {
+        Path file = deadLetterFile();
+        log.warn("Moving a spilled goal chat history row to {}: {}", file, cause.getMessage());
+        try {
+            Files.writeString(file, line + System.lineSeparator(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.DSYNC);
+            deadLettered.increment();
+        } catch (IOException ex) {
+            log.error("Lost a goal chat history row: dead-letter file {} is not writable", file, ex);
+        }
+    }
+
+    private static void rewrite(Path file, List<String> lines) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(tmp, lines, StandardCharsets.UTF_8);
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path deadLetterFile() {
+        Path spillFile = properties.getSpillFile();
+        return spillFile.resolveSibling(spillFile.getFileName() + ".dead");
+    }
+
+    private static boolean isUnavailable(Throwable ex) {
+        return ex instanceof TransientDataAccessException
+                || ex instanceof DataAccessResourceFailureException
+                || ex instanceof CannotCreateTransactionException;
+    }
+
+    private int batchSize() {
+        return Math.max(1, properties.getBatchSize());
+    }
+
+    private static void setLong(PreparedStatement statement, int index, Long value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.BIGINT);
+        } else {
+            statement.setLong(index, value);
+        }
+    }
+
+    private static void setInt(PreparedStatement statement, int index, Integer value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.INTEGER);
+        } else {
+            statement.setInt(index, value);
+        }
+    }
+
+    record PendingEntry(String sessionId,
+                        Long userId,
+                        String goalId,
+                        String goalLabel,
+                        String userInput,
+                        String assistantReply,
+                        LocalDateTime timestamp,
+                        String modelName,
+                        Integer promptTokens,
+                        Integer completionTokens,
+                        Integer totalTokens) {
+
+        static PendingEntry of(GoalChatHistory entry) {
+            return new PendingEntry(entry.getSessionId(), entry.getUserId(), entry.getGoalId(), entry.getGoalLabel(),
+                    entry.getUserInput(), entry.getAssistantReply(), entry.getTimestamp(), entry.getModelName(),
+                    entry.getPromptTokens(), entry.getCompletionTokens(), entry.getTotalTokens());
+        }
+
+        GoalChatHistory toHistory() {
+            GoalChatHistory entry = new GoalChatHistory(sessionId, userId, goalId, goalLabel, userInput, assistantReply);
+            entry.setTimestamp(timestamp);
+            entry.setModelName(modelName);
+            entry.setPromptTokens(promptTokens);
+            entry.setCompletionTokens(completionTokens);
+            entry.setTotalTokens(totalTokens);
+            return entry;
+        }
+    }
+}
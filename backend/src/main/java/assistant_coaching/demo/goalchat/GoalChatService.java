@@ -1,5 +1,10 @@
 package assistant_coaching.demo.goalchat;
 
+import assistant_coaching.demo.cache.SessionStore;
+import assistant_coaching.demo.cache.SessionStoreFactory;
+import assistant_coaching.demo.dto.CursorPage;
+import assistant_coaching.demo.dto.GoalChatBatchUpdateRequest;
+import assistant_coaching.demo.dto.GoalChatBatchUpdateResponse;
 import assistant_coaching.demo.dto.GoalChatConversationDto;
 import assistant_coaching.demo.dto.GoalChatHistoryItemDto;
 import assistant_coaching.demo.dto.GoalChatMessageDto;
@@ -9,28 +14,33 @@ import assistant_coaching.demo.dto.GoalMessageRequest;
 import assistant_coaching.demo.dto.GoalMessageResponse;
 import assistant_coaching.demo.dto.GoalSessionStartRequest;
 import assistant_coaching.demo.dto.GoalSessionStartResponse;
+import assistant_coaching.demo.dto.PageCursor;
 import assistant_coaching.demo.goalchat.FallbackCoachFormatter.AnswerValue;
 import assistant_coaching.demo.goalchat.FallbackCoachFormatter.FallbackMessage;
+import assistant_coaching.demo.llm.ContextWindowManager;
+import assistant_coaching.demo.llm.LlmCallContext;
+import assistant_coaching.demo.llm.LlmCallException;
+import assistant_coaching.demo.llm.LlmGateway;
 import assistant_coaching.demo.llm.LlmMessage;
-import assistant_coaching.demo.llm.LlmRequest;
 import assistant_coaching.demo.llm.LlmResponse;
+import assistant_coaching.demo.llm.LlmResponseCache;
 import assistant_coaching.demo.llm.LlmResult;
+import assistant_coaching.demo.llm.LlmStreamChunk;
 import assistant_coaching.demo.llm.OpenAiProperties;
 import assistant_coaching.demo.model.GoalChatHistory;
+import assistant_coaching.demo.model.GoalChatSessionSummary;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
-import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class GoalChatService {
@@ -38,24 +48,38 @@ public class GoalChatService {
     private static final Logger log = LoggerFactory.getLogger(GoalChatService.class);
 
     private final OpenAiProperties properties;
-    private final WebClient openAiWebClient;
+    private final LlmGateway gateway;
     private final GoalQuestionBank questionBank;
     private final FallbackCoachFormatter fallbackFormatter;
     private final GoalChatHistoryService historyService;
-    private final Map<String, GoalChatSession> sessions = new ConcurrentHashMap<>();
+    private final ContextWindowManager contextWindow;
+    private final LlmResponseCache responseCache;
+    private final GoalTurnRouter turnRouter;
+    private final LocalTurnEngine localEngine;
+    private final SessionStore<String, GoalChatSession> sessions;
 
-    public GoalChatService(OpenAiProperties properties, WebClient openAiWebClient,
+    public GoalChatService(OpenAiProperties properties, LlmGateway gateway,
                            GoalQuestionBank questionBank,
                            FallbackCoachFormatter fallbackFormatter,
-                           GoalChatHistoryService historyService) {
+                           GoalChatHistoryService historyService,
+                           SessionStoreFactory sessionStoreFactory,
+                           ContextWindowManager contextWindow,
+                           LlmResponseCache responseCache,
+                           GoalTurnRouter turnRouter,
+                           LocalTurnEngine localEngine) {
         this.properties = properties;
-        this.openAiWebClient = openAiWebClient;
+        this.gateway = gateway;
         this.questionBank = questionBank;
         this.fallbackFormatter = fallbackFormatter;
         this.historyService = historyService;
+        this.contextWindow = contextWindow;
+        this.responseCache = responseCache;
+        this.turnRouter = turnRouter;
+        this.localEngine = localEngine;
+        this.sessions = sessionStoreFactory.create("goal-chat", GoalChatSession::estimatedWeight);
     }
 
-    public GoalSessionStartResponse startSession(GoalSessionStartRequest request) {
+    public Mono<GoalSessionStartResponse> startSession(GoalSessionStartRequest request) {
         String sessionId = UUID.randomUUID().toString();
         GoalChatSession session = new GoalChatSession(
                 sessionId,
@@ -64,7 +88,7 @@ public class GoalChatService {
                 request.getUserId());
 
         List<LlmMessage> messages = new ArrayList<>();
-        LlmMessage systemMessage = new LlmMessage("system", systemPrompt(request.getGoalLabel(), request.getGoalId()));
+        LlmMessage systemMessage = questionBank.systemMessage(request.getGoalId(), request.getGoalLabel());
         LlmMessage userMessage = new LlmMessage("user",
                 "L'utilisateur a choisi l'objectif \"" + request.getGoalLabel()
                         + "\". Commence la conversation, salue brievement, et pose la premiere question adaptee.");
@@ -73,61 +97,159 @@ public class GoalChatService {
         session.addMessage(systemMessage);
         session.addMessage(userMessage);
 
-        LlmResult result = query(session, messages);
-        session.addMessage(new LlmMessage("assistant", result.getReply()));
-        historyService.recordEntry(
-                sessionId,
-                request.getUserId(),
-                request.getGoalId(),
-                request.getGoalLabel(),
-                null,
-                result.getReply(),
-                result.getModel(),
-                result.getPromptTokens(),
-                result.getCompletionTokens(),
-                result.getTotalTokens());
-        sessions.put(sessionId, session);
-
-        return new GoalSessionStartResponse(
-                sessionId,
-                result.getReply(),
-                result.getFallbackNotice(),
-                result.getQuickReplies());
+        long started = System.nanoTime();
+        LlmResult localOpening = localEngine.opening(session);
+        LlmCallContext context = callContext(session, LlmCallContext.GOAL_START);
+        // The opening prompt only depends on the goal, so its replies are shared across users.
+        Mono<LlmResult> opening = localOpening != null
+                ? Mono.just(localOpening)
+                : withFallback(session, responseCache.getOrCompute(turnRouter.classify(session).name(),
+                        context.route(), messages, () -> gateway.complete(messages, context)));
+        return opening
+                .publishOn(Schedulers.boundedElastic())
+                .map(result -> {
+                    localEngine.recordTurn(session, result, started);
+                    session.addMessage(new LlmMessage("assistant", result.getReply()));
+                    historyService.recordEntry(
+                            sessionId,
+                            request.getUserId(),
+                            request.getGoalId(),
+                            request.getGoalLabel(),
+                            null,
+                            result.getReply(),
+                            result.getModel(),
+                            result.getPromptTokens(),
+                            result.getCompletionTokens(),
+                            result.getTotalTokens());
+                    sessions.put(sessionId, session);
+
+                    return new GoalSessionStartResponse(
+                            sessionId,
+                            result.getReply(),
+                            result.getFallbackNotice(),
+                            result.getQuickReplies());
+                });
     }
 
-    public GoalMessageResponse continueConversation(GoalMessageRequest request) {
-        GoalChatSession session = ensureSessionLoaded(request.getSessionId(), request.getUserId());
-        session.recordFallbackAnswer(request.getMessage());
-        session.addMessage(new LlmMessage("user", request.getMessage()));
-        LlmResult result = query(session, session.getHistory());
-        session.addMessage(new LlmMessage("assistant", result.getReply()));
-        historyService.recordEntry(
-                session.getSessionId(),
-                request.getUserId(),
-                session.getGoalId(),
-                session.getGoalLabel(),
-                request.getMessage(),
-                result.getReply(),
-                result.getModel(),
-                result.getPromptTokens(),
-                result.getCompletionTokens(),
-                result.getTotalTokens());
-        return new GoalMessageResponse(result.getReply(), result.getFallbackNotice(), result.getQuickReplies());
+    /**
+     * Runs one chat turn without holding the calling thread: session restoration and
+     * history writes go to the bounded elastic pool, the LLM exchange stays on the
+     * WebClient event loop.
+     */
+    public Mono<GoalMessageResponse> continueConversation(GoalMessageRequest request) {
+        return Mono.fromCallable(() -> ensureSessionLoaded(request.getSessionId(), request.getUserId()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(session -> {
+                    long started = System.nanoTime();
+                    localEngine.recordAnswer(session, request.getMessage());
+                    addUserMessage(session, request.getMessage());
+                    LlmResult local = localEngine.nextTurn(session);
+                    Mono<LlmResult> turn = local != null ? Mono.just(local) : query(session, promptFor(session));
+                    return turn
+                            .publishOn(Schedulers.boundedElastic())
+                            .map(result -> {
+                                localEngine.recordTurn(session, result, started);
+                                session.addMessage(new LlmMessage("assistant", result.getReply()));
+                                historyService.recordEntry(
+                                        session.getSessionId(),
+                                        request.getUserId(),
+                                        session.getGoalId(),
+                                        session.getGoalLabel(),
+                                        request.getMessage(),
+                                        result.getReply(),
+                                        result.getModel(),
+                                        result.getPromptTokens(),
+                                        result.getCompletionTokens(),
+                                        result.getTotalTokens());
+                                return new GoalMessageResponse(result.getReply(), result.getFallbackNotice(), result.getQuickReplies());
+                            });
+                });
     }
 
-    public List<GoalChatHistoryItemDto> recentHistory(Integer limit, Long userId) {
-        return historyService.recentSessions(limit, userId).stream()
-                .map(entry -> new GoalChatHistoryItemDto(
-                        entry.getId(),
-                        entry.getSessionId(),
-                        entry.getGoalId(),
-                        entry.getGoalLabel(),
-                        entry.getUserInput(),
-                        entry.getAssistantReply(),
-                        GoalAmountParser.normalizeLabel(entry.getUserInput()),
-                        entry.getTimestamp(),
-                        entry.isStarred()))
+    /**
+     * Streaming flavour of {@link #continueConversation}: every completion delta is
+     * relayed as a {@code delta} event as soon as OpenAI emits it, then a single
+     * {@code done} event carries the full {@link GoalMessageResponse} once the reply has
+     * been persisted.
+     */
+    public Flux<ServerSentEvent<Object>> streamConversation(GoalMessageRequest request) {
+        return Mono.fromCallable(() -> ensureSessionLoaded(request.getSessionId(), request.getUserId()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapMany(session -> {
+                    long started = System.nanoTime();
+                    localEngine.recordAnswer(session, request.getMessage());
+                    addUserMessage(session, request.getMessage());
+                    StreamedReply reply = new StreamedReply();
+
+                    LlmResult local = localEngine.nextTurn(session);
+                    LlmCallContext context = callContext(session, LlmCallContext.GOAL_STREAM);
+                    Flux<String> texts;
+                    if (local != null) {
+                        reply.useResult(local);
+                        texts = Flux.just(local.getReply());
+                    } else {
+                        texts = streamQuery(context, promptFor(session), reply);
+                    }
+                    Flux<ServerSentEvent<Object>> deltas = texts
+                            .onErrorResume(ex -> {
+                                if (reply.hasContent()) {
+                                    log.warn("Goal chat stream interrupted after partial reply", ex);
+                                    return Flux.empty();
+                                }
+                                String reason = ex instanceof LlmCallException callException
+                                        ? callException.getReason()
+                                        : ex.getClass().getSimpleName();
+                                LlmResult fallback = fallback(session, reason);
+                                reply.useResult(fallback);
+                                return Flux.just(fallback.getReply());
+                            })
+                            .map(text -> ServerSentEvent.<Object>builder(text).event("delta").build());
+
+                    Mono<ServerSentEvent<Object>> done = Mono.fromCallable(() -> {
+                                LlmResult result = reply.toResult(context.route() != null
+                                        ? context.route().model()
+                                        : properties.getModel());
+                                if (result == null) {
+                                    result = fallback(session, null);
+                                }
+                                localEngine.recordTurn(session, result, started);
+                                session.addMessage(new LlmMessage("assistant", result.getReply()));
+                                historyService.recordEntry(
+                                        session.getSessionId(),
+                                        request.getUserId(),
+                                        session.getGoalId(),
+                                        session.getGoalLabel(),
+                                        request.getMessage(),
+                                        result.getReply(),
+                                        result.getModel(),
+                                        result.getPromptTokens(),
+                                        result.getCompletionTokens(),
+                                        result.getTotalTokens());
+                                GoalMessageResponse response = new GoalMessageResponse(
+                                        result.getReply(), result.getFallbackNotice(), result.getQuickReplies());
+                                return ServerSentEvent.<Object>builder(response).event("done").build();
+                            })
+                            .subscribeOn(Schedulers.boundedElastic());
+
+                    return deltas.concatWith(done);
+                });
+    }
+
+    public CursorPage<GoalChatHistoryItemDto> recentHistory(Integer limit, Long userId, PageCursor cursor) {
+        CursorPage<GoalChatSessionSummary> page = historyService.recentSessions(limit, userId, cursor);
+        List<GoalChatHistoryItemDto> items = page.items().stream()
+                .map(summary -> new GoalChatHistoryItemDto(
+                        summary.getLastEntryId(),
+                        summary.getSessionId(),
+                        summary.getGoalId(),
+                        summary.getGoalLabel(),
+                        summary.getLastUserInput(),
+                        summary.getLastAssistantReply(),
+                        GoalChatSessionSummaryService.amountLabel(summary),
+                        summary.getLastTimestamp(),
+                        summary.isStarred()))
                 .toList();
+        return new CursorPage<>(items, page.next());
     }
 
     public void saveSession(GoalChatSaveRequest request) {
@@ -135,50 +257,47 @@ public class GoalChatService {
     }
 
     private GoalChatSession ensureSessionLoaded(String sessionId, Long userId) {
-        return ensureSessionLoaded(sessionId, userId, null);
-    }
-
-    private GoalChatSession ensureSessionLoaded(String sessionId, Long userId, List<GoalChatHistory> cachedEntries) {
-        GoalChatSession existing = sessions.get(sessionId);
-        if (existing != null) {
-            if (userId != null && !userId.equals(existing.getUserId())) {
-                throw new IllegalArgumentException("Session introuvable: " + sessionId);
-            }
-            return existing;
+        GoalChatSession session = sessions.getOrLoad(sessionId, id -> restoreSessionFromHistory(id, userId));
+        if (userId != null && !userId.equals(session.getUserId())) {
+            throw new IllegalArgumentException("Session introuvable: " + sessionId);
         }
-        GoalChatSession restored = restoreSessionFromHistory(sessionId, userId, cachedEntries);
-        sessions.put(sessionId, restored);
-        return restored;
+        return session;
     }
 
-    private GoalChatSession restoreSessionFromHistory(String sessionId, Long userId, List<GoalChatHistory> cachedEntries) {
-        List<GoalChatHistory> entries = cachedEntries != null ? cachedEntries : historyService.entriesForSession(sessionId, userId);
+    private GoalChatSession restoreSessionFromHistory(String sessionId, Long userId) {
+        List<GoalChatHistory> entries = historyService.entriesForSession(sessionId, userId);
         if (entries.isEmpty()) {
             throw new IllegalArgumentException("Session introuvable: " + sessionId);
         }
         GoalChatHistory reference = entries.get(0);
         GoalChatSession session = new GoalChatSession(sessionId, reference.getGoalId(), reference.getGoalLabel(), reference.getUserId());
-        session.addMessage(new LlmMessage("system", systemPrompt(reference.getGoalLabel(), reference.getGoalId())));
+        session.addMessage(questionBank.systemMessage(reference.getGoalId(), reference.getGoalLabel()));
+        // Replays the turns the way they were played so the question-bank progress, the
+        // fallback answers and the extracted facts survive an eviction.
+        List<String> questions = questionBank.questionsFor(reference.getGoalId());
         for (GoalChatHistory entry : entries) {
             if (entry.getUserInput() != null && !entry.getUserInput().isBlank()) {
-                session.addMessage(new LlmMessage("user", entry.getUserInput()));
+                localEngine.recordAnswer(session, entry.getUserInput());
+                addUserMessage(session, entry.getUserInput());
             }
             if (entry.getAssistantReply() != null && !entry.getAssistantReply().isBlank()) {
                 session.addMessage(new LlmMessage("assistant", entry.getAssistantReply()));
+                session.restoreFallbackQuestion(questions, entry.getAssistantReply());
             }
         }
         return session;
     }
 
-    public GoalChatConversationDto conversation(String sessionId, Long userId) {
-        List<GoalChatHistory> entries = historyService.entriesForSession(sessionId, userId);
-        if (entries.isEmpty()) {
-            throw new IllegalArgumentException("Session introuvable: " + sessionId);
-        }
-        ensureSessionLoaded(sessionId, userId, entries);
-        GoalChatHistory first = entries.get(0);
+    /**
+     * One page of a stored conversation. The session itself is only restored in memory
+     * when the user sends the next message.
+     */
+    public GoalChatConversationDto conversation(String sessionId, Long userId, Integer limit, PageCursor cursor) {
+        GoalChatSessionSummary summary = historyService.sessionSummary(sessionId, userId)
+                .orElseThrow(() -> new IllegalArgumentException("Session introuvable: " + sessionId));
+        CursorPage<GoalChatHistory> page = historyService.entriesPage(sessionId, userId, limit, cursor);
         List<GoalChatMessageDto> messages = new ArrayList<>();
-        for (GoalChatHistory entry : entries) {
+        for (GoalChatHistory entry : page.items()) {
             if (entry.getUserInput() != null && !entry.getUserInput().isBlank()) {
                 messages.add(new GoalChatMessageDto("user", entry.getUserInput(), entry.getTimestamp()));
             }
@@ -188,9 +307,10 @@ public class GoalChatService {
         }
         return new GoalChatConversationDto(
                 sessionId,
-                first.getGoalId(),
-                first.getGoalLabel(),
-                messages);
+                summary.getGoalId(),
+                summary.getGoalLabel(),
+                messages,
+                page.nextCursor());
     }
 
     public void renameConversation(GoalChatRenameRequest request) {
@@ -198,72 +318,82 @@ public class GoalChatService {
         sessions.remove(request.getSessionId());
     }
 
+    /**
+     * Applies the requested star flag and/or label to all listed conversations; each
+     * change is one UPDATE regardless of how many turns the sessions hold.
+     */
+    public GoalChatBatchUpdateResponse batchUpdate(GoalChatBatchUpdateRequest request) {
+        List<String> sessionIds = request.getSessionIds().stream().distinct().toList();
+        boolean rename = request.getNewLabel() != null && !request.getNewLabel().isBlank();
+        if (request.getStarred() == null && !rename) {
+            throw new IllegalArgumentException("Aucune modification demandee");
+        }
+        int updated = 0;
+        if (request.getStarred() != null) {
+            updated = historyService.markSessionsStarred(sessionIds, request.getUserId(), request.getStarred());
+        }
+        if (rename) {
+            updated = Math.max(updated,
+                    historyService.renameSessions(sessionIds, request.getUserId(), request.getNewLabel().trim()));
+            sessionIds.forEach(sessions::remove);
+        }
+        return new GoalChatBatchUpdateResponse(updated);
+    }
+
     public void deleteConversation(String sessionId, Long userId) {
         historyService.deleteSession(sessionId, userId);
         sessions.remove(sessionId);
     }
 
-    private String systemPrompt(String goalLabel, String goalId) {
-        List<String> recommendedQuestions = questionBank.questionsFor(goalId);
-        StringBuilder builder = new StringBuilder();
-        builder.append("Tu es un coach financier personnel qui guide un utilisateur francophone. ")
-                .append("Objectif prioritaire : ").append(goalLabel).append(". ")
-                .append("Tu poses UNE seule question a la fois, de maniere claire et empathique. ")
-                .append("Commence toujours par collecter les informations necessaires avant de proposer un plan d'action. ")
-                .append("Questions recommandees : ");
-        for (int i = 0; i < recommendedQuestions.size(); i++) {
-            builder.append(i + 1).append(". ").append(recommendedQuestions.get(i)).append(" ");
-        }
-        builder.append("Quand tu as assez d'informations, propose un resume, un plan d'action en trois etapes maximum, ")
-                .append("puis termine avec une question de suivi unique. Reste prudent : pas de promesses irrealistes ni de conseils illegaux.");
-        return builder.toString();
+    /**
+     * Extracts the answer's facts against the question it replies to, once per user turn,
+     * then appends the message to the conversation.
+     */
+    private void addUserMessage(GoalChatSession session, String message) {
+        session.recordFacts(AnswerExtractor.extract(message, session.lastAssistantMessage()));
+        session.addMessage(new LlmMessage("user", message));
     }
 
-    private LlmResult query(GoalChatSession session, List<LlmMessage> messages) {
-        if (!properties.isEnabled() || properties.getApiKey() == null || properties.getApiKey().isBlank()) {
-            return fallback(session, "LLM desactive ou cle absente");
+    private List<LlmMessage> promptFor(GoalChatSession session) {
+        List<LlmMessage> window = contextWindow.window(session.getHistory(), session.getContextSummary());
+        GoalFacts facts = session.getFacts();
+        if (facts.isEmpty()) {
+            return window;
         }
-
-        LlmRequest payload = new LlmRequest(properties.getModel(), properties.getTemperature(), properties.getMaxTokens(), messages);
-        try {
-            LlmResponse response = openAiWebClient.post()
-                    .bodyValue(payload)
-                    .retrieve()
-                    .bodyToMono(LlmResponse.class)
-                    .block(Duration.ofSeconds(properties.getTimeoutSeconds()));
-            if (response == null || response.getChoices().isEmpty()) {
-                return fallback(session, null);
-            }
-            String content = Optional.ofNullable(response.getChoices().get(0))
-                    .map(choice -> choice.getMessage().getContent())
-                    .orElse("");
-            if (content == null || content.isBlank()) {
-                return fallback(session, null);
-            }
-            LlmResponse.Usage usage = response.getUsage();
-            Integer promptTokens = usage != null ? usage.getPromptTokens() : null;
-            Integer completionTokens = usage != null ? usage.getCompletionTokens() : null;
-            Integer totalTokens = usage != null ? usage.getTotalTokens() : null;
-            return new LlmResult(content.trim(), properties.getModel(), promptTokens, completionTokens, totalTokens);
-        } catch (WebClientResponseException ex) {
-            String reason = describeError(ex);
-            log.warn("Goal chat LLM error {} {} ({})", ex.getStatusCode(), ex.getResponseBodyAsString(), reason);
-            return fallback(session, reason);
-        } catch (RuntimeException ex) {
-            log.warn("Goal chat LLM failure", ex);
-            return fallback(session, ex.getClass().getSimpleName());
+        List<LlmMessage> prompt = new ArrayList<>(window.size() + 1);
+        int firstTurn = 0;
+        while (firstTurn < window.size() && "system".equals(window.get(firstTurn).getRole())) {
+            prompt.add(window.get(firstTurn++));
         }
+        prompt.add(new LlmMessage("system",
+                "Informations deja donnees par l'utilisateur (ne les redemande pas) : " + facts.describe() + "."));
+        prompt.addAll(window.subList(firstTurn, window.size()));
+        return prompt;
     }
 
-    private String describeError(WebClientResponseException ex) {
-        if (ex.getStatusCode().value() == 429) {
-            return "quota OpenAI depasse";
-        }
-        String body = ex.getResponseBodyAsString();
-        if (body != null && body.contains("insufficient_quota")) {
-            return "quota OpenAI depasse";
-        }
-        return "erreur " + ex.getStatusCode();
+    private Mono<LlmResult> query(GoalChatSession session, List<LlmMessage> messages) {
+        return withFallback(session, gateway.complete(messages, callContext(session, LlmCallContext.GOAL_MESSAGE)));
+    }
+
+    private Mono<LlmResult> withFallback(GoalChatSession session, Mono<LlmResult> completion) {
+        return completion.onErrorResume(LlmCallException.class,
+                ex -> Mono.fromSupplier(() -> fallback(session, ex.getReason())));
+    }
+
+    private Flux<String> streamQuery(LlmCallContext context, List<LlmMessage> messages, StreamedReply reply) {
+        return gateway.stream(messages, context)
+                .doOnNext(chunk -> reply.recordUsage(chunk.getUsage()))
+                .mapNotNull(LlmStreamChunk::deltaContent)
+                .filter(delta -> !delta.isEmpty())
+                .doOnNext(reply::append);
+    }
+
+    private LlmCallContext callContext(GoalChatSession session, String endpoint) {
+        String userKey = session.getUserId() != null
+                ? "user:" + session.getUserId()
+                : "goal-session:" + session.getSessionId();
+        return new LlmCallContext(userKey, endpoint, questionBank.knownGoalId(session.getGoalId()),
+                turnRouter.route(session));
     }
 
     private LlmResult fallback(GoalChatSession session, String reason) {
@@ -276,7 +406,8 @@ public class GoalChatService {
         if (session != null && session.shouldDeliverFallbackPlan(recommendedQuestions.size())) {
             FallbackMessage planMessage = fallbackFormatter.buildPlanMessage(
                     goalLabel,
-                    toAnswerValues(session.getFallbackAnswers()));
+                    toAnswerValues(session.getFallbackAnswers()),
+                    session.getFacts());
             session.markFallbackPlanSent();
             return new LlmResult(planMessage.message(), properties.getModel(), 0, 0, 0, true, null, planMessage.quickReplies());
         }
@@ -316,4 +447,46 @@ public class GoalChatService {
         }
         return result;
     }
+
+    /**
+     * Accumulates the streamed deltas (and the trailing usage chunk) so the complete
+     * reply can be persisted once the stream ends.
+     */
+    private static final class StreamedReply {
+        private final StringBuilder content = new StringBuilder();
+        private LlmResponse.Usage usage;
+        private LlmResult preset;
+
+        synchronized void append(String delta) {
+            content.append(delta);
+        }
+
+        synchronized void recordUsage(LlmResponse.Usage chunkUsage) {
+            if (chunkUsage != null) {
+                usage = chunkUsage;
+            }
+        }
+
+        synchronized void useResult(LlmResult result) {
+            preset = result;
+        }
+
+        synchronized boolean hasContent() {
+            return content.length() > 0;
+        }
+
+        synchronized LlmResult toResult(String model) {
+            if (preset != null) {
+                return preset;
+            }
+            String text = content.toString().trim();
+            if (text.isEmpty()) {
+                return null;
+            }
+            Integer promptTokens = usage != null ? usage.getPromptTokens() : null;
+            Integer completionTokens = usage != null ? usage.getCompletionTokens() : null;
+            Integer totalTokens = usage != null ? usage.getTotalTokens() : null;
+            return new LlmResult(text, model, promptTokens, completionTokens, totalTokens);
+        }
+    }
 }
@@ -1,6 +1,7 @@
 package assistant_coaching.demo.goalchat;
 
 import assistant_coaching.demo.llm.LlmMessage;
+import assistant_coaching.demo.llm.RollingSummary;
 
 import java.time.Instant;
 import java.util.ArrayList;
@@ -19,6 +20,11 @@ public class GoalChatSession {
     private boolean fallbackPlanSent = false;
     private final List<FallbackAnswer> fallbackAnswers = new ArrayList<>();
     private String pendingFallbackQuestion;
+    private long historyChars = 0;
+    private int assistantTurns = 0;
+    private int answeredTurns = 0;
+    private GoalFacts facts = GoalFacts.EMPTY;
+    private final RollingSummary contextSummary = new RollingSummary();
 
     public GoalChatSession(String sessionId, String goalId, String goalLabel, Long userId) {
         this.sessionId = sessionId;
@@ -52,8 +58,59 @@ public class GoalChatSession {
         return history;
     }
 
+    public RollingSummary getContextSummary() {
+        return contextSummary;
+    }
+
     public void addMessage(LlmMessage message) {
         history.add(message);
+        if (message.getContent() != null) {
+            historyChars += message.getContent().length();
+        }
+        if ("assistant".equals(message.getRole())) {
+            assistantTurns++;
+        } else if ("user".equals(message.getRole()) && assistantTurns > 0) {
+            answeredTurns++;
+        }
+    }
+
+    /**
+     * Content of the latest assistant message, i.e. the question the next user message answers.
+     */
+    public String lastAssistantMessage() {
+        for (int i = history.size() - 1; i >= 0; i--) {
+            if ("assistant".equals(history.get(i).getRole())) {
+                return history.get(i).getContent();
+            }
+        }
+        return null;
+    }
+
+    public synchronized GoalFacts getFacts() {
+        return facts;
+    }
+
+    public synchronized void recordFacts(GoalFacts extracted) {
+        facts = facts.merge(extracted);
+    }
+
+    public boolean hasAssistantReply() {
+        return assistantTurns > 0;
+    }
+
+    /**
+     * User messages sent after the assistant's opening, i.e. answers to its questions.
+     */
+    public int getAnsweredTurns() {
+        return answeredTurns;
+    }
+
+    /**
+     * Rough memory footprint (characters of transcript held) used by the session store
+     * to enforce its weight cap; kept incrementally so weighing is O(1).
+     */
+    public long estimatedWeight() {
+        return historyChars + history.size() * 32L;
     }
 
     /**
@@ -76,6 +133,22 @@ public class GoalChatSession {
         return question;
     }
 
+    /**
+     * Replays an assistant turn restored from history: when it asks the next question of
+     * the bank, that question becomes pending again, exactly as when it was first asked.
+     */
+    public synchronized void restoreFallbackQuestion(List<String> recommendedQuestions, String assistantReply) {
+        if (recommendedQuestions == null || assistantReply == null
+                || fallbackQuestionIndex >= recommendedQuestions.size()) {
+            return;
+        }
+        String question = recommendedQuestions.get(fallbackQuestionIndex);
+        if (assistantReply.contains(question.trim())) {
+            fallbackQuestionIndex++;
+            pendingFallbackQuestion = question;
+        }
+    }
+
     public synchronized boolean hasPendingFallbackQuestion() {
         return pendingFallbackQuestion != null;
     }
@@ -92,6 +165,10 @@ public class GoalChatSession {
         return totalQuestions > 0 && fallbackAnswers.size() >= totalQuestions && !fallbackPlanSent;
     }
 
+    public synchronized int fallbackAnswerCount() {
+        return fallbackAnswers.size();
+    }
+
     public synchronized List<FallbackAnswer> getFallbackAnswers() {
         return new ArrayList<>(fallbackAnswers);
     }
@@ -0,0 +1,161 @@
+package assistant_coaching.demo.goalchat;
+
+import assistant_coaching.demo.dto.CursorPage;
+import assistant_coaching.demo.dto.PageCursor;
+import assistant_coaching.demo.model.GoalChatHistory;
+import assistant_coaching.demo.model.GoalChatSessionSummary;
+import assistant_coaching.demo.repository.GoalChatHistoryRepository;
+import assistant_coaching.demo.repository.GoalChatSessionSummaryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains {@code goal_chat_session_summary}, the per-session projection read by the
+ * history listing. Every history write goes through {@link #record} or {@link #recordAll}
+ * in the same transaction, and sessions recorded before the table existed are backfilled
+ * once the application is ready.
+ */
+@Service
+public class GoalChatSessionSummaryService {
+
+    private static final Logger log = LoggerFactory.getLogger(GoalChatSessionSummaryService.class);
+    private static final int BACKFILL_CHUNK = 200;
+
+    private final GoalChatSessionSummaryRepository summaryRepository;
+    private final GoalChatHistoryRepository historyRepository;
+
+    public GoalChatSessionSummaryService(GoalChatSessionSummaryRepository summaryRepository,
+                                         GoalChatHistoryRepository historyRepository) {
+        this.summaryRepository = summaryRepository;
+        this.historyRepository = historyRepository;
+    }
+
+    /**
+     * Folds the entry into its session summary. A new summary is flushed right away so that
+     * a concurrent turn creating the same session fails here, inside the caller's
+     * transaction, with a {@link org.springframework.dao.DataIntegrityViolationException}
+     * the caller can retry.
+     */
+    @Transactional
+    public void record(GoalChatHistory entry) {
+        Optional<GoalChatSessionSummary> existing = summaryRepository.findById(entry.getSessionId());
+        GoalChatSessionSummary summary = existing.orElseGet(() -> new GoalChatSessionSummary(entry.getSessionId()));
+        fold(summary, entry);
+        if (existing.isPresent()) {
+            summaryRepository.save(summary);
+        } else {
+            summaryRepository.saveAndFlush(summary);
+        }
+    }
+
+    /**
+     * Applies a batch of entries with one lookup for all the sessions involved.
+     */
+    @Transactional
+    public void recordAll(Collection<GoalChatHistory> entries) {
+        Map<String, GoalChatSessionSummary> summaries = summaryRepository
+                .findAllById(entries.stream().map(GoalChatHistory::getSessionId).distinct().toList())
+                .stream()
+                .collect(Collectors.toMap(GoalChatSessionSummary::getSessionId, Function.identity()));
+        Map<String, GoalChatSessionSummary> touched = new LinkedHashMap<>();
+        for (GoalChatHistory entry : entries) {
+            GoalChatSessionSummary summary = summaries.computeIfAbsent(entry.getSessionId(), GoalChatSessionSummary::new);
+            fold(summary, entry);
+            touched.put(summary.getSessionId(), summary);
+        }
+        summaryRepository.saveAll(touched.values());
+    }
+
+    /**
+     * Amount label shown in the history listing, as stored on the summary; nothing is
+     * parsed on read.
+     */
+    static String amountLabel(GoalChatSessionSummary summary) {
+        return summary.getLastAmountLabel();
+    }
+
+    /**
+     * Applies the entry and, when it becomes the session's latest turn, labels the amount
+     * {@link AnswerExtractor} reads from its answer (to the previous assistant reply),
+     * keeping the bound the user typed.
+     */
+    private static void fold(GoalChatSessionSummary summary, GoalChatHistory entry) {
+        String question = summary.getLastAssistantReply();
+        if (summary.apply(entry)) {
+            AnswerExtractor.Reading reading = AnswerExtractor.read(entry.getUserInput(), question);
+            summary.setLastAmountLabel(reading.amount() == null ? null : reading.bound() + " "
+                    + NumberFormat.getNumberInstance(Locale.FRANCE).format(reading.amount()) + " MAD");
+        }
+    }
+
+    /**
+     * Most recent sessions first, resuming strictly after {@code cursor} when given.
+     */
+    public CursorPage<GoalChatSessionSummary> page(Long userId, int size, PageCursor cursor) {
+        PageRequest pageRequest = PageRequest.of(0, size + 1);
+        List<GoalChatSessionSummary> rows = cursor == null
+                ? summaryRepository.findByUserIdOrderByLastTimestampDescSessionIdDesc(userId, pageRequest)
+                : summaryRepository.findPageBefore(userId, cursor.timestamp(), cursor.key(), pageRequest);
+        return CursorPage.of(rows, size,
+                summary -> new PageCursor(summary.getLastTimestamp(), summary.getSessionId()),
+                Function.identity());
+    }
+
+    public boolean exists(String sessionId) {
+        return summaryRepository.existsById(sessionId);
+    }
+
+    public Optional<GoalChatSessionSummary> find(String sessionId, Long userId) {
+        return summaryRepository.findById(sessionId)
+                .filter(summary -> Objects.equals(summary.getUserId(), userId));
+    }
+
+    public int markStarred(Collection<String> sessionIds, Long userId, boolean starred) {
+        return summaryRepository.updateStarredForSessions(userId, sessionIds, starred);
+    }
+
+    public int rename(Collection<String> sessionIds, Long userId, String newLabel) {
+        return summaryRepository.updateGoalLabelForSessions(userId, sessionIds, newLabel);
+    }
+
+    public void delete(String sessionId, Long userId) {
+        summaryRepository.deleteBySessionIdAndUserId(sessionId, userId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillMissingSummaries() {
+        int backfilled = 0;
+        List<String> sessionIds = historyRepository.findSessionIdsWithoutSummary(PageRequest.of(0, BACKFILL_CHUNK));
+        while (!sessionIds.isEmpty()) {
+            List<GoalChatSessionSummary> summaries = new ArrayList<>(sessionIds.size());
+            for (String sessionId : sessionIds) {
+                GoalChatSessionSummary summary = new GoalChatSessionSummary(sessionId);
+                historyRepository.findBySessionIdOrderByTimestampAsc(sessionId).forEach(entry -> fold(summary, entry));
+                summaries.add(summary);
+            }
+            summaryRepository.saveAll(summaries);
+            backfilled += summaries.size();
+            sessionIds = historyRepository.findSessionIdsWithoutSummary(PageRequest.of(0, BACKFILL_CHUNK));
+        }
+        if (backfilled > 0) {
+            log.info("Backfilled {} goal chat session summaries", backfilled);
+        }
+    }
+}
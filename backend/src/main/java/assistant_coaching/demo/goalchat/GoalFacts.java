@@ -0,0 +1,81 @@
+package assistant_coaching.demo.goalchat;
+
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Typed facts extracted from the user's goal chat answers. Amounts are in MAD, the rate in
+ * percent and the horizon in months; unknown facts are null. Facts from later turns
+ * replace earlier ones through {@link #merge}.
+ */
+public record GoalFacts(Long monthlyIncome,
+                        Long monthlySavings,
+                        Long debtAmount,
+                        Double ratePercent,
+                        Integer horizonMonths,
+                        RiskTolerance riskTolerance) {
+
+    public static final GoalFacts EMPTY = new GoalFacts(null, null, null, null, null, null);
+
+    public enum RiskTolerance {
+        LOW("prudent"),
+        MEDIUM("équilibré"),
+        HIGH("dynamique");
+
+        private final String label;
+
+        RiskTolerance(String label) {
+            this.label = label;
+        }
+
+        public String label() {
+            return label;
+        }
+    }
+
+    public boolean isEmpty() {
+        return equals(EMPTY);
+    }
+
+    public GoalFacts merge(GoalFacts newer) {
+        if (newer == null || newer.isEmpty()) {
+            return this;
+        }
+        return new GoalFacts(
+                newer.monthlyIncome != null ? newer.monthlyIncome : monthlyIncome,
+                newer.monthlySavings != null ? newer.monthlySavings : monthlySavings,
+                newer.debtAmount != null ? newer.debtAmount : debtAmount,
+                newer.ratePercent != null ? newer.ratePercent : ratePercent,
+                newer.horizonMonths != null ? newer.horizonMonths : horizonMonths,
+                newer.riskTolerance != null ? newer.riskTolerance : riskTolerance);
+    }
+
+    /**
+     * One French line listing the known facts, e.g. for the LLM prompt or the offline plan.
+     */
+    public String describe() {
+        NumberFormat amounts = NumberFormat.getIntegerInstance(Locale.FRANCE);
+        List<String> parts = new ArrayList<>(6);
+        if (monthlyIncome != null) {
+            parts.add("revenu ~" + amounts.format(monthlyIncome) + " MAD/mois");
+        }
+        if (monthlySavings != null) {
+            parts.add("capacité d'épargne ~" + amounts.format(monthlySavings) + " MAD/mois");
+        }
+        if (debtAmount != null) {
+            parts.add("dette ~" + amounts.format(debtAmount) + " MAD");
+        }
+        if (ratePercent != null) {
+            parts.add("taux " + NumberFormat.getNumberInstance(Locale.FRANCE).format(ratePercent) + " %");
+        }
+        if (horizonMonths != null) {
+            parts.add("horizon " + horizonMonths + " mois");
+        }
+        if (riskTolerance != null) {
+            parts.add("profil " + riskTolerance.label());
+        }
+        return String.join(", ", parts);
+    }
+}
@@ -1,18 +1,51 @@
 package assistant_coaching.demo.goalchat;
 
+import assistant_coaching.demo.llm.LlmMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
-import org.springframework.stereotype.Component;
-
+/**
+ * Recommended questions per goal, plus the goal chat system prompts compiled from
+ * {@code prompts/goal-system-prompt.txt}: questions are bound once per goal at load time
+ * so only the goal label is substituted per request. The template file is re-read when
+ * its modification date changes, checked at most once per reload interval.
+ */
 @Component
 public class GoalQuestionBank {
 
+    private static final Logger log = LoggerFactory.getLogger(GoalQuestionBank.class);
+    private static final String DEFAULT_GOAL = "other_goal";
+    private static final int MAX_INTERNED_MESSAGES = 512;
+
     private final Map<String, List<String>> questionsByGoal;
+    private final Resource promptResource;
+    private final long reloadIntervalNanos;
+    private volatile PromptSet prompts;
+    private volatile long lastCheckNanos;
 
     public GoalQuestionBank() {
+        this(new ClassPathResource("prompts/goal-system-prompt.txt"), Duration.ZERO);
+    }
+
+    @Autowired
+    public GoalQuestionBank(@Value("${app.prompts.goal-system-prompt:classpath:prompts/goal-system-prompt.txt}") Resource promptResource,
+                            @Value("${app.prompts.reload-interval:10s}") Duration reloadInterval) {
         Map<String, List<String>> map = new LinkedHashMap<>();
         map.put("emergency_fund", List.of(
                 "Quel est ton revenu mensuel net approximatif ?",
@@ -70,9 +103,119 @@ public class GoalQuestionBank {
                 "As-tu déjà réfléchi à une stratégie pour cet objectif ?"
         ));
         this.questionsByGoal = Collections.unmodifiableMap(map);
+        this.promptResource = promptResource;
+        this.reloadIntervalNanos = reloadInterval == null ? 0 : reloadInterval.toNanos();
+        this.prompts = loadPrompts();
+        this.lastCheckNanos = System.nanoTime();
     }
 
     public List<String> questionsFor(String goalId) {
-        return questionsByGoal.getOrDefault(goalId, questionsByGoal.get("other_goal"));
+        return questionsByGoal.getOrDefault(goalId, questionsByGoal.get(DEFAULT_GOAL));
+    }
+
+    /**
+     * The goal id if the bank knows it, the default goal otherwise; keeps client-supplied
+     * ids out of metric tags.
+     */
+    public String knownGoalId(String goalId) {
+        return goalId != null && questionsByGoal.containsKey(goalId) ? goalId : DEFAULT_GOAL;
+    }
+
+    public String systemPrompt(String goalId, String goalLabel) {
+        return currentPrompts().templateFor(goalId).render(Map.of("goalLabel", goalLabel == null ? "" : goalLabel));
+    }
+
+    /**
+     * Same as {@link #systemPrompt} but returns a shared message instance, so repeated
+     * session starts and restorations for the same goal do not rebuild the prompt.
+     */
+    public LlmMessage systemMessage(String goalId, String goalLabel) {
+        PromptSet current = currentPrompts();
+        String key = goalId + '\u0000' + goalLabel;
+        LlmMessage message = current.interned.get(key);
+        if (message == null) {
+            if (current.interned.size() >= MAX_INTERNED_MESSAGES) {
+                current.interned.clear();
+            }
+            message = new LlmMessage("system", systemPrompt(goalId, goalLabel));
+            current.interned.put(key, message);
+        }
+        return message;
+    }
+
+    private PromptSet currentPrompts() {
+        if (reloadIntervalNanos > 0 && System.nanoTime() - lastCheckNanos >= reloadIntervalNanos) {
+            reloadIfModified();
+        }
+        return prompts;
+    }
+
+    private synchronized void reloadIfModified() {
+        if (System.nanoTime() - lastCheckNanos < reloadIntervalNanos) {
+            return;
+        }
+        lastCheckNanos = System.nanoTime();
+        try {
+            if (lastModified() != prompts.lastModified) {
+                prompts = loadPrompts();
+                log.info("Goal chat prompt template reloaded from {}", promptResource.getDescription());
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Could not reload goal chat prompt template, keeping the previous one", ex);
+        }
+    }
+
+    private PromptSet loadPrompts() {
+        long modified = lastModified();
+        PromptTemplate template = PromptTemplate.compile(readTemplate());
+        Map<String, PromptTemplate> byGoal = new LinkedHashMap<>();
+        questionsByGoal.forEach((goalId, questions) ->
+                byGoal.put(goalId, template.bind(Map.of("questions", numbered(questions)))));
+        return new PromptSet(modified, Map.copyOf(byGoal));
+    }
+
+    private String readTemplate() {
+        try (InputStream input = promptResource.getInputStream()) {
+            String text = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+            return text.lines()
+                    .map(String::strip)
+                    .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                    .collect(Collectors.joining(" "));
+        } catch (IOException ex) {
+            throw new IllegalStateException("Modele de prompt illisible: " + promptResource.getDescription(), ex);
+        }
+    }
+
+    private long lastModified() {
+        try {
+            return promptResource.lastModified();
+        } catch (IOException ex) {
+            return -1;
+        }
+    }
+
+    private static String numbered(List<String> questions) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < questions.size(); i++) {
+            builder.append(i + 1).append(". ").append(questions.get(i)).append(" ");
+        }
+        return builder.toString();
+    }
+
+    private static final class PromptSet {
+
+        private final long lastModified;
+        private final Map<String, PromptTemplate> byGoal;
+        private final Map<String, LlmMessage> interned = new ConcurrentHashMap<>();
+
+        private PromptSet(long lastModified, Map<String, PromptTemplate> byGoal) {
+            this.lastModified = lastModified;
+            this.byGoal = byGoal;
+        }
+
+        private PromptTemplate templateFor(String goalId) {
+            PromptTemplate template = goalId != null ? byGoal.get(goalId) : null;
+            return template != null ? template : byGoal.get(DEFAULT_GOAL);
+        }
     }
 }
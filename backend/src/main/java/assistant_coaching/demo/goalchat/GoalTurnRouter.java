@@ -0,0 +1,60 @@
+package assistant_coaching.demo.goalchat;
+
+import assistant_coaching.demo.llm.LlmRoute;
+import assistant_coaching.demo.llm.OpenAiProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Picks the model, token budget and timeout for a goal chat turn ({@code llm.routing.*}).
+ * Each turn is classified by where the session stands: opening, one of the goal's
+ * questions, the plan (the turn right after the last expected answer) or a follow-up
+ * once the plan was delivered. Question and follow-up turns only need a short reply and
+ * can go to a cheaper, faster model; the plan keeps the larger budget.
+ */
+@Component
+public class GoalTurnRouter {
+
+    private final GoalQuestionBank questionBank;
+    private final boolean enabled;
+    private final Integer planAfterAnswers;
+    private final Map<GoalTurnType, LlmRoute> routes = new EnumMap<>(GoalTurnType.class);
+
+    public GoalTurnRouter(OpenAiProperties properties, GoalQuestionBank questionBank) {
+        this.questionBank = questionBank;
+        OpenAiProperties.Routing routing = properties.getRouting();
+        this.enabled = routing.isEnabled();
+        this.planAfterAnswers = routing.getPlanAfterAnswers();
+        LlmRoute defaults = LlmRoute.defaults(properties);
+        for (GoalTurnType type : GoalTurnType.values()) {
+            OpenAiProperties.Route route = routing.getTurns().get(type.routeKey());
+            routes.put(type, route == null ? defaults : new LlmRoute(
+                    route.getModel() != null ? route.getModel() : defaults.model(),
+                    route.getMaxTokens() != null ? route.getMaxTokens() : defaults.maxTokens(),
+                    route.getTimeout() != null ? route.getTimeout() : defaults.timeout()));
+        }
+    }
+
+    public GoalTurnType classify(GoalChatSession session) {
+        if (!session.hasAssistantReply()) {
+            return GoalTurnType.OPENING;
+        }
+        int answered = Math.max(session.getAnsweredTurns(), session.fallbackAnswerCount());
+        int planAfter = planAfterAnswers != null
+                ? planAfterAnswers
+                : questionBank.questionsFor(session.getGoalId()).size();
+        if (answered < planAfter) {
+            return GoalTurnType.QUESTION;
+        }
+        return answered == planAfter ? GoalTurnType.PLAN : GoalTurnType.FOLLOW_UP;
+    }
+
+    /**
+     * Route for the session's next turn, or null (global settings) when routing is off.
+     */
+    public LlmRoute route(GoalChatSession session) {
+        return enabled ? routes.get(classify(session)) : null;
+    }
+}
@@ -0,0 +1,21 @@
+package assistant_coaching.demo.goalchat;
+
+import java.util.Locale;
+
+/**
+ * What the next goal chat reply is expected to be, as used by {@link GoalTurnRouter}.
+ */
+public enum GoalTurnType {
+    OPENING,
+    QUESTION,
+    PLAN,
+    /** Any turn after the plan was delivered: short answers to the user's follow-ups. */
+    FOLLOW_UP;
+
+    /**
+     * Key of this turn type under {@code llm.routing.turns}, e.g. {@code follow-up}.
+     */
+    public String routeKey() {
+        return name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+}
@@ -0,0 +1,59 @@
+package assistant_coaching.demo.goalchat;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Optional asynchronous persistence of goal chat history ({@code app.goal-chat.write-behind.*}).
+ */
+@ConfigurationProperties(prefix = "app.goal-chat.write-behind")
+public class HistoryWriteBehindProperties {
+
+    private boolean enabled = false;
+    private int queueCapacity = 10_000;
+    private int batchSize = 200;
+    private Duration flushInterval = Duration.ofMillis(200);
+    private Path spillFile = Path.of(System.getProperty("java.io.tmpdir"), "goal-chat-history.spill");
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Duration getFlushInterval() {
+        return flushInterval;
+    }
+
+    public void setFlushInterval(Duration flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+    public Path getSpillFile() {
+        return spillFile;
+    }
+
+    public void setSpillFile(Path spillFile) {
+        this.spillFile = spillFile;
+    }
+}
@@ -0,0 +1,30 @@
+package assistant_coaching.demo.goalchat;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Opt-in local handling of question-bank turns ({@code app.goal-chat.hybrid.*}). Sessions
+ * are split between the hybrid and the LLM-only arm by session id so both can be compared.
+ */
+@ConfigurationProperties(prefix = "app.goal-chat.hybrid")
+public class HybridEngineProperties {
+
+    private boolean enabled = false;
+    private int sharePercent = 50;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getSharePercent() {
+        return sharePercent;
+    }
+
+    public void setSharePercent(int sharePercent) {
+        this.sharePercent = sharePercent;
+    }
+}
@@ -0,0 +1,104 @@
+package assistant_coaching.demo.goalchat;
+
+import assistant_coaching.demo.goalchat.FallbackCoachFormatter.FallbackMessage;
+import assistant_coaching.demo.llm.LlmMetrics;
+import assistant_coaching.demo.llm.LlmResult;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Hybrid goal chat engine: during the collection phase the next question-bank question is
+ * asked locally, driven by the session's fallback question state machine, and the LLM is
+ * only called for free-form follow-ups and the final plan. Sessions are assigned to the
+ * {@code hybrid} or {@code llm} arm by session id, and every turn is timed and its tokens
+ * counted per arm ({@code goal_chat.turns}, {@code goal_chat.tokens}).
+ */
+@Component
+public class LocalTurnEngine {
+
+    public static final String LOCAL_MODEL = "local";
+    static final String ARM_HYBRID = "hybrid";
+    static final String ARM_LLM = "llm";
+
+    // A question back to the coach, or a request for explanation, needs the model.
+    private static final Pattern FREE_FORM = Pattern.compile(
+            "\\?|^\\s*(?:(?:comment|pourquoi|est-ce|quels?|quelles?|combien|peux|pourrais|explique)\\b|que\\s|qu')",
+            Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+
+    private final HybridEngineProperties properties;
+    private final GoalQuestionBank questionBank;
+    private final FallbackCoachFormatter formatter;
+    private final LlmMetrics metrics;
+
+    public LocalTurnEngine(HybridEngineProperties properties, GoalQuestionBank questionBank,
+                           FallbackCoachFormatter formatter, LlmMetrics metrics) {
+        this.properties = properties;
+        this.questionBank = questionBank;
+        this.formatter = formatter;
+        this.metrics = metrics;
+    }
+
+    public boolean isHybrid(GoalChatSession session) {
+        return properties.isEnabled()
+                && Math.floorMod(session.getSessionId().hashCode(), 100) < properties.getSharePercent();
+    }
+
+    /**
+     * Local greeting with the first question for hybrid sessions, null otherwise.
+     */
+    public LlmResult opening(GoalChatSession session) {
+        if (!isHybrid(session)) {
+            return null;
+        }
+        String question = session.nextFallbackQuestion(questionBank.questionsFor(session.getGoalId()));
+        if (question == null) {
+            return null;
+        }
+        return localResult(formatter.buildOpeningMessage(session.getGoalLabel(), question));
+    }
+
+    /**
+     * Stores the user message as the answer to the pending question, except for free-form
+     * messages in hybrid sessions: those go to the LLM and the question stays pending.
+     */
+    public void recordAnswer(GoalChatSession session, String message) {
+        if (isHybrid(session) && isFreeForm(message)) {
+            return;
+        }
+        session.recordFallbackAnswer(message);
+    }
+
+    /**
+     * Next question-bank question for a hybrid session, or null when the LLM must answer
+     * (not hybrid, a free-form question is pending, or every question has been asked).
+     */
+    public LlmResult nextTurn(GoalChatSession session) {
+        if (!isHybrid(session) || session.hasPendingFallbackQuestion()) {
+            return null;
+        }
+        List<String> questions = questionBank.questionsFor(session.getGoalId());
+        String question = session.nextFallbackQuestion(questions);
+        if (question == null) {
+            return null;
+        }
+        return localResult(formatter.buildQuestionMessage(session.getGoalLabel(), question));
+    }
+
+    public void recordTurn(GoalChatSession session, LlmResult result, long startedNanos) {
+        String arm = isHybrid(session) ? ARM_HYBRID : ARM_LLM;
+        String source = LOCAL_MODEL.equals(result.getModel())
+                ? "local"
+                : result.isFallbackActive() ? "fallback" : "llm";
+        metrics.recordGoalTurn(arm, source, System.nanoTime() - startedNanos, result.getTotalTokens());
+    }
+
+    static boolean isFreeForm(String message) {
+        return message != null && FREE_FORM.matcher(message).find();
+    }
+
+    private static LlmResult localResult(FallbackMessage message) {
+        return new LlmResult(message.message(), LOCAL_MODEL, 0, 0, 0, false, null, message.quickReplies());
+    }
+}
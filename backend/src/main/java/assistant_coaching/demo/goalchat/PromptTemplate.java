@@ -0,0 +1,80 @@
+package assistant_coaching.demo.goalchat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A template compiled once into literal segments and variable slots, so rendering is a
+ * single pass with a pre-sized builder. Variables are written {@code {{name}}}; unknown
+ * variables are kept as slots and render empty.
+ */
+final class PromptTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    private final List<String> literals;
+    private final List<String> variables;
+    private final int literalLength;
+
+    private PromptTemplate(List<String> literals, List<String> variables) {
+        this.literals = literals;
+        this.variables = variables;
+        this.literalLength = literals.stream().mapToInt(String::length).sum();
+    }
+
+    static PromptTemplate compile(String text) {
+        List<String> literals = new ArrayList<>();
+        List<String> variables = new ArrayList<>();
+        int position = 0;
+        while (true) {
+            int open = text.indexOf(OPEN, position);
+            int close = open < 0 ? -1 : text.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                literals.add(text.substring(position));
+                break;
+            }
+            literals.add(text.substring(position, open));
+            variables.add(text.substring(open + OPEN.length(), close).trim());
+            position = close + CLOSE.length();
+        }
+        return new PromptTemplate(List.copyOf(literals), List.copyOf(variables));
+    }
+
+    /**
+     * Substitutes the given variables and returns a template holding only the remaining
+     * ones, letting per-goal parts be resolved once at load time.
+     */
+    PromptTemplate bind(Map<String, String> values) {
+        List<String> boundLiterals = new ArrayList<>();
+        List<String> remaining = new ArrayList<>();
+        StringBuilder current = new StringBuilder(literals.get(0));
+        for (int i = 0; i < variables.size(); i++) {
+            String name = variables.get(i);
+            if (values.containsKey(name)) {
+                current.append(values.get(name));
+            } else {
+                boundLiterals.add(current.toString());
+                remaining.add(name);
+                current.setLength(0);
+            }
+            current.append(literals.get(i + 1));
+        }
+        boundLiterals.add(current.toString());
+        return new PromptTemplate(List.copyOf(boundLiterals), List.copyOf(remaining));
+    }
+
+    String render(Map<String, String> values) {
+        StringBuilder builder = new StringBuilder(literalLength + 64 * variables.size());
+        builder.append(literals.get(0));
+        for (int i = 0; i < variables.size(); i++) {
+            String value = values.get(variables.get(i));
+            if (value != null) {
+                builder.append(value);
+            }
+            builder.append(literals.get(i + 1));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,105 @@
+package assistant_coaching.demo.llm;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the prompt sent to the LLM bounded: leading system messages are always kept,
+ * then as many recent turns as fit in {@code llm.context.max-prompt-tokens}. Turns that
+ * fall out of the window are folded into the session's {@link RollingSummary}, which is
+ * injected right after the system prompt.
+ */
+@Component
+public class ContextWindowManager {
+
+    private static final int CHARS_PER_TOKEN = 4;
+    private static final int MESSAGE_OVERHEAD_TOKENS = 4;
+    private static final String SUMMARY_PREFIX = "Résumé des échanges précédents (à garder en tête) :\n";
+
+    private final OpenAiProperties.Context settings;
+
+    public ContextWindowManager(OpenAiProperties properties) {
+        this.settings = properties.getContext();
+    }
+
+    public List<LlmMessage> window(List<LlmMessage> history, RollingSummary summary) {
+        List<LlmMessage> snapshot = List.copyOf(history);
+        int firstTurn = 0;
+        while (firstTurn < snapshot.size() && "system".equals(snapshot.get(firstTurn).getRole())) {
+            firstTurn++;
+        }
+
+        int budget = settings.getMaxPromptTokens() - estimateTokens(snapshot.subList(0, firstTurn))
+                - estimateTokens(settings.getSummaryMaxChars() + SUMMARY_PREFIX.length());
+        int minRecent = Math.max(1, settings.getMinRecentMessages());
+        int start = snapshot.size();
+        int used = 0;
+        while (start > firstTurn) {
+            int cost = estimateTokens(snapshot.get(start - 1));
+            boolean mustKeep = snapshot.size() - start < minRecent;
+            if (!mustKeep && used + cost > budget) {
+                break;
+            }
+            used += cost;
+            start--;
+        }
+
+        synchronized (summary) {
+            // Never un-fold: once a turn is in the digest it stays out of the tail.
+            int alreadyFolded = firstTurn + summary.foldedCount();
+            start = Math.max(start, Math.min(alreadyFolded, snapshot.size()));
+            for (int i = alreadyFolded; i < start; i++) {
+                summary.fold(snapshot.get(i), settings.getSummaryMaxChars());
+            }
+        }
+
+        List<LlmMessage> prompt = new ArrayList<>(snapshot.size() - start + firstTurn);
+        prompt.addAll(snapshot.subList(0, firstTurn));
+        prompt.addAll(snapshot.subList(start, snapshot.size()));
+        return withSummary(prompt, summary);
+    }
+
+    /**
+     * Folds a message that left a bounded history (the voice ring) into its digest.
+     */
+    public void fold(RollingSummary summary, LlmMessage message) {
+        summary.fold(message, settings.getSummaryMaxChars());
+    }
+
+    /**
+     * Injects the digest, if any, right after the leading system messages of {@code prompt}.
+     */
+    public List<LlmMessage> withSummary(List<LlmMessage> prompt, RollingSummary summary) {
+        if (summary.isEmpty()) {
+            return prompt;
+        }
+        int firstTurn = 0;
+        while (firstTurn < prompt.size() && "system".equals(prompt.get(firstTurn).getRole())) {
+            firstTurn++;
+        }
+        List<LlmMessage> withDigest = new ArrayList<>(prompt.size() + 1);
+        withDigest.addAll(prompt.subList(0, firstTurn));
+        withDigest.add(new LlmMessage("system", SUMMARY_PREFIX + summary.text()));
+        withDigest.addAll(prompt.subList(firstTurn, prompt.size()));
+        return withDigest;
+    }
+
+    static int estimateTokens(List<LlmMessage> messages) {
+        int total = 0;
+        for (LlmMessage message : messages) {
+            total += estimateTokens(message);
+        }
+        return total;
+    }
+
+    static int estimateTokens(LlmMessage message) {
+        int chars = message.getContent() == null ? 0 : message.getContent().length();
+        return estimateTokens(chars) + MESSAGE_OVERHEAD_TOKENS;
+    }
+
+    private static int estimateTokens(int chars) {
+        return (chars + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+}
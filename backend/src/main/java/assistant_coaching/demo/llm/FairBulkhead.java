@@ -0,0 +1,170 @@
+package assistant_coaching.demo.llm;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Caps the number of concurrently running provider calls. Calls over the cap wait in
+ * one queue per user and are released round-robin across users, so a single chatty
+ * client cannot starve everyone else. Cancelling a waiting call removes it from its
+ * queue; cancelling a running call frees its permit.
+ */
+class FairBulkhead {
+
+    private static final String ANONYMOUS = "anonymous";
+
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final int maxQueuedPerUser;
+    private final LinkedHashMap<String, ArrayDeque<Waiter<?>>> queues = new LinkedHashMap<>();
+    private final LongAdder rejected = new LongAdder();
+    private int active;
+    private int queued;
+
+    FairBulkhead(OpenAiProperties.Bulkhead settings) {
+        this.maxConcurrent = Math.max(1, settings.getMaxConcurrentCalls());
+        this.maxQueued = Math.max(0, settings.getMaxQueuedCalls());
+        this.maxQueuedPerUser = Math.max(1, settings.getMaxQueuedPerUser());
+    }
+
+    <T> Flux<T> submit(String userKey, Supplier<? extends Flux<T>> call) {
+        String key = userKey == null || userKey.isBlank() ? ANONYMOUS : userKey;
+        return Flux.create(sink -> {
+            Waiter<T> waiter = new Waiter<>(key, call, sink);
+            sink.onCancel(() -> cancel(waiter));
+            Admission admission = admit(waiter);
+            if (admission == Admission.REJECTED) {
+                rejected.increment();
+                sink.error(new BulkheadFullException());
+            } else if (admission == Admission.RUN) {
+                waiter.start();
+            }
+        });
+    }
+
+    synchronized int inFlight() {
+        return active;
+    }
+
+    synchronized int queued() {
+        return queued;
+    }
+
+    long rejected() {
+        return rejected.sum();
+    }
+
+    private synchronized Admission admit(Waiter<?> waiter) {
+        if (active < maxConcurrent) {
+            active++;
+            return Admission.RUN;
+        }
+        ArrayDeque<Waiter<?>> userQueue = queues.get(waiter.userKey);
+        if (queued >= maxQueued || (userQueue != null && userQueue.size() >= maxQueuedPerUser)) {
+            return Admission.REJECTED;
+        }
+        queues.computeIfAbsent(waiter.userKey, key -> new ArrayDeque<>()).addLast(waiter);
+        queued++;
+        waiter.waiting = true;
+        return Admission.QUEUED;
+    }
+
+    private void release() {
+        Waiter<?> next;
+        synchronized (this) {
+            next = pollNextUser();
+            if (next == null) {
+                active--;
+                return;
+            }
+        }
+        next.start();
+    }
+
+    private Waiter<?> pollNextUser() {
+        Iterator<Map.Entry<String, ArrayDeque<Waiter<?>>>> iterator = queues.entrySet().iterator();
+        if (!iterator.hasNext()) {
+            return null;
+        }
+        Map.Entry<String, ArrayDeque<Waiter<?>>> head = iterator.next();
+        Waiter<?> next = head.getValue().pollFirst();
+        iterator.remove();
+        if (!head.getValue().isEmpty()) {
+            // Re-inserting moves this user behind everyone else who is waiting.
+            queues.put(head.getKey(), head.getValue());
+        }
+        queued--;
+        next.waiting = false;
+        return next;
+    }
+
+    private void cancel(Waiter<?> waiter) {
+        synchronized (this) {
+            if (waiter.waiting) {
+                ArrayDeque<Waiter<?>> userQueue = queues.get(waiter.userKey);
+                if (userQueue != null && userQueue.remove(waiter)) {
+                    queued--;
+                    if (userQueue.isEmpty()) {
+                        queues.remove(waiter.userKey);
+                    }
+                }
+                waiter.waiting = false;
+                return;
+            }
+        }
+        waiter.dispose();
+    }
+
+    private enum Admission {
+        RUN,
+        QUEUED,
+        REJECTED
+    }
+
+    private final class Waiter<T> {
+        private final String userKey;
+        private final Supplier<? extends Flux<T>> call;
+        private final FluxSink<T> sink;
+        private boolean waiting;
+        private volatile boolean cancelled;
+        private volatile Disposable running;
+
+        private Waiter(String userKey, Supplier<? extends Flux<T>> call, FluxSink<T> sink) {
+            this.userKey = userKey;
+            this.call = call;
+            this.sink = sink;
+        }
+
+        private void start() {
+            Disposable subscription = Flux.defer(call)
+                    .doFinally(signal -> release())
+                    .subscribe(sink::next, sink::error, sink::complete);
+            running = subscription;
+            if (cancelled) {
+                subscription.dispose();
+            }
+        }
+
+        private void dispose() {
+            cancelled = true;
+            Disposable subscription = running;
+            if (subscription != null) {
+                subscription.dispose();
+            }
+        }
+    }
+
+    static final class BulkheadFullException extends RuntimeException {
+        BulkheadFullException() {
+            super("LLM bulkhead saturated");
+        }
+    }
+}
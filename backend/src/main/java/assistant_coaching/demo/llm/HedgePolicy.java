@@ -0,0 +1,81 @@
+package assistant_coaching.demo.llm;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Decides when a completion call gets a speculative duplicate. Keeps the latencies of
+ * the last {@value #WINDOW} successful calls; the hedge delay is their configured
+ * percentile, clamped to the delay bounds (the lower bound until enough samples exist).
+ * A capped token bucket limits hedges to a share of all calls: every call adds that share
+ * of a hedge, every hedge spends a whole one, and at most {@value #MAX_BURST} hedges can be
+ * saved up, so a long quiet period never turns into a burst of duplicates.
+ */
+class HedgePolicy {
+
+    static final int WINDOW = 512;
+    static final int MAX_BURST = 2;
+    private static final int RECOMPUTE_EVERY = 32;
+    private static final long HEDGE_COST = 10_000;
+
+    private final boolean enabled;
+    private final double percentile;
+    private final long minDelayMillis;
+    private final long maxDelayMillis;
+    private final int minSamples;
+    private final long creditPerCall;
+
+    private final long[] samples = new long[WINDOW];
+    private int sampleCount;
+    private int next;
+    private int sinceRecompute;
+    private long delayMillis;
+    private long credits;
+
+    HedgePolicy(OpenAiProperties.Hedging settings) {
+        this.enabled = settings.isEnabled();
+        this.percentile = Math.min(1, Math.max(0, settings.getPercentile()));
+        this.minDelayMillis = settings.getMinDelay().toMillis();
+        this.maxDelayMillis = Math.max(minDelayMillis, settings.getMaxDelay().toMillis());
+        this.minSamples = Math.max(1, Math.min(WINDOW, settings.getMinSamples()));
+        this.creditPerCall = Math.round(Math.min(100, Math.max(0, settings.getMaxHedgePercent())) * HEDGE_COST / 100);
+        this.delayMillis = minDelayMillis;
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    synchronized void onCall() {
+        credits = Math.min(MAX_BURST * HEDGE_COST, credits + creditPerCall);
+    }
+
+    /**
+     * Takes a hedge from the bucket; false while less than a whole hedge has been earned.
+     */
+    synchronized boolean tryAcquire() {
+        if (credits < HEDGE_COST) {
+            return false;
+        }
+        credits -= HEDGE_COST;
+        return true;
+    }
+
+    synchronized void recordLatency(long millis) {
+        samples[next] = millis;
+        next = (next + 1) % WINDOW;
+        sampleCount = Math.min(WINDOW, sampleCount + 1);
+        if (++sinceRecompute >= RECOMPUTE_EVERY && sampleCount >= minSamples) {
+            sinceRecompute = 0;
+            long[] sorted = Arrays.copyOf(samples, sampleCount);
+            Arrays.sort(sorted);
+            int rank = (int) Math.ceil(percentile * sorted.length);
+            long value = sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+            delayMillis = Math.max(minDelayMillis, Math.min(maxDelayMillis, value));
+        }
+    }
+
+    synchronized Duration delay() {
+        return Duration.ofMillis(delayMillis);
+    }
+}
@@ -0,0 +1,18 @@
+package assistant_coaching.demo.llm;
+
+/**
+ * Who a completion call is made for: the user key drives bulkhead fairness, the endpoint
+ * and goal id tag the call metrics (keep both to small, known sets). The route, when
+ * set, overrides the default model, token budget and timeout.
+ */
+public record LlmCallContext(String userKey, String endpoint, String goalId, LlmRoute route) {
+
+    public static final String VOICE = "voice";
+    public static final String GOAL_START = "goal-start";
+    public static final String GOAL_MESSAGE = "goal-message";
+    public static final String GOAL_STREAM = "goal-stream";
+
+    public LlmCallContext(String userKey, String endpoint, String goalId) {
+        this(userKey, endpoint, goalId, null);
+    }
+}
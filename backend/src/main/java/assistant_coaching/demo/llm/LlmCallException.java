@@ -0,0 +1,24 @@
+package assistant_coaching.demo.llm;
+
+/**
+ * Raised by {@link LlmGateway} when no usable completion was obtained. The reason is
+ * the short French label surfaced by the offline fallback (null for an empty reply).
+ */
+public class LlmCallException extends RuntimeException {
+
+    private final String reason;
+
+    public LlmCallException(String reason) {
+        super(reason == null ? "Reponse LLM vide" : reason);
+        this.reason = reason;
+    }
+
+    public LlmCallException(String reason, Throwable cause) {
+        super(reason == null ? "Reponse LLM vide" : reason, cause);
+        this.reason = reason;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,112 @@
+package assistant_coaching.demo.llm;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Fails provider calls fast while the provider is known to be down. Opens after
+ * {@code failureThreshold} consecutive failures, or immediately on a quota error, then
+ * lets a single half-open probe through once the open period has elapsed. Each failed
+ * probe doubles the open period (capped), a successful one closes the circuit.
+ */
+class LlmCircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final long maxOpenNanos;
+    private final long quotaOpenNanos;
+    private final LongSupplier clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long currentOpenNanos;
+    private long openedAt;
+    private boolean probeInFlight;
+    private long shortCircuited;
+
+    LlmCircuitBreaker(OpenAiProperties.CircuitBreaker settings) {
+        this(settings, System::nanoTime);
+    }
+
+    LlmCircuitBreaker(OpenAiProperties.CircuitBreaker settings, LongSupplier clock) {
+        this.failureThreshold = Math.max(1, settings.getFailureThreshold());
+        this.openNanos = nanos(settings.getOpenDuration());
+        this.maxOpenNanos = Math.max(openNanos, nanos(settings.getMaxOpenDuration()));
+        this.quotaOpenNanos = nanos(settings.getQuotaOpenDuration());
+        this.currentOpenNanos = openNanos;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns whether a call may go to the provider. While half-open only one probe is
+     * admitted; callers that got a permit must report exactly one outcome.
+     */
+    synchronized boolean tryAcquire() {
+        if (state == State.OPEN && clock.getAsLong() - openedAt >= currentOpenNanos) {
+            state = State.HALF_OPEN;
+            probeInFlight = false;
+        }
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (state == State.HALF_OPEN && !probeInFlight) {
+            probeInFlight = true;
+            return true;
+        }
+        shortCircuited++;
+        return false;
+    }
+
+    synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        currentOpenNanos = openNanos;
+        probeInFlight = false;
+    }
+
+    synchronized void onFailure(boolean quotaExhausted) {
+        if (state == State.HALF_OPEN) {
+            currentOpenNanos = Math.min(maxOpenNanos, currentOpenNanos * 2);
+            open(Math.max(currentOpenNanos, quotaExhausted ? quotaOpenNanos : 0));
+            return;
+        }
+        consecutiveFailures++;
+        if (quotaExhausted) {
+            open(Math.max(currentOpenNanos, quotaOpenNanos));
+        } else if (state == State.CLOSED && consecutiveFailures >= failureThreshold) {
+            open(currentOpenNanos);
+        }
+    }
+
+    /**
+     * The call ended without telling us anything about the provider (cancelled, or
+     * rejected locally): give the half-open probe slot back.
+     */
+    synchronized void onIgnored() {
+        probeInFlight = false;
+    }
+
+    synchronized State state() {
+        if (state == State.OPEN && clock.getAsLong() - openedAt >= currentOpenNanos) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    synchronized long shortCircuited() {
+        return shortCircuited;
+    }
+
+    private void open(long durationNanos) {
+        state = State.OPEN;
+        openedAt = clock.getAsLong();
+        currentOpenNanos = durationNanos;
+        probeInFlight = false;
+    }
+
+    private static long nanos(Duration duration) {
+        return duration == null ? 0 : Math.max(0, duration.toNanos());
+    }
+}
@@ -0,0 +1,263 @@
+package assistant_coaching.demo.llm;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Single entry point for chat-completion calls. Every call goes through the shared
+ * pooled {@link WebClient}, the {@link LlmCircuitBreaker} and the {@link FairBulkhead},
+ * and failures are translated to {@link LlmCallException} so callers only decide which
+ * fallback to serve.
+ */
+@Component
+public class LlmGateway {
+
+    private static final Logger log = LoggerFactory.getLogger(LlmGateway.class);
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> SSE_TYPE =
+            new ParameterizedTypeReference<>() {
+            };
+    private static final String STREAM_DONE_MARKER = "[DONE]";
+    private static final String QUOTA_REASON = "quota OpenAI depasse";
+
+    private final OpenAiProperties properties;
+    private final WebClient openAiWebClient;
+    private final JsonMapper jsonMapper;
+    private final FairBulkhead bulkhead;
+    private final LlmCircuitBreaker circuitBreaker;
+    private final HedgePolicy hedgePolicy;
+    private final LlmMetrics metrics;
+
+    public LlmGateway(OpenAiProperties properties, WebClient openAiWebClient, JsonMapper jsonMapper,
+                      LlmMetrics metrics) {
+        this.properties = properties;
+        this.openAiWebClient = openAiWebClient;
+        this.jsonMapper = jsonMapper;
+        this.bulkhead = new FairBulkhead(properties.getBulkhead());
+        this.circuitBreaker = new LlmCircuitBreaker(properties.getCircuitBreaker());
+        this.hedgePolicy = new HedgePolicy(properties.getHedging());
+        this.metrics = metrics;
+        metrics.gauge("llm.bulkhead.in-flight", "LLM calls currently sent to the provider", bulkhead::inFlight);
+        metrics.gauge("llm.bulkhead.queued", "LLM calls waiting for a bulkhead slot", bulkhead::queued);
+        metrics.counter("llm.bulkhead.rejected", "LLM calls refused because the bulkhead queue was full",
+                bulkhead::rejected);
+        metrics.gauge("llm.circuit.state", "Circuit breaker state (0 closed, 1 open, 2 half-open)",
+                () -> circuitBreaker.state().ordinal());
+        metrics.counter("llm.circuit.short-circuited", "LLM calls refused while the circuit was open",
+                circuitBreaker::shortCircuited);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled() && properties.getApiKey() != null && !properties.getApiKey().isBlank();
+    }
+
+    /**
+     * Sends one completion request. Emits the trimmed reply, or fails with
+     * {@link LlmCallException} (disabled, HTTP error, timeout, saturation, empty reply).
+     */
+    public Mono<LlmResult> complete(List<LlmMessage> messages, LlmCallContext context) {
+        if (!isEnabled()) {
+            return Mono.error(disabled(context));
+        }
+        LlmRoute route = routeOf(context);
+        LlmRequest payload = new LlmRequest(route.model(), properties.getTemperature(),
+                route.maxTokens(), List.copyOf(messages));
+        return Mono.defer(() -> {
+            if (!circuitBreaker.tryAcquire()) {
+                return Mono.error(circuitOpen(context));
+            }
+            long started = System.nanoTime();
+            return hedged(context, () -> bulkhead.submit(context.userKey(), () -> openAiWebClient.post()
+                                    .bodyValue(payload)
+                                    .retrieve()
+                                    .bodyToMono(LlmResponse.class)
+                                    .flux())
+                            .singleOrEmpty())
+                    .timeout(route.timeout())
+                    .map(response -> toResult(response, route.model()))
+                    .switchIfEmpty(Mono.error(() -> new LlmCallException(null)))
+                    .doOnError(this::recordOutcome)
+                    .onErrorMap(ex -> !(ex instanceof LlmCallException), this::translate)
+                    .doOnSuccess(result -> {
+                        circuitBreaker.onSuccess();
+                        hedgePolicy.recordLatency((System.nanoTime() - started) / 1_000_000);
+                        record(context, started, null);
+                        metrics.recordUsage(context, route.model(),
+                                result.getPromptTokens(), result.getCompletionTokens());
+                    })
+                    .doOnError(ex -> record(context, started, ex))
+                    .doOnCancel(circuitBreaker::onIgnored);
+        });
+    }
+
+    /**
+     * Races a duplicate of a slow attempt when hedging is on: the duplicate starts once the
+     * hedge delay has elapsed (if the budget allows), the first response wins and the other
+     * subscription is cancelled, which releases its bulkhead slot and aborts the HTTP
+     * exchange. Only the winner is mapped to an {@link LlmResult}, so tokens are counted
+     * once. A failing hedge never wins; a failing first attempt fails the call as before.
+     */
+    private Mono<LlmResponse> hedged(LlmCallContext context, Supplier<Mono<LlmResponse>> attempt) {
+        if (!hedgePolicy.isEnabled()) {
+            return attempt.get();
+        }
+        hedgePolicy.onCall();
+        Mono<LlmResponse> hedge = Mono.delay(hedgePolicy.delay())
+                .filter(tick -> hedgePolicy.tryAcquire())
+                .flatMap(tick -> {
+                    metrics.recordHedge(context, LlmMetrics.HEDGE_FIRED);
+                    return attempt.get();
+                })
+                .doOnNext(response -> metrics.recordHedge(context, LlmMetrics.HEDGE_WON))
+                .onErrorResume(ex -> Mono.never())
+                .switchIfEmpty(Mono.never());
+        return Mono.firstWithSignal(attempt.get(), hedge);
+    }
+
+    /**
+     * Streams completion chunks ({@code stream=true}); the trailing usage-only chunk is
+     * emitted too so callers can account tokens. Errors are {@link LlmCallException}.
+     */
+    public Flux<LlmStreamChunk> stream(List<LlmMessage> messages, LlmCallContext context) {
+        if (!isEnabled()) {
+            return Flux.error(disabled(context));
+        }
+        LlmRoute route = routeOf(context);
+        LlmRequest payload = LlmRequest.streaming(route.model(), properties.getTemperature(),
+                route.maxTokens(), List.copyOf(messages));
+        return Flux.defer(() -> {
+            if (!circuitBreaker.tryAcquire()) {
+                return Flux.error(circuitOpen(context));
+            }
+            long started = System.nanoTime();
+            return bulkhead.submit(context.userKey(), () -> openAiWebClient.post()
+                            .accept(MediaType.TEXT_EVENT_STREAM)
+                            .bodyValue(payload)
+                            .retrieve()
+                            .bodyToFlux(SSE_TYPE))
+                    .timeout(route.timeout())
+                    .mapNotNull(ServerSentEvent::data)
+                    .takeWhile(data -> !STREAM_DONE_MARKER.equals(data.trim()))
+                    .map(data -> jsonMapper.readValue(data, LlmStreamChunk.class))
+                    .doOnNext(chunk -> {
+                        if (chunk.getUsage() != null) {
+                            metrics.recordUsage(context, route.model(),
+                                    chunk.getUsage().getPromptTokens(), chunk.getUsage().getCompletionTokens());
+                        }
+                    })
+                    .doOnError(this::recordOutcome)
+                    .onErrorMap(ex -> !(ex instanceof LlmCallException), this::translate)
+                    .doOnComplete(() -> {
+                        circuitBreaker.onSuccess();
+                        record(context, started, null);
+                    })
+                    .doOnError(ex -> record(context, started, ex))
+                    .doOnCancel(circuitBreaker::onIgnored);
+        });
+    }
+
+    public String model() {
+        return properties.getModel();
+    }
+
+    private LlmRoute routeOf(LlmCallContext context) {
+        return context.route() != null ? context.route() : LlmRoute.defaults(properties);
+    }
+
+    private LlmResult toResult(LlmResponse response, String model) {
+        if (response.getChoices() == null || response.getChoices().isEmpty()
+                || response.getChoices().get(0).getMessage() == null) {
+            throw new LlmCallException(null);
+        }
+        String content = response.getChoices().get(0).getMessage().getContent();
+        if (content == null || content.isBlank()) {
+            throw new LlmCallException(null);
+        }
+        LlmResponse.Usage usage = response.getUsage();
+        Integer promptTokens = usage != null ? usage.getPromptTokens() : null;
+        Integer completionTokens = usage != null ? usage.getCompletionTokens() : null;
+        Integer totalTokens = usage != null ? usage.getTotalTokens() : null;
+        return new LlmResult(content.trim(), model, promptTokens, completionTokens, totalTokens);
+    }
+
+    private LlmCallException translate(Throwable ex) {
+        if (ex instanceof WebClientResponseException responseException) {
+            String reason = describeError(responseException);
+            log.warn("LLM API responded with {}: {} ({})", responseException.getStatusCode(),
+                    responseException.getResponseBodyAsString(), reason);
+            return new LlmCallException(reason, ex);
+        }
+        if (ex instanceof FairBulkhead.BulkheadFullException) {
+            log.warn("LLM bulkhead saturated, serving fallback");
+            return new LlmCallException("file d'attente LLM saturee", ex);
+        }
+        log.warn("LLM request failed", ex);
+        return new LlmCallException(ex.getClass().getSimpleName(), ex);
+    }
+
+    private String describeError(WebClientResponseException ex) {
+        if (isQuotaError(ex)) {
+            return QUOTA_REASON;
+        }
+        return "erreur " + ex.getStatusCode();
+    }
+
+    private boolean isQuotaError(WebClientResponseException ex) {
+        if (ex.getStatusCode().value() == 429) {
+            return true;
+        }
+        String body = ex.getResponseBodyAsString();
+        return body != null && body.contains("insufficient_quota");
+    }
+
+    private LlmCallException disabled(LlmCallContext context) {
+        metrics.recordCall(context, routeOf(context).model(), LlmMetrics.OUTCOME_FALLBACK, 0);
+        return new LlmCallException("LLM desactive ou cle absente");
+    }
+
+    private LlmCallException circuitOpen(LlmCallContext context) {
+        metrics.recordCall(context, routeOf(context).model(), LlmMetrics.OUTCOME_FALLBACK, 0);
+        return new LlmCallException("fournisseur LLM indisponible (circuit ouvert)");
+    }
+
+    /**
+     * Feeds the circuit breaker with what the failure says about the provider: quota
+     * errors open it at once, server errors and transport failures count towards the
+     * threshold, while local rejections, empty replies and request errors (4xx) do not.
+     */
+    private void recordOutcome(Throwable ex) {
+        if (ex instanceof WebClientResponseException responseException) {
+            if (isQuotaError(responseException)) {
+                circuitBreaker.onFailure(true);
+            } else if (responseException.getStatusCode().is5xxServerError()
+                    || responseException.getStatusCode().value() == 401) {
+                circuitBreaker.onFailure(false);
+            } else {
+                circuitBreaker.onSuccess();
+            }
+        } else if (ex instanceof FairBulkhead.BulkheadFullException) {
+            circuitBreaker.onIgnored();
+        } else if (ex instanceof LlmCallException) {
+            circuitBreaker.onSuccess();
+        } else {
+            circuitBreaker.onFailure(false);
+        }
+    }
+
+    private void record(LlmCallContext context, long startedNanos, Throwable error) {
+        long elapsed = System.nanoTime() - startedNanos;
+        metrics.recordCall(context, routeOf(context).model(),
+                error == null ? LlmMetrics.OUTCOME_OK : LlmMetrics.outcomeOf(error), elapsed);
+    }
+}
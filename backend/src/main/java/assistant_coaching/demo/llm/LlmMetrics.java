@@ -0,0 +1,205 @@
+package assistant_coaching.demo.llm;
+
+import assistant_coaching.demo.cache.SessionStore;
+import assistant_coaching.demo.goalchat.GoalChatHistoryWriteBehind;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer view of the LLM traffic: one timer per call tagged by endpoint, model, goal
+ * and outcome ({@code ok}, {@code fallback}, {@code 429}, {@code timeout}), token and cost
+ * counters, the bulkhead and circuit-breaker state registered by the gateway, and the goal
+ * chat turns of the hybrid engine A/B comparison.
+ * <p>
+ * It is also the one place where the components around the LLM calls publish their
+ * state: the response cache, the history write-behind queue and the session stores bind
+ * themselves here when they are created.
+ */
+@Component
+public class LlmMetrics {
+
+    public static final String OUTCOME_OK = "ok";
+    public static final String OUTCOME_FALLBACK = "fallback";
+    public static final String OUTCOME_RATE_LIMITED = "429";
+    public static final String OUTCOME_TIMEOUT = "timeout";
+    public static final String HEDGE_FIRED = "fired";
+    public static final String HEDGE_WON = "won";
+
+    private final MeterRegistry registry;
+    private final OpenAiProperties.Pricing pricing;
+    private final Map<String, Timer> goalTurnTimers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> goalTurnTokens = new ConcurrentHashMap<>();
+
+    public LlmMetrics(MeterRegistry registry, OpenAiProperties properties) {
+        this.registry = registry;
+        this.pricing = properties.getPricing();
+    }
+
+    public void recordCall(LlmCallContext context, String model, String outcome, long durationNanos) {
+        Timer.builder("llm.calls")
+                .description("Chat-completion calls, including those answered by the offline fallback")
+                .tag("endpoint", context.endpoint())
+                .tag("model", model)
+                .tag("goal", context.goalId())
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordUsage(LlmCallContext context, String model, Integer promptTokens, Integer completionTokens) {
+        long prompt = promptTokens == null ? 0 : promptTokens;
+        long completion = completionTokens == null ? 0 : completionTokens;
+        if (prompt == 0 && completion == 0) {
+            return;
+        }
+        tokens(context, model, "prompt").increment(prompt);
+        tokens(context, model, "completion").increment(completion);
+        Counter.builder("llm.cost")
+                .description("Estimated provider cost from llm.pricing.*")
+                .baseUnit("usd")
+                .tag("endpoint", context.endpoint())
+                .tag("model", model)
+                .register(registry)
+                .increment((prompt * pricing.getPromptPerMillion() + completion * pricing.getCompletionPerMillion()) / 1e6);
+    }
+
+    public void recordHedge(LlmCallContext context, String outcome) {
+        Counter.builder("llm.hedges")
+                .description("Speculative duplicate requests sent for slow completions, and how many won")
+                .tag("endpoint", context.endpoint())
+                .tag("outcome", outcome)
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * One goal chat turn for the hybrid engine A/B comparison: {@code goal_chat.turns}
+     * latency by arm and reply source, {@code goal_chat.tokens} by arm. Each meter is
+     * built on its first use and reused afterwards.
+     */
+    public void recordGoalTurn(String arm, String source, long durationNanos, Integer totalTokens) {
+        goalTurnTimers.computeIfAbsent(arm + '/' + source, key -> Timer.builder("goal_chat.turns")
+                        .description("Goal chat turn latency by A/B arm and reply source")
+                        .tag("arm", arm)
+                        .tag("source", source)
+                        .publishPercentileHistogram()
+                        .register(registry))
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+        if (totalTokens != null && totalTokens > 0) {
+            goalTurnTokens.computeIfAbsent(arm, key -> Counter.builder("goal_chat.tokens")
+                            .baseUnit("tokens")
+                            .tag("arm", arm)
+                            .register(registry))
+                    .increment(totalTokens);
+        }
+    }
+
+    public void gauge(String name, String description, Supplier<Number> value) {
+        Gauge.builder(name, value)
+                .description(description)
+                .register(registry);
+    }
+
+    /**
+     * Exposes the response cache hit rate as {@code llm.cache.hits} and {@code llm.cache.misses}.
+     */
+    public void bindResponseCache(LlmResponseCache cache) {
+        FunctionCounter.builder("llm.cache.hits", cache, c -> c.stats().hits())
+                .description("Completions served from the response cache")
+                .register(registry);
+        FunctionCounter.builder("llm.cache.misses", cache, c -> c.stats().misses())
+                .description("Cacheable completions that had to be sent to the provider")
+                .register(registry);
+    }
+
+    /**
+     * Publishes size, weight, hits, misses and evictions of a session store, tagged by
+     * store name.
+     */
+    public void bindSessionStore(SessionStore<?, ?> store) {
+        String name = store.stats().name();
+        Gauge.builder("session.store.size", store, s -> s.stats().size())
+                .description("Entries held in memory")
+                .tag("store", name)
+                .register(registry);
+        Gauge.builder("session.store.weight", store, s -> s.stats().weight())
+                .description("Estimated weight of the entries held in memory")
+                .tag("store", name)
+                .register(registry);
+        FunctionCounter.builder("session.store.hits", store, s -> s.stats().hits())
+                .tag("store", name)
+                .register(registry);
+        FunctionCounter.builder("session.store.misses", store, s -> s.stats().misses())
+                .tag("store", name)
+                .register(registry);
+        FunctionCounter.builder("session.store.evictions", store, s -> s.stats().evictions())
+                .tag("store", name)
+                .register(registry);
+    }
+
+    /**
+     * Exposes the goal chat history write-behind queue: rows waiting, written, spilled to
+     * disk and moved to the dead-letter file during replay.
+     */
+    public void bindHistoryWriter(GoalChatHistoryWriteBehind writer) {
+        Gauge.builder("goal_chat.history.pending", writer, GoalChatHistoryWriteBehind::pending)
+                .description("History rows queued for the background writer")
+                .register(registry);
+        FunctionCounter.builder("goal_chat.history.written", writer, GoalChatHistoryWriteBehind::written)
+                .description("History rows inserted by the background writer")
+                .register(registry);
+        FunctionCounter.builder("goal_chat.history.spilled", writer, GoalChatHistoryWriteBehind::spilled)
+                .description("History rows spilled to disk because the queue was full or the insert failed")
+                .register(registry);
+        FunctionCounter.builder("goal_chat.history.dead-lettered", writer, GoalChatHistoryWriteBehind::deadLettered)
+                .description("Spilled history rows the database rejected during replay")
+                .register(registry);
+    }
+
+    /**
+     * Binds a monotonic count kept elsewhere (bulkhead, circuit breaker, caches) so it is
+     * read at scrape time instead of being mirrored into a second counter.
+     */
+    public void counter(String name, String description, Supplier<Number> value) {
+        FunctionCounter.builder(name, value, v -> v.get().doubleValue())
+                .description(description)
+                .register(registry);
+    }
+
+    /**
+     * Maps a failed call to its outcome tag; every failure is served by a fallback, the
+     * quota and timeout cases are split out because they call for different tuning.
+     */
+    public static String outcomeOf(Throwable error) {
+        Throwable cause = error instanceof LlmCallException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof TimeoutException) {
+            return OUTCOME_TIMEOUT;
+        }
+        if (cause instanceof WebClientResponseException responseException
+                && responseException.getStatusCode().value() == 429) {
+            return OUTCOME_RATE_LIMITED;
+        }
+        return OUTCOME_FALLBACK;
+    }
+
+    private Counter tokens(LlmCallContext context, String model, String type) {
+        return Counter.builder("llm.tokens")
+                .baseUnit("tokens")
+                .tag("endpoint", context.endpoint())
+                .tag("model", model)
+                .tag("type", type)
+                .register(registry);
+    }
+}
@@ -1,9 +1,11 @@
 package assistant_coaching.demo.llm;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.util.List;
 
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class LlmRequest {
 
     private final String model;
@@ -12,12 +14,31 @@ public class LlmRequest {
     @JsonProperty("max_tokens")
     private final int maxTokens;
     private final List<LlmMessage> messages;
+    private final Boolean stream;
+
+    @JsonProperty("stream_options")
+    private final StreamOptions streamOptions;
 
     public LlmRequest(String model, double temperature, int maxTokens, List<LlmMessage> messages) {
+        this(model, temperature, maxTokens, messages, null, null);
+    }
+
+    private LlmRequest(String model, double temperature, int maxTokens, List<LlmMessage> messages,
+                       Boolean stream, StreamOptions streamOptions) {
         this.model = model;
         this.temperature = temperature;
         this.maxTokens = maxTokens;
         this.messages = messages;
+        this.stream = stream;
+        this.streamOptions = streamOptions;
+    }
+
+    /**
+     * Same payload with {@code stream=true}; usage is requested so the final chunk still
+     * carries the token counts we persist.
+     */
+    public static LlmRequest streaming(String model, double temperature, int maxTokens, List<LlmMessage> messages) {
+        return new LlmRequest(model, temperature, maxTokens, messages, Boolean.TRUE, new StreamOptions(true));
     }
 
     public String getModel() {
@@ -35,4 +56,26 @@ public class LlmRequest {
     public List<LlmMessage> getMessages() {
         return messages;
     }
+
+    public Boolean getStream() {
+        return stream;
+    }
+
+    public StreamOptions getStreamOptions() {
+        return streamOptions;
+    }
+
+    public static class StreamOptions {
+
+        @JsonProperty("include_usage")
+        private final boolean includeUsage;
+
+        public StreamOptions(boolean includeUsage) {
+            this.includeUsage = includeUsage;
+        }
+
+        public boolean isIncludeUsage() {
+            return includeUsage;
+        }
+    }
 }
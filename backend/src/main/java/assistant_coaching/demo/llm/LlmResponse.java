@@ -1,6 +1,7 @@
 package assistant_coaching.demo.llm;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.util.List;
 
@@ -43,8 +44,11 @@ public class LlmResponse {
     @JsonIgnoreProperties(ignoreUnknown = true)
     public static class Usage {
 
+        @JsonProperty("prompt_tokens")
         private Integer promptTokens;
+        @JsonProperty("completion_tokens")
         private Integer completionTokens;
+        @JsonProperty("total_tokens")
         private Integer totalTokens;
 
         public Integer getPromptTokens() {
@@ -0,0 +1,185 @@
+package assistant_coaching.demo.llm;
+
+import assistant_coaching.demo.cache.SessionStore;
+import assistant_coaching.demo.cache.SessionStoreFactory;
+import assistant_coaching.demo.cache.SessionStoreStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Caches completions for prompts that are sent verbatim many times (the opening turn of
+ * a goal chat). Entries are keyed by a SHA-256 of the turn type, the effective route
+ * (model and completion budget), the temperature and the normalised messages. Up to
+ * {@code maxVariants} distinct replies are collected per key before the cache starts
+ * answering, and hits rotate through them so greetings still vary. Hits report zero
+ * tokens since nothing was billed.
+ */
+@Component
+public class LlmResponseCache {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final OpenAiProperties properties;
+    private final SessionStore<String, Variants> store;
+    private final LongSupplier nanoClock;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    @Autowired
+    public LlmResponseCache(OpenAiProperties properties, SessionStoreFactory sessionStoreFactory,
+                            LlmMetrics metrics) {
+        this(properties, sessionStoreFactory, metrics, System::nanoTime);
+    }
+
+    LlmResponseCache(OpenAiProperties properties, SessionStoreFactory sessionStoreFactory, LlmMetrics metrics,
+                     LongSupplier nanoClock) {
+        this.properties = properties;
+        this.store = sessionStoreFactory.create("llm-response", Variants::estimatedWeight);
+        this.nanoClock = nanoClock;
+        metrics.bindResponseCache(this);
+    }
+
+    /**
+     * Serves a cached reply for {@code messages} once enough variants are known,
+     * otherwise calls {@code loader} and keeps its reply as a new variant. Errors from
+     * the loader are propagated untouched and never cached. {@code route} is the one the
+     * loader sends the call with, null for the global settings.
+     */
+    public Mono<LlmResult> getOrCompute(String turn, LlmRoute route, List<LlmMessage> messages,
+                                        Supplier<Mono<LlmResult>> loader) {
+        OpenAiProperties.ResponseCache settings = properties.getResponseCache();
+        if (!settings.isEnabled()) {
+            return loader.get();
+        }
+        String key = keyFor(turn, route, messages);
+        return Mono.defer(() -> {
+            long now = nanoClock.getAsLong();
+            Variants variants = store.get(key);
+            LlmResult cached = variants != null ? variants.pick(now, ttlNanos(), maxVariants()) : null;
+            if (cached != null) {
+                hits.increment();
+                return Mono.just(cached);
+            }
+            misses.increment();
+            return loader.get().doOnNext(result -> remember(key, result));
+        });
+    }
+
+    public SessionStoreStats stats() {
+        SessionStoreStats storeStats = store.stats();
+        return new SessionStoreStats(storeStats.name(), storeStats.size(), storeStats.weight(),
+                hits.sum(), misses.sum(), storeStats.evictions());
+    }
+
+    String keyFor(String turn, LlmRoute route, List<LlmMessage> messages) {
+        LlmRoute effective = route != null ? route : LlmRoute.defaults(properties);
+        MessageDigest digest = sha256();
+        update(digest, turn);
+        update(digest, effective.model());
+        update(digest, Integer.toString(effective.maxTokens()));
+        update(digest, Double.toString(properties.getTemperature()));
+        for (LlmMessage message : messages) {
+            update(digest, message.getRole());
+            update(digest, normalise(message.getContent()));
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private void remember(String key, LlmResult result) {
+        if (result.isFallbackActive()) {
+            return;
+        }
+        LlmResult variant = new LlmResult(result.getReply(), result.getModel(), 0, 0, 0);
+        Variants variants = store.get(key);
+        if (variants == null) {
+            variants = new Variants();
+            store.put(key, variants);
+        }
+        variants.add(variant, nanoClock.getAsLong(), ttlNanos(), maxVariants());
+    }
+
+    private long ttlNanos() {
+        Duration ttl = properties.getResponseCache().getTtl();
+        return ttl == null || ttl.isZero() ? Long.MAX_VALUE : ttl.toNanos();
+    }
+
+    private int maxVariants() {
+        return Math.max(1, properties.getResponseCache().getMaxVariants());
+    }
+
+    private static String normalise(String content) {
+        if (content == null) {
+            return "";
+        }
+        return WHITESPACE.matcher(content.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update((value == null ? "" : value).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 indisponible", ex);
+        }
+    }
+
+    /**
+     * Replies collected for one prompt, oldest first, with the time each was stored.
+     */
+    static final class Variants {
+
+        private final List<LlmResult> replies = new ArrayList<>();
+        private final List<Long> storedAt = new ArrayList<>();
+        private int next;
+        private long chars;
+
+        synchronized LlmResult pick(long now, long ttlNanos, int maxVariants) {
+            expire(now, ttlNanos);
+            if (replies.size() < maxVariants) {
+                return null;
+            }
+            LlmResult result = replies.get(next % replies.size());
+            next = (next + 1) % replies.size();
+            return result;
+        }
+
+        synchronized void add(LlmResult result, long now, long ttlNanos, int maxVariants) {
+            expire(now, ttlNanos);
+            if (replies.size() >= maxVariants) {
+                return;
+            }
+            replies.add(result);
+            storedAt.add(now);
+            chars += result.getReply().length();
+        }
+
+        synchronized long estimatedWeight() {
+            return chars + replies.size() * 64L;
+        }
+
+        private void expire(long now, long ttlNanos) {
+            while (!storedAt.isEmpty() && now - storedAt.get(0) >= ttlNanos) {
+                storedAt.remove(0);
+                chars -= replies.remove(0).getReply().length();
+            }
+        }
+    }
+}
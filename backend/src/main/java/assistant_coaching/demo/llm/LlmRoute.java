@@ -0,0 +1,15 @@
+package assistant_coaching.demo.llm;
+
+import java.time.Duration;
+
+/**
+ * Model, completion budget and timeout used for one call; calls without a route use
+ * the global {@code llm.model}, {@code llm.max-tokens} and {@code llm.timeout-seconds}.
+ */
+public record LlmRoute(String model, int maxTokens, Duration timeout) {
+
+    public static LlmRoute defaults(OpenAiProperties properties) {
+        return new LlmRoute(properties.getModel(), properties.getMaxTokens(),
+                Duration.ofSeconds(properties.getTimeoutSeconds()));
+    }
+}
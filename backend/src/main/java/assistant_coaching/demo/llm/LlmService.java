@@ -1,125 +1,98 @@
 package assistant_coaching.demo.llm;
 
+import assistant_coaching.demo.cache.SessionStore;
+import assistant_coaching.demo.cache.SessionStoreFactory;
+import assistant_coaching.demo.dto.InteractionSummaryDto;
 import assistant_coaching.demo.goalchat.FallbackCoachFormatter;
 import assistant_coaching.demo.goalchat.FallbackCoachFormatter.AnswerValue;
 import assistant_coaching.demo.goalchat.FallbackCoachFormatter.FallbackMessage;
 import assistant_coaching.demo.goalchat.GoalQuestionBank;
 import assistant_coaching.demo.model.CoachingSession;
 import assistant_coaching.demo.model.FinancialGoal;
-import assistant_coaching.demo.model.InteractionLog;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
 
 import java.text.Normalizer;
-import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class LlmService {
 
-    private static final Logger log = LoggerFactory.getLogger(LlmService.class);
-
     private final OpenAiProperties properties;
-    private final WebClient webClient;
+    private final LlmGateway gateway;
     private final GoalQuestionBank questionBank;
     private final FallbackCoachFormatter fallbackFormatter;
-    private final Map<Long, FallbackState> fallbackStates = new ConcurrentHashMap<>();
+    private final ContextWindowManager contextWindow;
+    private final SessionStore<Long, FallbackState> fallbackStates;
 
-    public LlmService(OpenAiProperties properties, WebClient webClient, GoalQuestionBank questionBank,
-                      FallbackCoachFormatter fallbackFormatter) {
+    public LlmService(OpenAiProperties properties, LlmGateway gateway, GoalQuestionBank questionBank,
+                      FallbackCoachFormatter fallbackFormatter, SessionStoreFactory sessionStoreFactory,
+                      ContextWindowManager contextWindow) {
         this.properties = properties;
-        this.webClient = webClient;
+        this.gateway = gateway;
         this.questionBank = questionBank;
         this.fallbackFormatter = fallbackFormatter;
+        this.contextWindow = contextWindow;
+        this.fallbackStates = sessionStoreFactory.create("voice-fallback", FallbackState::estimatedWeight);
+    }
+
+    /**
+     * Non-blocking variant used by the voice endpoints: the HTTP exchange runs on the
+     * WebClient event loop so no servlet thread is parked while OpenAI answers.
+     */
+    public Mono<LlmResult> generateReplyAsync(CoachingSession session, List<InteractionSummaryDto> history,
+                                              String transcript) {
+        recordFallbackAnswer(session, transcript);
+        return query(buildMessages(session, history, transcript), session);
     }
 
-    public LlmResult generateReply(CoachingSession session, List<InteractionLog> history, String transcript) {
+    /**
+     * Same as {@link #generateReplyAsync(CoachingSession, List, String)} but reads the
+     * context from the cached conversation ring, with the digest of older turns injected
+     * after the system prompt.
+     */
+    public Mono<LlmResult> generateReplyAsync(VoiceConversation conversation, String transcript) {
+        CoachingSession session = conversation.getSession();
         recordFallbackAnswer(session, transcript);
+        List<LlmMessage> messages = buildMessages(session, conversation.recentTurns(), transcript);
+        return query(contextWindow.withSummary(messages, conversation.getSummary()), session);
+    }
 
+    private List<LlmMessage> buildMessages(CoachingSession session, List<InteractionSummaryDto> history,
+                                           String transcript) {
         List<LlmMessage> messages = new ArrayList<>();
         messages.add(new LlmMessage("system", properties.getSystemPrompt()));
 
         Optional<String> focusGoal = Optional.ofNullable(session.getFocusGoal()).map(FinancialGoal::getTitle);
         focusGoal.ifPresent(goal -> messages.add(new LlmMessage("user", "Objectif cible : " + goal)));
 
-        history.forEach(logEntry -> {
-            if (logEntry.getUserInput() != null && !logEntry.getUserInput().isBlank()) {
-                messages.add(new LlmMessage("user", logEntry.getUserInput()));
-            }
-            if (logEntry.getAssistantReply() != null && !logEntry.getAssistantReply().isBlank()) {
-                messages.add(new LlmMessage("assistant", logEntry.getAssistantReply()));
-            }
-        });
+        history.forEach(logEntry -> messages.addAll(VoiceConversation.messagesOf(logEntry)));
 
         String userMessage = transcript == null || transcript.isBlank()
                 ? properties.getEmptyTranscriptPlaceholder()
                 : transcript.trim();
         messages.add(new LlmMessage("user", userMessage));
-
-        return query(messages, session);
+        return messages;
     }
 
-    private LlmResult query(List<LlmMessage> messages, CoachingSession session) {
-        if (!properties.isEnabled() || properties.getApiKey() == null || properties.getApiKey().isBlank()) {
-            return fallbackResult(session, "LLM desactive ou cle absente");
-        }
-
-        LlmRequest request = new LlmRequest(properties.getModel(), properties.getTemperature(), properties.getMaxTokens(), messages);
-
-        try {
-            LlmResponse response = webClient.post()
-                    .bodyValue(request)
-                    .retrieve()
-                    .bodyToMono(LlmResponse.class)
-                    .block(Duration.ofSeconds(properties.getTimeoutSeconds()));
-
-            if (response == null || response.getChoices().isEmpty()) {
-                return fallbackResult(session, null);
-            }
-
-            String content = response.getChoices().get(0).getMessage().getContent();
-            if (content == null || content.isBlank()) {
-                return fallbackResult(session, null);
-            }
-
-            clearFallbackState(session);
-            return buildResult(content.trim(), response);
-        } catch (WebClientResponseException ex) {
-            String reason = describeError(ex);
-            log.warn("LLM API responded with {}: {} ({})", ex.getStatusCode(), ex.getResponseBodyAsString(), reason);
-            return fallbackResult(session, reason);
-        } catch (RuntimeException ex) {
-            log.warn("LLM request failed", ex);
-            return fallbackResult(session, ex.getClass().getSimpleName());
-        }
+    private Mono<LlmResult> query(List<LlmMessage> messages, CoachingSession session) {
+        LlmCallContext context = new LlmCallContext(userKey(session), LlmCallContext.VOICE,
+                resolveGoalId(session.getFocusGoal()));
+        return gateway.complete(messages, context)
+                .doOnNext(result -> clearFallbackState(session))
+                .onErrorResume(LlmCallException.class,
+                        ex -> Mono.fromSupplier(() -> fallbackResult(session, ex.getReason())));
     }
 
-    private LlmResult buildResult(String content, LlmResponse response) {
-        LlmResponse.Usage usage = response.getUsage();
-        Integer promptTokens = usage != null ? usage.getPromptTokens() : null;
-        Integer completionTokens = usage != null ? usage.getCompletionTokens() : null;
-        Integer totalTokens = usage != null ? usage.getTotalTokens() : null;
-        return new LlmResult(content, properties.getModel(), promptTokens, completionTokens, totalTokens);
-    }
-
-    private String describeError(WebClientResponseException ex) {
-        if (ex.getStatusCode().value() == 429) {
-            return "quota OpenAI depasse";
-        }
-        String body = ex.getResponseBodyAsString();
-        if (body != null && body.contains("insufficient_quota")) {
-            return "quota OpenAI depasse";
+    private String userKey(CoachingSession session) {
+        if (session.getUser() != null && session.getUser().getId() != null) {
+            return "user:" + session.getUser().getId();
         }
-        return "erreur " + ex.getStatusCode();
+        return "voice-session:" + effectiveSessionId(session);
     }
 
     private LlmResult fallbackResult(CoachingSession session, String reason) {
@@ -129,7 +102,7 @@ public class LlmService {
         String goalId = resolveGoalId(goal);
         List<String> recommendedQuestions = questionBank.questionsFor(goalId);
 
-        FallbackState state = fallbackStates.computeIfAbsent(sessionId, id -> new FallbackState(goalLabel));
+        FallbackState state = fallbackStates.getOrLoad(sessionId, id -> new FallbackState(goalLabel));
         state.updateContext(goalLabel);
 
         if (state.shouldDeliverPlan(recommendedQuestions.size())) {
@@ -175,7 +148,7 @@ public class LlmService {
         fallbackStates.remove(sessionId);
     }
 
-    private String resolveGoalId(FinancialGoal goal) {
+    static String resolveGoalId(FinancialGoal goal) {
         if (goal == null || goal.getTitle() == null) {
             return "other_goal";
         }
@@ -203,7 +176,7 @@ public class LlmService {
         return "other_goal";
     }
 
-    private boolean containsAny(String value, String... keywords) {
+    private static boolean containsAny(String value, String... keywords) {
         for (String keyword : keywords) {
             if (value.contains(keyword)) {
                 return true;
@@ -274,6 +247,14 @@ public class LlmService {
         synchronized String getGoalLabel() {
             return goalLabel;
         }
+
+        synchronized long estimatedWeight() {
+            long chars = 0;
+            for (FallbackAnswer answer : answers) {
+                chars += answer.question().length() + answer.answer().length();
+            }
+            return chars + 64;
+        }
     }
 
     private record FallbackAnswer(String question, String answer) {
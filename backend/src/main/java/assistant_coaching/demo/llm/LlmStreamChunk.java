@@ -0,0 +1,66 @@
+package assistant_coaching.demo.llm;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+/**
+ * One {@code data:} frame of a streamed chat completion ({@code stream=true}).
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class LlmStreamChunk {
+
+    private List<Choice> choices;
+    private LlmResponse.Usage usage;
+
+    public List<Choice> getChoices() {
+        return choices;
+    }
+
+    public void setChoices(List<Choice> choices) {
+        this.choices = choices;
+    }
+
+    public LlmResponse.Usage getUsage() {
+        return usage;
+    }
+
+    public void setUsage(LlmResponse.Usage usage) {
+        this.usage = usage;
+    }
+
+    public String deltaContent() {
+        if (choices == null || choices.isEmpty() || choices.get(0).getDelta() == null) {
+            return null;
+        }
+        return choices.get(0).getDelta().getContent();
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Choice {
+
+        private Delta delta;
+
+        public Delta getDelta() {
+            return delta;
+        }
+
+        public void setDelta(Delta delta) {
+            this.delta = delta;
+        }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Delta {
+
+        private String content;
+
+        public String getContent() {
+            return content;
+        }
+
+        public void setContent(String content) {
+            this.content = content;
+        }
+    }
+}
@@ -1,10 +1,17 @@
 package assistant_coaching.demo.llm;
 
+import io.netty.channel.ChannelOption;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
 
 @Configuration
 public class OpenAiClientConfig {
@@ -15,9 +22,36 @@ public class OpenAiClientConfig {
         this.properties = properties;
     }
 
+    /**
+     * Dedicated pool so a burst of chat turns queues for a connection instead of opening
+     * unbounded sockets to the provider.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider openAiConnectionProvider() {
+        OpenAiProperties.Pool pool = properties.getPool();
+        return ConnectionProvider.builder("openai")
+                .maxConnections(pool.getMaxConnections())
+                .pendingAcquireMaxCount(pool.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(pool.getPendingAcquireTimeout())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .maxLifeTime(pool.getMaxLifeTime())
+                .evictInBackground(Duration.ofSeconds(30))
+                .build();
+    }
+
     @Bean
-    public WebClient openAiWebClient() {
+    public WebClient openAiWebClient(ConnectionProvider openAiConnectionProvider) {
+        OpenAiProperties.Pool pool = properties.getPool();
+        HttpClient httpClient = HttpClient.create(openAiConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) pool.getConnectTimeout().toMillis())
+                .keepAlive(true);
+        if (pool.isHttp2() && properties.getBaseUrl() != null && properties.getBaseUrl().startsWith("https")) {
+            // ALPN negotiates h2 when the provider supports it and falls back to HTTP/1.1 otherwise.
+            httpClient = httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11).secure();
+        }
+
         WebClient.Builder builder = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
                 .baseUrl(properties.getBaseUrl())
                 .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
 
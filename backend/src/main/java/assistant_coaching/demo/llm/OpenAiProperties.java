@@ -2,6 +2,10 @@ package assistant_coaching.demo.llm;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 @ConfigurationProperties(prefix = "llm")
 public class OpenAiProperties {
 
@@ -15,6 +19,14 @@ public class OpenAiProperties {
     private String fallbackReply = "Je ne peux pas accéder au modèle en ce moment ; voici un conseil basé sur vos objectifs (%s).";
     private String emptyTranscriptPlaceholder = "Racontez-moi vos priorités financières afin que je vous aide à faire le prochain pas.";
     private boolean enabled = true;
+    private Context context = new Context();
+    private Pool pool = new Pool();
+    private Bulkhead bulkhead = new Bulkhead();
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+    private ResponseCache responseCache = new ResponseCache();
+    private Pricing pricing = new Pricing();
+    private Hedging hedging = new Hedging();
+    private Routing routing = new Routing();
 
     public String getApiKey() {
         return apiKey;
@@ -95,4 +107,464 @@ public class OpenAiProperties {
     public void setEnabled(boolean enabled) {
         this.enabled = enabled;
     }
+
+    public Context getContext() {
+        return context;
+    }
+
+    public void setContext(Context context) {
+        this.context = context;
+    }
+
+    public Pool getPool() {
+        return pool;
+    }
+
+    public void setPool(Pool pool) {
+        this.pool = pool;
+    }
+
+    public Bulkhead getBulkhead() {
+        return bulkhead;
+    }
+
+    public void setBulkhead(Bulkhead bulkhead) {
+        this.bulkhead = bulkhead;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public void setCircuitBreaker(CircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public ResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    public void setResponseCache(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    public Pricing getPricing() {
+        return pricing;
+    }
+
+    public void setPricing(Pricing pricing) {
+        this.pricing = pricing;
+    }
+
+    public Hedging getHedging() {
+        return hedging;
+    }
+
+    public void setHedging(Hedging hedging) {
+        this.hedging = hedging;
+    }
+
+    public Routing getRouting() {
+        return routing;
+    }
+
+    public void setRouting(Routing routing) {
+        this.routing = routing;
+    }
+
+    /**
+     * Prompt budget for long conversations ({@code llm.context.*}).
+     */
+    public static class Context {
+
+        private int maxPromptTokens = 1_800;
+        private int minRecentMessages = 4;
+        private int summaryMaxChars = 1_200;
+        private int voiceHistoryTurns = 12;
+        private int voiceSummaryTurns = 24;
+
+        public int getMaxPromptTokens() {
+            return maxPromptTokens;
+        }
+
+        public void setMaxPromptTokens(int maxPromptTokens) {
+            this.maxPromptTokens = maxPromptTokens;
+        }
+
+        public int getMinRecentMessages() {
+            return minRecentMessages;
+        }
+
+        public void setMinRecentMessages(int minRecentMessages) {
+            this.minRecentMessages = minRecentMessages;
+        }
+
+        public int getSummaryMaxChars() {
+            return summaryMaxChars;
+        }
+
+        public void setSummaryMaxChars(int summaryMaxChars) {
+            this.summaryMaxChars = summaryMaxChars;
+        }
+
+        public int getVoiceHistoryTurns() {
+            return voiceHistoryTurns;
+        }
+
+        public void setVoiceHistoryTurns(int voiceHistoryTurns) {
+            this.voiceHistoryTurns = voiceHistoryTurns;
+        }
+
+        /**
+         * Turns older than the voice window that are read when a session is warmed from
+         * the database, to rebuild its digest.
+         */
+        public int getVoiceSummaryTurns() {
+            return voiceSummaryTurns;
+        }
+
+        public void setVoiceSummaryTurns(int voiceSummaryTurns) {
+            this.voiceSummaryTurns = voiceSummaryTurns;
+        }
+    }
+
+    /**
+     * Reactor Netty connection pool towards the provider ({@code llm.pool.*}).
+     */
+    public static class Pool {
+
+        private int maxConnections = 64;
+        private int pendingAcquireMaxCount = 512;
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(5);
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+        private Duration maxLifeTime = Duration.ofMinutes(5);
+        private Duration connectTimeout = Duration.ofSeconds(5);
+        private boolean http2 = true;
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public int getPendingAcquireMaxCount() {
+            return pendingAcquireMaxCount;
+        }
+
+        public void setPendingAcquireMaxCount(int pendingAcquireMaxCount) {
+            this.pendingAcquireMaxCount = pendingAcquireMaxCount;
+        }
+
+        public Duration getPendingAcquireTimeout() {
+            return pendingAcquireTimeout;
+        }
+
+        public void setPendingAcquireTimeout(Duration pendingAcquireTimeout) {
+            this.pendingAcquireTimeout = pendingAcquireTimeout;
+        }
+
+        public Duration getMaxIdleTime() {
+            return maxIdleTime;
+        }
+
+        public void setMaxIdleTime(Duration maxIdleTime) {
+            this.maxIdleTime = maxIdleTime;
+        }
+
+        public Duration getMaxLifeTime() {
+            return maxLifeTime;
+        }
+
+        public void setMaxLifeTime(Duration maxLifeTime) {
+            this.maxLifeTime = maxLifeTime;
+        }
+
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public boolean isHttp2() {
+            return http2;
+        }
+
+        public void setHttp2(boolean http2) {
+            this.http2 = http2;
+        }
+    }
+
+    /**
+     * Global cap on concurrent provider calls with per-user fair queuing ({@code llm.bulkhead.*}).
+     */
+    public static class Bulkhead {
+
+        private int maxConcurrentCalls = 48;
+        private int maxQueuedCalls = 1_000;
+        private int maxQueuedPerUser = 8;
+
+        public int getMaxConcurrentCalls() {
+            return maxConcurrentCalls;
+        }
+
+        public void setMaxConcurrentCalls(int maxConcurrentCalls) {
+            this.maxConcurrentCalls = maxConcurrentCalls;
+        }
+
+        public int getMaxQueuedCalls() {
+            return maxQueuedCalls;
+        }
+
+        public void setMaxQueuedCalls(int maxQueuedCalls) {
+            this.maxQueuedCalls = maxQueuedCalls;
+        }
+
+        public int getMaxQueuedPerUser() {
+            return maxQueuedPerUser;
+        }
+
+        public void setMaxQueuedPerUser(int maxQueuedPerUser) {
+            this.maxQueuedPerUser = maxQueuedPerUser;
+        }
+    }
+
+    /**
+     * Fail-fast policy while the provider is down or out of quota ({@code llm.circuit-breaker.*}).
+     */
+    public static class CircuitBreaker {
+
+        private int failureThreshold = 5;
+        private Duration openDuration = Duration.ofSeconds(15);
+        private Duration maxOpenDuration = Duration.ofMinutes(5);
+        private Duration quotaOpenDuration = Duration.ofMinutes(1);
+
+        public int getFailureThreshold() {
+            return failureThreshold;
+        }
+
+        public void setFailureThreshold(int failureThreshold) {
+            this.failureThreshold = failureThreshold;
+        }
+
+        public Duration getOpenDuration() {
+            return openDuration;
+        }
+
+        public void setOpenDuration(Duration openDuration) {
+            this.openDuration = openDuration;
+        }
+
+        public Duration getMaxOpenDuration() {
+            return maxOpenDuration;
+        }
+
+        public void setMaxOpenDuration(Duration maxOpenDuration) {
+            this.maxOpenDuration = maxOpenDuration;
+        }
+
+        public Duration getQuotaOpenDuration() {
+            return quotaOpenDuration;
+        }
+
+        public void setQuotaOpenDuration(Duration quotaOpenDuration) {
+            this.quotaOpenDuration = quotaOpenDuration;
+        }
+    }
+
+    /**
+     * Reuse of replies to repeated prompts such as the goal chat opening ({@code llm.response-cache.*}).
+     */
+    public static class ResponseCache {
+
+        private boolean enabled = true;
+        private Duration ttl = Duration.ofHours(6);
+        private int maxVariants = 3;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public int getMaxVariants() {
+            return maxVariants;
+        }
+
+        public void setMaxVariants(int maxVariants) {
+            this.maxVariants = maxVariants;
+        }
+    }
+
+    /**
+     * Provider prices in USD per million tokens ({@code llm.pricing.*}), used to turn
+     * token counts into the {@code llm.cost} metric.
+     */
+    public static class Pricing {
+
+        private double promptPerMillion = 0.15;
+        private double completionPerMillion = 0.60;
+
+        public double getPromptPerMillion() {
+            return promptPerMillion;
+        }
+
+        public void setPromptPerMillion(double promptPerMillion) {
+            this.promptPerMillion = promptPerMillion;
+        }
+
+        public double getCompletionPerMillion() {
+            return completionPerMillion;
+        }
+
+        public void setCompletionPerMillion(double completionPerMillion) {
+            this.completionPerMillion = completionPerMillion;
+        }
+    }
+
+    /**
+     * Speculative second request for slow completions ({@code llm.hedging.*}). The hedge
+     * fires once the call has been pending longer than the given latency percentile of
+     * recent calls (clamped to the delay bounds), and at most {@code maxHedgePercent} of
+     * calls are hedged.
+     */
+    public static class Hedging {
+
+        private boolean enabled = false;
+        private double percentile = 0.95;
+        private Duration minDelay = Duration.ofMillis(500);
+        private Duration maxDelay = Duration.ofSeconds(8);
+        private int minSamples = 50;
+        private double maxHedgePercent = 5;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getPercentile() {
+            return percentile;
+        }
+
+        public void setPercentile(double percentile) {
+            this.percentile = percentile;
+        }
+
+        public Duration getMinDelay() {
+            return minDelay;
+        }
+
+        public void setMinDelay(Duration minDelay) {
+            this.minDelay = minDelay;
+        }
+
+        public Duration getMaxDelay() {
+            return maxDelay;
+        }
+
+        public void setMaxDelay(Duration maxDelay) {
+            this.maxDelay = maxDelay;
+        }
+
+        public int getMinSamples() {
+            return minSamples;
+        }
+
+        public void setMinSamples(int minSamples) {
+            this.minSamples = minSamples;
+        }
+
+        public double getMaxHedgePercent() {
+            return maxHedgePercent;
+        }
+
+        public void setMaxHedgePercent(double maxHedgePercent) {
+            this.maxHedgePercent = maxHedgePercent;
+        }
+    }
+
+    /**
+     * Per-turn model selection for the goal chat ({@code llm.routing.*}). Routes are keyed
+     * by turn type ({@code opening}, {@code question}, {@code plan}, {@code follow-up});
+     * unset route fields fall back to the global model, max tokens and timeout. The plan
+     * turn is the one right after {@code planAfterAnswers} answers, or by default after
+     * every question of the goal's question bank; later turns are follow-ups.
+     */
+    public static class Routing {
+
+        private boolean enabled = false;
+        private Integer planAfterAnswers;
+        private Map<String, Route> turns = new LinkedHashMap<>();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Integer getPlanAfterAnswers() {
+            return planAfterAnswers;
+        }
+
+        public void setPlanAfterAnswers(Integer planAfterAnswers) {
+            this.planAfterAnswers = planAfterAnswers;
+        }
+
+        public Map<String, Route> getTurns() {
+            return turns;
+        }
+
+        public void setTurns(Map<String, Route> turns) {
+            this.turns = turns;
+        }
+    }
+
+    public static class Route {
+
+        private String model;
+        private Integer maxTokens;
+        private Duration timeout;
+
+        public String getModel() {
+            return model;
+        }
+
+        public void setModel(String model) {
+            this.model = model;
+        }
+
+        public Integer getMaxTokens() {
+            return maxTokens;
+        }
+
+        public void setMaxTokens(Integer maxTokens) {
+            this.maxTokens = maxTokens;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
 }
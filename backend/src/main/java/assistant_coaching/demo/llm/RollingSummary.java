@@ -0,0 +1,68 @@
+package assistant_coaching.demo.llm;
+
+/**
+ * Per-conversation digest of the turns that slid out of the prompt window. It only
+ * ever grows forward: {@link #foldedCount()} tells how many history messages are already
+ * folded in, so each refresh touches the newly dropped messages only.
+ */
+public class RollingSummary {
+
+    private final StringBuilder text = new StringBuilder();
+    private int foldedCount = 0;
+
+    public synchronized int foldedCount() {
+        return foldedCount;
+    }
+
+    public synchronized String text() {
+        return text.toString();
+    }
+
+    public synchronized boolean isEmpty() {
+        return text.length() == 0;
+    }
+
+    synchronized void fold(LlmMessage message, int maxChars) {
+        foldedCount++;
+        String line = digest(message);
+        if (line == null) {
+            return;
+        }
+        if (text.length() > 0) {
+            text.append('\n');
+        }
+        text.append(line);
+        trimTo(maxChars);
+    }
+
+    private void trimTo(int maxChars) {
+        // Oldest facts go first once the digest itself hits its budget.
+        while (text.length() > maxChars) {
+            int newline = text.indexOf("\n");
+            if (newline < 0) {
+                text.setLength(maxChars);
+                return;
+            }
+            text.delete(0, newline + 1);
+        }
+    }
+
+    private static String digest(LlmMessage message) {
+        String content = message.getContent();
+        if (content == null || content.isBlank()) {
+            return null;
+        }
+        String compact = content.strip().replaceAll("\\s+", " ");
+        if ("user".equals(message.getRole())) {
+            return "- Utilisateur : " + shorten(compact, 160);
+        }
+        if ("assistant".equals(message.getRole())) {
+            return "- Coach : " + shorten(compact, 100);
+        }
+        return null;
+    }
+
+    private static String shorten(String value, int max) {
+        return value.length() <= max ? value : value.substring(0, max - 1) + "…";
+    }
+}
@@ -0,0 +1,83 @@
+package assistant_coaching.demo.llm;
+
+import assistant_coaching.demo.dto.InteractionSummaryDto;
+import assistant_coaching.demo.model.CoachingSession;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * In-memory view of a legacy /voice session: a detached snapshot of the session, a ring
+ * of its last turns and the digest of the turns that rotated out of the ring. Warmed once
+ * from the database, then kept current by appending each stored turn.
+ */
+public class VoiceConversation {
+
+    private final CoachingSession session;
+    private final int capacity;
+    private final ArrayDeque<InteractionSummaryDto> turns;
+    private final RollingSummary summary = new RollingSummary();
+    private long turnChars = 0;
+
+    VoiceConversation(CoachingSession session, int capacity) {
+        this.session = session;
+        this.capacity = Math.max(1, capacity);
+        this.turns = new ArrayDeque<>(this.capacity);
+    }
+
+    public CoachingSession getSession() {
+        return session;
+    }
+
+    public RollingSummary getSummary() {
+        return summary;
+    }
+
+    /**
+     * The turns currently held by the ring, oldest first.
+     */
+    public synchronized List<InteractionSummaryDto> recentTurns() {
+        return new ArrayList<>(turns);
+    }
+
+    synchronized void append(InteractionSummaryDto turn, Consumer<InteractionSummaryDto> onEvict) {
+        turns.addLast(turn);
+        turnChars += length(turn);
+        while (turns.size() > capacity) {
+            InteractionSummaryDto evicted = turns.removeFirst();
+            turnChars -= length(evicted);
+            onEvict.accept(evicted);
+        }
+    }
+
+    /**
+     * Rough memory footprint used by the session store to enforce its weight cap.
+     */
+    public synchronized long estimatedWeight() {
+        return turnChars + turns.size() * 48L + summary.text().length();
+    }
+
+    static List<LlmMessage> messagesOf(InteractionSummaryDto turn) {
+        List<LlmMessage> messages = new ArrayList<>(2);
+        if (turn.getUserInput() != null && !turn.getUserInput().isBlank()) {
+            messages.add(new LlmMessage("user", turn.getUserInput()));
+        }
+        if (turn.getAssistantReply() != null && !turn.getAssistantReply().isBlank()) {
+            messages.add(new LlmMessage("assistant", turn.getAssistantReply()));
+        }
+        return messages;
+    }
+
+    private static long length(InteractionSummaryDto turn) {
+        long chars = 0;
+        if (turn.getUserInput() != null) {
+            chars += turn.getUserInput().length();
+        }
+        if (turn.getAssistantReply() != null) {
+            chars += turn.getAssistantReply().length();
+        }
+        return chars;
+    }
+}
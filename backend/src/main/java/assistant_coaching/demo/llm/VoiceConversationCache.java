@@ -0,0 +1,79 @@
+package assistant_coaching.demo.llm;
+
+import assistant_coaching.demo.cache.SessionStore;
+import assistant_coaching.demo.cache.SessionStoreFactory;
+import assistant_coaching.demo.dto.InteractionSummaryDto;
+import assistant_coaching.demo.model.CoachingSession;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keeps one {@link VoiceConversation} per legacy /voice session so a turn reads its
+ * context from memory: the database is only hit to warm a session the first time it is
+ * seen (or after it was evicted or invalidated), never on the read path of later turns.
+ */
+@Component
+public class VoiceConversationCache {
+
+    private final OpenAiProperties properties;
+    private final ContextWindowManager contextWindow;
+    private final SessionStore<Long, VoiceConversation> conversations;
+
+    public VoiceConversationCache(OpenAiProperties properties, SessionStoreFactory sessionStoreFactory,
+                                  ContextWindowManager contextWindow) {
+        this.properties = properties;
+        this.contextWindow = contextWindow;
+        this.conversations = sessionStoreFactory.create("voice-conversation", VoiceConversation::estimatedWeight);
+    }
+
+    public int windowTurns() {
+        return properties.getContext().getVoiceHistoryTurns();
+    }
+
+    /**
+     * Number of turns to read when warming a session: the ring plus the older turns
+     * folded into its digest.
+     */
+    public int warmTurns() {
+        return windowTurns() + Math.max(0, properties.getContext().getVoiceSummaryTurns());
+    }
+
+    /**
+     * Returns the cached conversation, or {@code null} when the session is not warm yet.
+     */
+    public VoiceConversation find(Long sessionId) {
+        return conversations.get(sessionId);
+    }
+
+    public VoiceConversation getOrWarm(Long sessionId, Function<Long, VoiceConversation> warmer) {
+        return conversations.getOrLoad(sessionId, warmer);
+    }
+
+    /**
+     * Builds a conversation from the session and its last {@link #warmTurns()} turns as
+     * read from the database, oldest first. The turns that do not fit in the ring are
+     * folded into the digest, so a cold session gets the context it had before eviction.
+     */
+    public VoiceConversation warm(CoachingSession session, List<InteractionSummaryDto> history) {
+        VoiceConversation conversation = new VoiceConversation(session, windowTurns());
+        history.forEach(turn -> append(conversation, turn));
+        return conversation;
+    }
+
+    /**
+     * Appends a freshly stored turn; turns pushed out of the ring are folded into the
+     * conversation digest the same way the goal chat folds its out-of-window turns.
+     */
+    public void append(VoiceConversation conversation, InteractionSummaryDto turn) {
+        conversation.append(turn, evicted -> VoiceConversation.messagesOf(evicted)
+                .forEach(message -> contextWindow.fold(conversation.getSummary(), message)));
+    }
+
+    public void invalidate(Long sessionId) {
+        if (sessionId != null) {
+            conversations.remove(sessionId);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package assistant_coaching.demo.llm;
+
+import assistant_coaching.demo.model.CoachingSession;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hibernate listener dropping the cached voice conversation whenever its session row
+ * changes (status, focus goal...), so the next turn re-warms from the database. It is
+ * registered on the session factory here rather than declared on the entity, which keeps
+ * the model free of any dependency on the LLM layer.
+ */
+@Component
+public class VoiceConversationInvalidator implements PostUpdateEventListener, PostDeleteEventListener {
+
+    private final VoiceConversationCache cache;
+
+    public VoiceConversationInvalidator(EntityManagerFactory entityManagerFactory, VoiceConversationCache cache) {
+        this.cache = cache;
+        EventListenerRegistry listeners = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .requireService(EventListenerRegistry.class);
+        listeners.appendListeners(EventType.POST_UPDATE, this);
+        listeners.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        invalidate(event.getEntity());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        invalidate(event.getEntity());
+    }
+
+    private void invalidate(Object entity) {
+        if (entity instanceof CoachingSession session) {
+            cache.invalidate(session.getId());
+        }
+    }
+}
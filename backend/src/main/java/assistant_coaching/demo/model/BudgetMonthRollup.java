@@ -0,0 +1,84 @@
+package assistant_coaching.demo.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+/**
+ * Materialised budget and spent totals of one category for one calendar month. A budget
+ * counts in every month its period overlaps, matching what the budget snapshot lists.
+ */
+@Entity
+@Table(name = "budget_month_rollup",
+        uniqueConstraints = @UniqueConstraint(name = "uk_budget_month_rollup",
+                columnNames = {"period_year", "period_month", "category"}))
+public class BudgetMonthRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "period_year", nullable = false)
+    private int periodYear;
+
+    @Column(name = "period_month", nullable = false)
+    private int periodMonth;
+
+    @Column(nullable = false, length = 64)
+    private String category;
+
+    @Column(name = "budget_cents", nullable = false)
+    private long budgetCents;
+
+    @Column(name = "spent_cents", nullable = false)
+    private long spentCents;
+
+    @Column(name = "budget_count", nullable = false)
+    private int budgetCount;
+
+    protected BudgetMonthRollup() {
+        // JPA
+    }
+
+    public BudgetMonthRollup(int periodYear, int periodMonth, String category,
+                             long budgetCents, long spentCents, int budgetCount) {
+        this.periodYear = periodYear;
+        this.periodMonth = periodMonth;
+        this.category = category;
+        this.budgetCents = budgetCents;
+        this.spentCents = spentCents;
+        this.budgetCount = budgetCount;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public int getPeriodYear() {
+        return periodYear;
+    }
+
+    public int getPeriodMonth() {
+        return periodMonth;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public long getBudgetCents() {
+        return budgetCents;
+    }
+
+    public long getSpentCents() {
+        return spentCents;
+    }
+
+    public int getBudgetCount() {
+        return budgetCount;
+    }
+}
@@ -0,0 +1,90 @@
+package assistant_coaching.demo.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+import java.time.LocalDate;
+
+/**
+ * Materialised totals of a user's transactions for one category over one day, month or
+ * year. Maintained incrementally on every transaction write and rebuilt from the raw
+ * transactions by the rollup rebuild job.
+ */
+@Entity
+@Table(name = "category_rollup",
+        uniqueConstraints = @UniqueConstraint(name = "uk_category_rollup",
+                columnNames = {"user_id", "grain", "period_start", "category"}))
+public class CategoryRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private RollupGrain grain;
+
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart;
+
+    @Column(nullable = false, length = 64)
+    private String category;
+
+    @Column(name = "income_cents", nullable = false)
+    private long incomeCents;
+
+    @Column(name = "expense_cents", nullable = false)
+    private long expenseCents;
+
+    protected CategoryRollup() {
+        // JPA
+    }
+
+    public CategoryRollup(Long userId, RollupGrain grain, LocalDate periodStart, String category,
+                          long incomeCents, long expenseCents) {
+        this.userId = userId;
+        this.grain = grain;
+        this.periodStart = periodStart;
+        this.category = category;
+        this.incomeCents = incomeCents;
+        this.expenseCents = expenseCents;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public RollupGrain getGrain() {
+        return grain;
+    }
+
+    public LocalDate getPeriodStart() {
+        return periodStart;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public long getIncomeCents() {
+        return incomeCents;
+    }
+
+    public long getExpenseCents() {
+        return expenseCents;
+    }
+}
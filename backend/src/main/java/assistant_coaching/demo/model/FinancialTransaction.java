@@ -0,0 +1,106 @@
+package assistant_coaching.demo.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "financial_transaction",
+        indexes = @Index(name = "idx_financial_transaction_user_day", columnList = "user_id, occurred_on"))
+public class FinancialTransaction {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private TransactionType type;
+
+    @Column(nullable = false, length = 64)
+    private String category;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "occurred_on", nullable = false)
+    private LocalDate occurredOn;
+
+    @Column(length = 240)
+    private String label;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    protected FinancialTransaction() {
+        // JPA
+    }
+
+    public FinancialTransaction(Long userId, TransactionType type, String category, BigDecimal amount,
+                                LocalDate occurredOn, String label) {
+        this.userId = userId;
+        this.type = type;
+        this.category = category;
+        this.amount = amount;
+        this.occurredOn = occurredOn;
+        this.label = label;
+    }
+
+    @PrePersist
+    public void onCreate() {
+        this.createdAt = Instant.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public TransactionType getType() {
+        return type;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public LocalDate getOccurredOn() {
+        return occurredOn;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Amount in cents, the unit used by the analytics pre-aggregates.
+     */
+    public long amountCents() {
+        return amount.movePointRight(2).longValue();
+    }
+}
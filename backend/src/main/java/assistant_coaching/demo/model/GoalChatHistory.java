@@ -5,13 +5,15 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "goal_chat_history")
+@Table(name = "goal_chat_history",
+        indexes = @Index(name = "idx_goal_chat_history_session_ts", columnList = "session_id, user_id, timestamp, id"))
 public class GoalChatHistory {
 
     @Id
@@ -77,6 +79,10 @@ public class GoalChatHistory {
         return id;
     }
 
+    public void setId(Long id) {
+        this.id = id;
+    }
+
     public String getSessionId() {
         return sessionId;
     }
@@ -0,0 +1,162 @@
+package assistant_coaching.demo.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row per goal chat session, kept up to date on every recorded turn so the history
+ * listing never has to scan {@code goal_chat_history}.
+ */
+@Entity
+@Table(name = "goal_chat_session_summary",
+        indexes = @Index(name = "idx_goal_chat_summary_user_last",
+                columnList = "user_id, last_timestamp DESC, session_id DESC"))
+public class GoalChatSessionSummary {
+
+    @Id
+    @Column(name = "session_id", length = 64)
+    private String sessionId;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "goal_id", nullable = false, length = 128)
+    private String goalId;
+
+    @Column(name = "goal_label", nullable = false)
+    private String goalLabel;
+
+    @Column(name = "last_entry_id")
+    private Long lastEntryId;
+
+    @Column(name = "last_user_input", columnDefinition = "TEXT")
+    private String lastUserInput;
+
+    @Column(name = "last_assistant_reply", columnDefinition = "TEXT")
+    private String lastAssistantReply;
+
+    /**
+     * Display label of the amount stated in {@code lastUserInput} (e.g. {@code < 3 000 MAD}),
+     * built when the turn was recorded; null when that answer gave none.
+     */
+    @Column(name = "last_amount_label", length = 64)
+    private String lastAmountLabel;
+
+    @Column(name = "last_timestamp", nullable = false)
+    private LocalDateTime lastTimestamp;
+
+    @Column(nullable = false)
+    private boolean starred = false;
+
+    @Column(name = "entry_count", nullable = false)
+    private int entryCount;
+
+    @Column(name = "prompt_tokens", nullable = false)
+    private long promptTokens;
+
+    @Column(name = "completion_tokens", nullable = false)
+    private long completionTokens;
+
+    @Column(name = "total_tokens", nullable = false)
+    private long totalTokens;
+
+    protected GoalChatSessionSummary() {
+        // JPA
+    }
+
+    public GoalChatSessionSummary(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    /**
+     * Folds one history entry into the summary. Entries may arrive out of order (write-behind
+     * replay), so the "last" fields only move forward in time; returns whether they moved.
+     */
+    public boolean apply(GoalChatHistory entry) {
+        boolean latest = lastTimestamp == null || !entry.getTimestamp().isBefore(lastTimestamp);
+        if (latest) {
+            userId = entry.getUserId();
+            goalId = entry.getGoalId();
+            goalLabel = entry.getGoalLabel();
+            lastEntryId = entry.getId();
+            lastUserInput = entry.getUserInput();
+            lastAssistantReply = entry.getAssistantReply();
+            lastTimestamp = entry.getTimestamp();
+        }
+        starred = starred || entry.isStarred();
+        entryCount++;
+        promptTokens += valueOf(entry.getPromptTokens());
+        completionTokens += valueOf(entry.getCompletionTokens());
+        totalTokens += valueOf(entry.getTotalTokens());
+        return latest;
+    }
+
+    private static long valueOf(Integer tokens) {
+        return tokens == null ? 0 : tokens;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getGoalId() {
+        return goalId;
+    }
+
+    public String getGoalLabel() {
+        return goalLabel;
+    }
+
+    public Long getLastEntryId() {
+        return lastEntryId;
+    }
+
+    public String getLastUserInput() {
+        return lastUserInput;
+    }
+
+    public String getLastAssistantReply() {
+        return lastAssistantReply;
+    }
+
+    public String getLastAmountLabel() {
+        return lastAmountLabel;
+    }
+
+    public void setLastAmountLabel(String lastAmountLabel) {
+        this.lastAmountLabel = lastAmountLabel;
+    }
+
+    public LocalDateTime getLastTimestamp() {
+        return lastTimestamp;
+    }
+
+    public boolean isStarred() {
+        return starred;
+    }
+
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    public long getPromptTokens() {
+        return promptTokens;
+    }
+
+    public long getCompletionTokens() {
+        return completionTokens;
+    }
+
+    public long getTotalTokens() {
+        return totalTokens;
+    }
+}
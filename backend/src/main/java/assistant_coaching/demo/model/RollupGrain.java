@@ -0,0 +1,20 @@
+package assistant_coaching.demo.model;
+
+import java.time.LocalDate;
+
+public enum RollupGrain {
+    DAY,
+    MONTH,
+    YEAR;
+
+    /**
+     * First day of the period of this grain that contains {@code day}.
+     */
+    public LocalDate periodStart(LocalDate day) {
+        return switch (this) {
+            case DAY -> day;
+            case MONTH -> day.withDayOfMonth(1);
+            case YEAR -> day.withDayOfYear(1);
+        };
+    }
+}
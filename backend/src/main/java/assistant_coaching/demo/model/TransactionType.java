@@ -0,0 +1,6 @@
+package assistant_coaching.demo.model;
+
+public enum TransactionType {
+    INCOME,
+    EXPENSE
+}
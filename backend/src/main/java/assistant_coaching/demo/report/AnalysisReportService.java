@@ -0,0 +1,40 @@
+package assistant_coaching.demo.report;
+
+import assistant_coaching.demo.dto.FinancialAnalysisResponse;
+import assistant_coaching.demo.service.FinancialAnalysisService;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.YearMonth;
+
+/**
+ * Monthly analysis report: computes the analysis, then serves the cached PDF for that data
+ * version or renders it once.
+ */
+@Service
+public class AnalysisReportService {
+
+    private final FinancialAnalysisService analysisService;
+    private final PdfReportRenderer renderer;
+    private final ReportRenderCache cache;
+
+    public AnalysisReportService(FinancialAnalysisService analysisService, PdfReportRenderer renderer,
+                                 ReportRenderCache cache) {
+        this.analysisService = analysisService;
+        this.renderer = renderer;
+        this.cache = cache;
+    }
+
+    public RenderedReport monthlyReport(Long userId) {
+        FinancialAnalysisResponse analysis = analysisService.getAnalysis(userId);
+        ReportData data = new ReportData(YearMonth.now(), analysis.getPeriods());
+        String owner = userId == null ? "demo" : "user-" + userId;
+        String key = owner + "-" + data.month() + "-" + ReportFingerprint.of(data);
+        try {
+            return new RenderedReport(cache.getOrRender(key, out -> renderer.render(data, out)),
+                    "rapport_financier_" + data.month() + ".pdf");
+        } catch (IOException ex) {
+            throw new RuntimeException("Impossible de generer le PDF du rapport.", ex);
+        }
+    }
+}
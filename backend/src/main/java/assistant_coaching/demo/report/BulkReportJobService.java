@@ -0,0 +1,284 @@
+package assistant_coaching.demo.report;
+
+import assistant_coaching.demo.dto.ReportJobStatusDto;
+import assistant_coaching.demo.repository.UserRepository;
+import assistant_coaching.demo.service.FinancialAnalysisService;
+import jakarta.annotation.PreDestroy;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Renders the monthly report of every user in the background. Jobs run one at a time;
+ * within a job the per-user renders fan out on a fork-join pool bounded by
+ * {@code app.reports.bulk.parallelism}, each PDF being written straight to the job's
+ * archive directory with PDFBox buffering capped in heap and paged to scratch files.
+ * Progress is exposed through {@link #status(String)} and the archive as a ZIP stream.
+ */
+@Service
+public class BulkReportJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkReportJobService.class);
+
+    private final UserRepository userRepository;
+    private final FinancialAnalysisService analysisService;
+    private final PdfReportRenderer renderer;
+    private final ReportProperties.Bulk settings;
+    private final ForkJoinPool renderPool;
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "bulk-report-coordinator");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<String, BulkReportJob> jobs = new LinkedHashMap<>();
+
+    public BulkReportJobService(UserRepository userRepository, FinancialAnalysisService analysisService,
+                                PdfReportRenderer renderer, ReportProperties properties) {
+        this.userRepository = userRepository;
+        this.analysisService = analysisService;
+        this.renderer = renderer;
+        this.settings = properties.getBulk();
+        this.renderPool = new ForkJoinPool(Math.max(1, settings.getParallelism()));
+        try {
+            Files.createDirectories(settings.getArchiveDirectory());
+            Files.createDirectories(settings.getScratchDirectory());
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Repertoires d'export des rapports inaccessibles", ex);
+        }
+    }
+
+    public ReportJobStatusDto submit() {
+        String id = UUID.randomUUID().toString();
+        BulkReportJob job = new BulkReportJob(id, YearMonth.now(), settings.getArchiveDirectory().resolve(id));
+        synchronized (jobs) {
+            jobs.put(job.id, job);
+            evictFinishedJobs();
+        }
+        coordinator.execute(() -> run(job));
+        return job.status();
+    }
+
+    public ReportJobStatusDto status(String jobId) {
+        return find(jobId).status();
+    }
+
+    /**
+     * Active jobs, i.e. queued or running, for progress reporting.
+     */
+    public List<ReportJobStatusDto> activeJobs() {
+        synchronized (jobs) {
+            return jobs.values().stream()
+                    .filter(job -> job.state == JobState.QUEUED || job.state == JobState.RUNNING)
+                    .map(BulkReportJob::status)
+                    .toList();
+        }
+    }
+
+    /**
+     * Streams every PDF of a finished job as one ZIP. PDF content is already compressed, so
+     * the fastest deflate level is used. The job is not evicted while a download streams
+     * its directory.
+     */
+    public void writeArchive(String jobId, OutputStream out) throws IOException {
+        BulkReportJob job;
+        synchronized (jobs) {
+            job = find(jobId);
+            ensureCompleted(job);
+            job.downloads++;
+        }
+        try {
+            ZipOutputStream zip = new ZipOutputStream(out);
+            zip.setLevel(Deflater.BEST_SPEED);
+            try (Stream<Path> files = Files.list(job.directory)) {
+                for (Path file : files.sorted(Comparator.comparing(Path::getFileName)).toList()) {
+                    zip.putNextEntry(new ZipEntry(file.getFileName().toString()));
+                    Files.copy(file, zip);
+                    zip.closeEntry();
+                }
+            }
+            zip.finish();
+        } finally {
+            synchronized (jobs) {
+                job.downloads--;
+                evictFinishedJobs();
+            }
+        }
+    }
+
+    /**
+     * File name of a finished job's archive; fails with 404 / 409 while it cannot be
+     * downloaded, so callers can check before committing a streamed response.
+     */
+    public String archiveName(String jobId) {
+        BulkReportJob job = find(jobId);
+        ensureCompleted(job);
+        return "rapports_" + job.month + ".zip";
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdownNow();
+        renderPool.shutdownNow();
+    }
+
+    private void run(BulkReportJob job) {
+        try {
+            Files.createDirectories(job.directory);
+            List<Long> userIds = userRepository.findAllIds();
+            job.start(userIds.size());
+            MemoryUsageSetting memory = MemoryUsageSetting.setupMixed(settings.getMaxMainMemoryBytes())
+                    .setTempDir(settings.getScratchDirectory().toFile());
+            renderPool.submit(() -> userIds.parallelStream().forEach(userId -> renderOne(job, userId, memory))).get();
+            job.finish(JobState.COMPLETED);
+            log.info("Bulk report job {} rendered {} reports ({} failed) in {}", job.id, job.completed.get(),
+                    job.failed.get(), Duration.between(job.startedAt, job.finishedAt));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            job.finish(JobState.FAILED);
+        } catch (Exception ex) {
+            log.error("Bulk report job {} failed", job.id, ex);
+            job.finish(JobState.FAILED);
+        }
+    }
+
+    private void renderOne(BulkReportJob job, Long userId, MemoryUsageSetting memory) {
+        Path target = job.directory.resolve("rapport_financier_" + userId + "_" + job.month + ".pdf");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(target), 64 * 1024)) {
+            ReportData data = new ReportData(job.month, analysisService.getAnalysis(userId).getPeriods());
+            renderer.render(data, out, memory);
+            job.completed.incrementAndGet();
+        } catch (Exception ex) {
+            job.failed.incrementAndGet();
+            log.warn("Bulk report job {}: report of user {} failed: {}", job.id, userId, ex.getMessage());
+        }
+    }
+
+    private BulkReportJob find(String jobId) {
+        synchronized (jobs) {
+            BulkReportJob job = jobs.get(jobId);
+            if (job == null) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Export introuvable");
+            }
+            return job;
+        }
+    }
+
+    private void ensureCompleted(BulkReportJob job) {
+        if (job.state == JobState.FAILED) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "L'export a echoue.");
+        }
+        if (job.state != JobState.COMPLETED) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Export en cours, reessayez plus tard.");
+        }
+    }
+
+    private void evictFinishedJobs() {
+        List<BulkReportJob> evicted = new ArrayList<>();
+        var iterator = jobs.values().iterator();
+        while (jobs.size() > Math.max(1, settings.getRetainedJobs()) && iterator.hasNext()) {
+            BulkReportJob oldest = iterator.next();
+            if ((oldest.state == JobState.COMPLETED || oldest.state == JobState.FAILED) && oldest.downloads == 0) {
+                evicted.add(oldest);
+                iterator.remove();
+            }
+        }
+        for (BulkReportJob job : evicted) {
+            deleteDirectory(job.directory);
+        }
+    }
+
+    private static void deleteDirectory(Path directory) {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(directory);
+        } catch (IOException ex) {
+            log.warn("Could not delete report archive {}: {}", directory, ex.getMessage());
+        }
+    }
+
+    enum JobState {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private static final class BulkReportJob {
+        private final String id;
+        private final YearMonth month;
+        private final Path directory;
+        private final Instant submittedAt = Instant.now();
+        private final AtomicInteger completed = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private volatile JobState state = JobState.QUEUED;
+        private volatile int total;
+        private volatile Instant startedAt;
+        private volatile Instant finishedAt;
+        // Archive downloads in progress, guarded by the jobs map lock.
+        private int downloads;
+
+        private BulkReportJob(String id, YearMonth month, Path directory) {
+            this.id = id;
+            this.month = month;
+            this.directory = directory;
+        }
+
+        void start(int total) {
+            this.total = total;
+            this.startedAt = Instant.now();
+            this.state = JobState.RUNNING;
+        }
+
+        void finish(JobState outcome) {
+            this.finishedAt = Instant.now();
+            this.state = outcome;
+        }
+
+        ReportJobStatusDto status() {
+            int done = completed.get();
+            int errors = failed.get();
+            double progress = total == 0
+                    ? (state == JobState.COMPLETED ? 100 : 0)
+                    : Math.round((done + errors) * 1000.0 / total) / 10.0;
+            double perMinute = 0;
+            if (startedAt != null) {
+                long elapsedMillis = Duration.between(startedAt, finishedAt != null ? finishedAt : Instant.now()).toMillis();
+                perMinute = elapsedMillis == 0 ? 0 : Math.round(done * 60_000.0 / elapsedMillis * 10) / 10.0;
+            }
+            return new ReportJobStatusDto(id, state.name(), month.toString(), total, done, errors, progress,
+                    perMinute, submittedAt, startedAt, finishedAt);
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package assistant_coaching.demo.report;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.encoding.GlyphList;
+import org.apache.pdfbox.pdmodel.font.encoding.WinAnsiEncoding;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Flows text and charts down A4 pages, opening a new page whenever the next block does not
+ * fit. Text is wrapped to the printable width (never truncated) and each paragraph is
+ * written in a single text object using the leading, instead of one text object per line.
+ */
+final class PdfPageWriter implements Closeable {
+
+    static final PDFont REGULAR = PDType1Font.HELVETICA;
+    static final PDFont BOLD = PDType1Font.HELVETICA_BOLD;
+
+    private static final PDRectangle PAGE_SIZE = PDRectangle.A4;
+    private static final float MARGIN = 50;
+    private static final float FOOTER = 30;
+    private static final GlyphList GLYPHS = GlyphList.getAdobeGlyphList();
+
+    private final PDDocument document;
+    private final float width = PAGE_SIZE.getWidth() - 2 * MARGIN;
+    private PDPageContentStream content;
+    private float y;
+
+    PdfPageWriter(PDDocument document) throws IOException {
+        this.document = document;
+        newPage();
+    }
+
+    float width() {
+        return width;
+    }
+
+    void heading(String text, float size) throws IOException {
+        ensureSpace(size * 2.2f);
+        writeLines(List.of(sanitize(text)), BOLD, size, MARGIN, size * 1.3f);
+        y -= size * 0.5f;
+    }
+
+    void paragraph(String text, PDFont font, float size) throws IOException {
+        paragraph(text, font, size, 0);
+    }
+
+    void bullet(String text, float size) throws IOException {
+        paragraph("- " + text, REGULAR, size, 6);
+    }
+
+    void spacer(float height) {
+        y -= height;
+    }
+
+    /**
+     * Grouped bar chart of two series sharing one scale (revenue and expense trends).
+     */
+    void trendChart(List<Double> first, List<Double> second, String firstLabel, String secondLabel,
+                    float[] firstColor, float[] secondColor, List<String> labels) throws IOException {
+        float chartHeight = 110;
+        ensureSpace(chartHeight + 50);
+        float legendY = y - 10;
+        legend(MARGIN, legendY, firstColor, firstLabel);
+        legend(MARGIN + 110, legendY, secondColor, secondLabel);
+
+        float baseY = y - 30 - chartHeight;
+        double max = 1;
+        for (Double value : first) {
+            max = Math.max(max, value);
+        }
+        for (Double value : second) {
+            max = Math.max(max, value);
+        }
+        int points = Math.max(first.size(), second.size());
+        float groupWidth = width / Math.max(1, points);
+        float barWidth = groupWidth * 0.3f;
+
+        content.setStrokingColor(0.6f, 0.6f, 0.6f);
+        content.setLineWidth(0.5f);
+        content.moveTo(MARGIN, baseY);
+        content.lineTo(MARGIN + width, baseY);
+        content.stroke();
+
+        for (int i = 0; i < points; i++) {
+            float groupX = MARGIN + i * groupWidth + groupWidth * 0.2f;
+            bar(groupX, baseY, barWidth, value(first, i) / max * chartHeight, firstColor);
+            bar(groupX + barWidth, baseY, barWidth, value(second, i) / max * chartHeight, secondColor);
+            if (i < labels.size()) {
+                text(labels.get(i), REGULAR, 8, groupX, baseY - 10);
+            }
+        }
+        text("max " + ReportFormat.amount(max), REGULAR, 7, MARGIN + width - 60, y - 20);
+        y = baseY - 22;
+    }
+
+    /**
+     * Horizontal bar per category: colour swatch, label, bar proportional to the share.
+     */
+    void shareBars(List<String> labels, List<Double> shares, List<float[]> colors) throws IOException {
+        float rowHeight = 16;
+        float labelWidth = 130;
+        float barMax = width - labelWidth - 50;
+        for (int i = 0; i < labels.size(); i++) {
+            ensureSpace(rowHeight);
+            float rowY = y - rowHeight + 4;
+            bar(MARGIN, rowY, 8, 8, colors.get(i));
+            text(labels.get(i), REGULAR, 9, MARGIN + 14, rowY);
+            bar(MARGIN + labelWidth, rowY, (float) (barMax * Math.min(100, shares.get(i)) / 100), 8, colors.get(i));
+            text(ReportFormat.percent(shares.get(i)), REGULAR, 9, MARGIN + labelWidth + barMax + 6, rowY);
+            y -= rowHeight;
+        }
+    }
+
+    /**
+     * Stamps "Page i / n" on every page once the whole document is laid out.
+     */
+    void numberPages() throws IOException {
+        closeContent();
+        int total = document.getNumberOfPages();
+        for (int i = 0; i < total; i++) {
+            try (PDPageContentStream footer = new PDPageContentStream(document, document.getPage(i),
+                    PDPageContentStream.AppendMode.APPEND, true, true)) {
+                footer.beginText();
+                footer.setFont(REGULAR, 8);
+                footer.newLineAtOffset(PAGE_SIZE.getWidth() / 2 - 20, FOOTER - 10);
+                footer.showText("Page " + (i + 1) + " / " + total);
+                footer.endText();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeContent();
+    }
+
+    private void paragraph(String text, PDFont font, float size, float indent) throws IOException {
+        float leading = size * 1.35f;
+        List<String> lines = wrap(sanitize(text), font, size, width - indent);
+        int next = 0;
+        while (next < lines.size()) {
+            int fitting = (int) ((y - MARGIN - FOOTER) / leading);
+            if (fitting < 1) {
+                newPage();
+                continue;
+            }
+            int end = Math.min(lines.size(), next + fitting);
+            writeLines(lines.subList(next, end), font, size, MARGIN + indent, leading);
+            next = end;
+        }
+        y -= size * 0.4f;
+    }
+
+    private void writeLines(List<String> lines, PDFont font, float size, float x, float leading) throws IOException {
+        content.setNonStrokingColor(0.13f, 0.13f, 0.13f);
+        content.beginText();
+        content.setFont(font, size);
+        content.setLeading(leading);
+        content.newLineAtOffset(x, y - size);
+        for (String line : lines) {
+            content.showText(line);
+            content.newLine();
+        }
+        content.endText();
+        y -= lines.size() * leading;
+    }
+
+    private void text(String value, PDFont font, float size, float x, float atY) throws IOException {
+        content.setNonStrokingColor(0.25f, 0.25f, 0.25f);
+        content.beginText();
+        content.setFont(font, size);
+        content.newLineAtOffset(x, atY);
+        content.showText(sanitize(value));
+        content.endText();
+    }
+
+    private void legend(float x, float atY, float[] color, String label) throws IOException {
+        bar(x, atY, 8, 8, color);
+        text(label, REGULAR, 9, x + 12, atY);
+    }
+
+    private void bar(float x, float atY, float barWidth, double height, float[] color) throws IOException {
+        if (height <= 0 || barWidth <= 0) {
+            return;
+        }
+        content.setNonStrokingColor(color[0], color[1], color[2]);
+        content.addRect(x, atY, barWidth, (float) height);
+        content.fill();
+    }
+
+    private void ensureSpace(float height) throws IOException {
+        if (y - height < MARGIN + FOOTER) {
+            newPage();
+        }
+    }
+
+    private void newPage() throws IOException {
+        closeContent();
+        PDPage page = new PDPage(PAGE_SIZE);
+        document.addPage(page);
+        content = new PDPageContentStream(document, page);
+        y = PAGE_SIZE.getHeight() - MARGIN;
+    }
+
+    private void closeContent() throws IOException {
+        if (content != null) {
+            content.close();
+            content = null;
+        }
+    }
+
+    private static double value(List<Double> values, int index) {
+        return index < values.size() && values.get(index) != null ? values.get(index) : 0;
+    }
+
+    static List<String> wrap(String text, PDFont font, float size, float maxWidth) throws IOException {
+        List<String> lines = new ArrayList<>();
+        StringBuilder line = new StringBuilder();
+        for (String word : text.split(" ")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            String candidate = line.isEmpty() ? word : line + " " + word;
+            if (widthOf(candidate, font, size) <= maxWidth) {
+                line.setLength(0);
+                line.append(candidate);
+                continue;
+            }
+            if (!line.isEmpty()) {
+                lines.add(line.toString());
+                line.setLength(0);
+            }
+            // A single word wider than the line is split where it overflows.
+            while (widthOf(word, font, size) > maxWidth) {
+                int cut = word.length() - 1;
+                while (cut > 1 && widthOf(word.substring(0, cut), font, size) > maxWidth) {
+                    cut--;
+                }
+                lines.add(word.substring(0, cut));
+                word = word.substring(cut);
+            }
+            line.append(word);
+        }
+        if (!line.isEmpty() || lines.isEmpty()) {
+            lines.add(line.toString());
+        }
+        return lines;
+    }
+
+    private static float widthOf(String text, PDFont font, float size) throws IOException {
+        return font.getStringWidth(text) / 1000 * size;
+    }
+
+    /**
+     * Keeps only what the standard fonts can encode (WinAnsi); anything else becomes '?'
+     * instead of failing the whole report.
+     */
+    static String sanitize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder clean = new StringBuilder(text.length());
+        text.codePoints().forEach(cp -> {
+            if (Character.isWhitespace(cp) || Character.isSpaceChar(cp)) {
+                clean.append(' ');
+            } else if (WinAnsiEncoding.INSTANCE.contains(GLYPHS.codePointToName(cp))) {
+                clean.appendCodePoint(cp);
+            } else {
+                clean.append('?');
+            }
+        });
+        return clean.toString();
+    }
+}
@@ -0,0 +1,123 @@
+package assistant_coaching.demo.report;
+
+import assistant_coaching.demo.dto.CategoryShareDto;
+import assistant_coaching.demo.dto.PeriodAnalysisDto;
+import assistant_coaching.demo.model.AnalysisPeriod;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Lays out the financial analysis as a multi-page PDF (figures, trend chart, category
+ * distribution, insight and recommendations for the month, week and year) and writes it
+ * straight to the given stream.
+ */
+@Component
+public class PdfReportRenderer {
+
+    private static final float[] REVENUE_COLOR = rgb("#1E88E5");
+    private static final float[] EXPENSE_COLOR = rgb("#FFA726");
+    private static final List<AnalysisPeriod> SECTION_ORDER =
+            List.of(AnalysisPeriod.MONTH, AnalysisPeriod.WEEK, AnalysisPeriod.YEAR);
+
+    public void render(ReportData data, OutputStream out) throws IOException {
+        render(data, out, MemoryUsageSetting.setupMainMemoryOnly());
+    }
+
+    /**
+     * Same as {@link #render(ReportData, OutputStream)} with explicit PDFBox buffering, so bulk
+     * exports can cap the heap each document uses and page the rest to scratch files.
+     */
+    public void render(ReportData data, OutputStream out, MemoryUsageSetting memory) throws IOException {
+        try (PDDocument document = new PDDocument(memory)) {
+            try (PdfPageWriter writer = new PdfPageWriter(document)) {
+                writer.heading("Rapport Financier IA", 20);
+                String monthLabel = data.month().getMonth().getDisplayName(TextStyle.FULL, Locale.FRENCH)
+                        + " " + data.month().getYear();
+                writer.paragraph("Periode: " + monthLabel, PdfPageWriter.REGULAR, 12);
+                writer.spacer(8);
+
+                List<PeriodAnalysisDto> periods = new ArrayList<>(data.periods());
+                periods.sort(Comparator.comparingInt(period -> SECTION_ORDER.indexOf(period.getPeriod())));
+                for (PeriodAnalysisDto period : periods) {
+                    section(writer, period);
+                }
+                writer.numberPages();
+            }
+            document.save(out);
+        }
+    }
+
+    private void section(PdfPageWriter writer, PeriodAnalysisDto period) throws IOException {
+        writer.heading(sectionTitle(period.getPeriod()), 15);
+        writer.paragraph("Revenus: " + ReportFormat.amount(period.getRevenue())
+                        + " (" + ReportFormat.change(period.getRevenueChange()) + ")   Depenses: "
+                        + ReportFormat.amount(period.getExpense())
+                        + " (" + ReportFormat.change(period.getExpenseChange()) + ")",
+                PdfPageWriter.REGULAR, 11);
+
+        writer.trendChart(period.getRevenueTrend(), period.getExpenseTrend(), "Revenus", "Depenses",
+                REVENUE_COLOR, EXPENSE_COLOR, trendLabels(period.getPeriod(), period.getRevenueTrend().size()));
+
+        if (!period.getDistribution().isEmpty()) {
+            writer.paragraph("Repartition des depenses", PdfPageWriter.BOLD, 11);
+            List<String> labels = new ArrayList<>();
+            List<Double> shares = new ArrayList<>();
+            List<float[]> colors = new ArrayList<>();
+            for (CategoryShareDto share : period.getDistribution()) {
+                labels.add(share.getLabel());
+                shares.add(share.getValue());
+                colors.add(rgb(share.getColor()));
+            }
+            writer.shareBars(labels, shares, colors);
+            writer.spacer(6);
+        }
+
+        writer.paragraph(period.getInsightTitle(), PdfPageWriter.BOLD, 11);
+        writer.paragraph(period.getInsightBody(), PdfPageWriter.REGULAR, 10);
+        if (!period.getRecommendations().isEmpty()) {
+            writer.paragraph("Recommandations", PdfPageWriter.BOLD, 11);
+            for (String recommendation : period.getRecommendations()) {
+                writer.bullet(recommendation, 10);
+            }
+        }
+        writer.spacer(14);
+    }
+
+    private String sectionTitle(AnalysisPeriod period) {
+        return switch (period) {
+            case WEEK -> "Semaine en cours";
+            case MONTH -> "Mois en cours";
+            case YEAR -> "Annee en cours";
+        };
+    }
+
+    private List<String> trendLabels(AnalysisPeriod period, int points) {
+        String unit = switch (period) {
+            case WEEK -> "S";
+            case MONTH -> "M";
+            case YEAR -> "A";
+        };
+        List<String> labels = new ArrayList<>(points);
+        for (int i = points - 1; i >= 0; i--) {
+            labels.add(i == 0 ? "Actuel" : unit + "-" + i);
+        }
+        return labels;
+    }
+
+    private static float[] rgb(String hex) {
+        if (hex == null || !hex.matches("#[0-9A-Fa-f]{6}")) {
+            return new float[]{0.5f, 0.5f, 0.5f};
+        }
+        int value = Integer.parseInt(hex.substring(1), 16);
+        return new float[]{((value >> 16) & 0xFF) / 255f, ((value >> 8) & 0xFF) / 255f, (value & 0xFF) / 255f};
+    }
+}
@@ -0,0 +1,9 @@
+package assistant_coaching.demo.report;
+
+import java.nio.file.Path;
+
+/**
+ * A rendered report file ready to be streamed, with the name offered to the client.
+ */
+public record RenderedReport(Path file, String filename) {
+}
@@ -0,0 +1,12 @@
+package assistant_coaching.demo.report;
+
+import assistant_coaching.demo.dto.PeriodAnalysisDto;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Everything a report is rendered from; two reports with equal data render identically.
+ */
+public record ReportData(YearMonth month, List<PeriodAnalysisDto> periods) {
+}
@@ -0,0 +1,45 @@
+package assistant_coaching.demo.report;
+
+import assistant_coaching.demo.dto.CategoryShareDto;
+import assistant_coaching.demo.dto.PeriodAnalysisDto;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Version of the data behind a report: a digest of every value the renderer prints, plus
+ * the layout version, so a cached PDF is reused exactly as long as it would render the same.
+ */
+final class ReportFingerprint {
+
+    /** Bump when the layout changes so previously cached PDFs are not served. */
+    static final int LAYOUT_VERSION = 1;
+
+    private ReportFingerprint() {
+    }
+
+    static String of(ReportData data) {
+        StringBuilder canonical = new StringBuilder(512).append(LAYOUT_VERSION).append('|').append(data.month());
+        for (PeriodAnalysisDto period : data.periods()) {
+            canonical.append('|').append(period.getPeriod())
+                    .append(';').append(period.getRevenue()).append(';').append(period.getRevenueChange())
+                    .append(';').append(period.getExpense()).append(';').append(period.getExpenseChange())
+                    .append(';').append(period.getRevenueTrend()).append(';').append(period.getExpenseTrend());
+            for (CategoryShareDto share : period.getDistribution()) {
+                canonical.append(';').append(share.getLabel()).append('=').append(share.getValue())
+                        .append('/').append(share.getColor());
+            }
+            canonical.append(';').append(period.getInsightTitle()).append(';').append(period.getInsightBody())
+                    .append(';').append(period.getRecommendations());
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(canonical.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 12);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 indisponible", ex);
+        }
+    }
+}
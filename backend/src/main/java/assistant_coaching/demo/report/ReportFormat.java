@@ -0,0 +1,36 @@
+package assistant_coaching.demo.report;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Number formatting for the PDF: French style, but with plain spaces as grouping so every
+ * character stays printable with the standard fonts.
+ */
+final class ReportFormat {
+
+    private static final ThreadLocal<DecimalFormat> AMOUNT = ThreadLocal.withInitial(() -> format("#,##0"));
+    private static final ThreadLocal<DecimalFormat> DECIMAL = ThreadLocal.withInitial(() -> format("0.#"));
+
+    private ReportFormat() {
+    }
+
+    static String amount(double value) {
+        return AMOUNT.get().format(value) + " MAD";
+    }
+
+    static String percent(double value) {
+        return DECIMAL.get().format(value) + "%";
+    }
+
+    static String change(double value) {
+        return (value > 0 ? "+" : "") + DECIMAL.get().format(value) + "%";
+    }
+
+    private static DecimalFormat format(String pattern) {
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(Locale.FRANCE);
+        symbols.setGroupingSeparator(' ');
+        return new DecimalFormat(pattern, symbols);
+    }
+}
@@ -0,0 +1,88 @@
+package assistant_coaching.demo.report;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+
+/**
+ * PDF report rendering and caching ({@code app.reports.*}).
+ */
+@ConfigurationProperties(prefix = "app.reports")
+public class ReportProperties {
+
+    private Path cacheDirectory = Path.of(System.getProperty("java.io.tmpdir"), "assistant-reports");
+    private int cacheMaxEntries = 500;
+    private final Bulk bulk = new Bulk();
+
+    public Path getCacheDirectory() {
+        return cacheDirectory;
+    }
+
+    public void setCacheDirectory(Path cacheDirectory) {
+        this.cacheDirectory = cacheDirectory;
+    }
+
+    public int getCacheMaxEntries() {
+        return cacheMaxEntries;
+    }
+
+    public void setCacheMaxEntries(int cacheMaxEntries) {
+        this.cacheMaxEntries = cacheMaxEntries;
+    }
+
+    public Bulk getBulk() {
+        return bulk;
+    }
+
+    /**
+     * Bulk export jobs ({@code app.reports.bulk.*}): each document keeps at most
+     * {@code max-main-memory-bytes} in the heap and pages the rest to the scratch directory.
+     */
+    public static class Bulk {
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+        private Path archiveDirectory = Path.of(System.getProperty("java.io.tmpdir"), "assistant-report-archive");
+        private Path scratchDirectory = Path.of(System.getProperty("java.io.tmpdir"), "assistant-report-scratch");
+        private long maxMainMemoryBytes = 2 * 1024 * 1024;
+        private int retainedJobs = 20;
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public Path getArchiveDirectory() {
+            return archiveDirectory;
+        }
+
+        public void setArchiveDirectory(Path archiveDirectory) {
+            this.archiveDirectory = archiveDirectory;
+        }
+
+        public Path getScratchDirectory() {
+            return scratchDirectory;
+        }
+
+        public void setScratchDirectory(Path scratchDirectory) {
+            this.scratchDirectory = scratchDirectory;
+        }
+
+        public long getMaxMainMemoryBytes() {
+            return maxMainMemoryBytes;
+        }
+
+        public void setMaxMainMemoryBytes(long maxMainMemoryBytes) {
+            this.maxMainMemoryBytes = maxMainMemoryBytes;
+        }
+
+        public int getRetainedJobs() {
+            return retainedJobs;
+        }
+
+        public void setRetainedJobs(int retainedJobs) {
+            this.retainedJobs = retainedJobs;
+        }
+    }
+}
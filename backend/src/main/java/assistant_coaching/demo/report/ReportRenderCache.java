@@ -0,0 +1,159 @@
+package assistant_coaching.demo.report;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rendered reports kept as files, keyed by their data fingerprint, so repeated downloads
+ * stream a file instead of rendering again and no PDF is held in the heap. Renders are
+ * single-flight: concurrent requests for the same key wait for the one render in progress.
+ * Least recently used files are deleted beyond {@code app.reports.cache-max-entries}.
+ */
+@Component
+public class ReportRenderCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportRenderCache.class);
+
+    private final Path directory;
+    private final int maxEntries;
+    private final Map<String, Path> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ConcurrentHashMap<String, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong renders = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+
+    public ReportRenderCache(ReportProperties properties) {
+        this.directory = properties.getCacheDirectory();
+        this.maxEntries = Math.max(1, properties.getCacheMaxEntries());
+        try {
+            Files.createDirectories(directory);
+            // Files left by a previous run are unknown to this index: start clean.
+            try (DirectoryStream<Path> stale = Files.newDirectoryStream(directory, "*.{pdf,part}")) {
+                for (Path file : stale) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Repertoire de cache des rapports inaccessible: " + directory, ex);
+        }
+    }
+
+    @FunctionalInterface
+    public interface ReportWriter {
+        void write(OutputStream out) throws IOException;
+    }
+
+    public Path getOrRender(String key, ReportWriter writer) throws IOException {
+        Path cached = lookup(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        CompletableFuture<Path> mine = new CompletableFuture<>();
+        CompletableFuture<Path> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            hits.incrementAndGet();
+            return await(running);
+        }
+        try {
+            Path rendered = lookup(key);
+            if (rendered == null) {
+                rendered = render(key, writer);
+            }
+            mine.complete(rendered);
+            return rendered;
+        } catch (IOException | RuntimeException ex) {
+            mine.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    public long renders() {
+        return renders.get();
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    private Path render(String key, ReportWriter writer) throws IOException {
+        Path target = directory.resolve(key + ".pdf");
+        Path partial = Files.createTempFile(directory, key, ".part");
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(partial))) {
+                writer.write(out);
+            }
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+        renders.incrementAndGet();
+        store(key, target);
+        return target;
+    }
+
+    private Path lookup(String key) {
+        synchronized (entries) {
+            Path path = entries.get(key);
+            if (path != null && !Files.exists(path)) {
+                entries.remove(key);
+                return null;
+            }
+            return path;
+        }
+    }
+
+    private void store(String key, Path path) {
+        List<Path> evicted = new ArrayList<>();
+        synchronized (entries) {
+            entries.put(key, path);
+            Iterator<Map.Entry<String, Path>> oldest = entries.entrySet().iterator();
+            while (entries.size() > maxEntries && oldest.hasNext()) {
+                evicted.add(oldest.next().getValue());
+                oldest.remove();
+            }
+        }
+        // Readers that already opened an evicted file keep streaming it: only the name goes.
+        for (Path file : evicted) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ex) {
+                log.warn("Could not delete cached report {}: {}", file, ex.getMessage());
+            }
+        }
+    }
+
+    private static Path await(CompletableFuture<Path> running) throws IOException {
+        try {
+            return running.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw ex;
+        }
+    }
+}
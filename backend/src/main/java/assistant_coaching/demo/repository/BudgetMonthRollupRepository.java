@@ -0,0 +1,38 @@
+package assistant_coaching.demo.repository;
+
+import assistant_coaching.demo.analytics.BudgetTotals;
+import assistant_coaching.demo.model.BudgetMonthRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface BudgetMonthRollupRepository extends JpaRepository<BudgetMonthRollup, Long> {
+
+    /**
+     * Adds to the row of the month, creating it on first use, in one statement so that
+     * concurrent first writes cannot both insert.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            INSERT INTO budget_month_rollup (period_year, period_month, category, budget_cents, spent_cents, budget_count)
+            VALUES (:year, :month, :category, :budgetCents, :spentCents, :budgetCount)
+            ON DUPLICATE KEY UPDATE budget_cents = budget_cents + :budgetCents,
+                                    spent_cents = spent_cents + :spentCents,
+                                    budget_count = budget_count + :budgetCount
+            """, nativeQuery = true)
+    int addToMonth(@Param("year") int year,
+                   @Param("month") int month,
+                   @Param("category") String category,
+                   @Param("budgetCents") long budgetCents,
+                   @Param("spentCents") long spentCents,
+                   @Param("budgetCount") int budgetCount);
+
+    @Query("""
+            SELECT new assistant_coaching.demo.analytics.BudgetTotals(
+                COALESCE(SUM(r.budgetCents), 0L), COALESCE(SUM(r.spentCents), 0L))
+            FROM BudgetMonthRollup r
+            WHERE r.periodYear = :year AND r.periodMonth = :month
+            """)
+    BudgetTotals sumForMonth(@Param("year") int year, @Param("month") int month);
+}
@@ -16,21 +16,23 @@ public interface BudgetRepository extends JpaRepository<Budget, Long> {
     boolean existsByCategoryIgnoreCaseAndPeriodYearAndPeriodMonthAndIdNot(
             String category, Integer periodYear, Integer periodMonth, Long id);
 
+    /**
+     * Budgets shown for a month in one query: those filed under the month plus the
+     * weekly/custom ones whose range overlaps it.
+     */
     @Query("""
             select b from Budget b
-            where b.periodYear = :year and b.periodMonth = :month
+            where (b.periodYear = :year and b.periodMonth = :month)
+               or (b.periodType <> :monthly
+                   and b.customStart <= :windowEnd
+                   and (b.customEnd is null or b.customEnd >= :windowStart))
+            order by b.category
             """)
-    List<Budget> findByYearMonth(@Param("year") int year, @Param("month") int month);
-
-    @Query("""
-            select b from Budget b
-            where b.periodType <> :monthly
-              and b.customStart <= :windowEnd
-              and (b.customEnd is null or b.customEnd >= :windowStart)
-            """)
-    List<Budget> findRangeBudgets(@Param("windowStart") LocalDate windowStart,
-                                  @Param("windowEnd") LocalDate windowEnd,
-                                  @Param("monthly") BudgetPeriodType monthly);
+    List<Budget> findForMonth(@Param("year") int year,
+                              @Param("month") int month,
+                              @Param("windowStart") LocalDate windowStart,
+                              @Param("windowEnd") LocalDate windowEnd,
+                              @Param("monthly") BudgetPeriodType monthly);
 
     @Query("""
             select count(b) > 0 from Budget b
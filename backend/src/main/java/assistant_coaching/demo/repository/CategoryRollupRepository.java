@@ -0,0 +1,47 @@
+package assistant_coaching.demo.repository;
+
+import assistant_coaching.demo.analytics.RollupRow;
+import assistant_coaching.demo.model.CategoryRollup;
+import assistant_coaching.demo.model.RollupGrain;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface CategoryRollupRepository extends JpaRepository<CategoryRollup, Long> {
+
+    /**
+     * Adds to the row of the period, creating it on first use, in one statement so that
+     * concurrent first writes cannot both insert.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            INSERT INTO category_rollup (user_id, grain, period_start, category, income_cents, expense_cents)
+            VALUES (:userId, :grain, :periodStart, :category, :incomeCents, :expenseCents)
+            ON DUPLICATE KEY UPDATE income_cents = income_cents + :incomeCents,
+                                    expense_cents = expense_cents + :expenseCents
+            """, nativeQuery = true)
+    int addToPeriod(@Param("userId") Long userId,
+                    @Param("grain") String grain,
+                    @Param("periodStart") LocalDate periodStart,
+                    @Param("category") String category,
+                    @Param("incomeCents") long incomeCents,
+                    @Param("expenseCents") long expenseCents);
+
+    @Query("""
+            SELECT new assistant_coaching.demo.analytics.RollupRow(r.periodStart, r.category, r.incomeCents, r.expenseCents)
+            FROM CategoryRollup r
+            WHERE r.userId = :userId AND r.grain = :grain AND r.periodStart >= :from AND r.periodStart <= :to
+            """)
+    List<RollupRow> findRows(@Param("userId") Long userId,
+                             @Param("grain") RollupGrain grain,
+                             @Param("from") LocalDate from,
+                             @Param("to") LocalDate to);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM CategoryRollup r WHERE r.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+}
@@ -0,0 +1,29 @@
+package assistant_coaching.demo.repository;
+
+import assistant_coaching.demo.analytics.TransactionDaySum;
+import assistant_coaching.demo.model.FinancialTransaction;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface FinancialTransactionRepository extends JpaRepository<FinancialTransaction, Long> {
+
+    Optional<FinancialTransaction> findByIdAndUserId(Long id, Long userId);
+
+    List<FinancialTransaction> findByUserIdOrderByOccurredOnDescIdDesc(Long userId, Pageable pageable);
+
+    @Query("SELECT DISTINCT t.userId FROM FinancialTransaction t")
+    List<Long> findDistinctUserIds();
+
+    @Query("""
+            SELECT new assistant_coaching.demo.analytics.TransactionDaySum(t.occurredOn, t.category, t.type, SUM(t.amount))
+            FROM FinancialTransaction t
+            WHERE t.userId = :userId
+            GROUP BY t.occurredOn, t.category, t.type
+            """)
+    List<TransactionDaySum> sumByDay(@Param("userId") Long userId);
+}
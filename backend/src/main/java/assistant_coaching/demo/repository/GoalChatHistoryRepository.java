@@ -5,25 +5,53 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface GoalChatHistoryRepository extends JpaRepository<GoalChatHistory, Long> {
-    List<GoalChatHistory> findAllByUserIdOrderByTimestampDesc(Long userId, Pageable pageable);
 
     @Query("""
-            SELECT g FROM GoalChatHistory g
-            WHERE g.timestamp = (
-                SELECT MAX(h.timestamp) FROM GoalChatHistory h WHERE h.sessionId = g.sessionId
-            )
-            ORDER BY g.timestamp DESC
+            SELECT DISTINCT h.sessionId FROM GoalChatHistory h
+            WHERE NOT EXISTS (SELECT 1 FROM GoalChatSessionSummary s WHERE s.sessionId = h.sessionId)
             """)
-    List<GoalChatHistory> findLatestEntriesPerSession(Pageable pageable);
+    List<String> findSessionIdsWithoutSummary(Pageable pageable);
+
+    List<GoalChatHistory> findBySessionIdOrderByTimestampAsc(String sessionId);
 
     List<GoalChatHistory> findBySessionIdAndUserId(String sessionId, Long userId);
 
     List<GoalChatHistory> findBySessionIdAndUserIdOrderByTimestampAsc(String sessionId, Long userId);
 
+    List<GoalChatHistory> findBySessionIdAndUserIdOrderByTimestampAscIdAsc(String sessionId, Long userId,
+                                                                          Pageable pageable);
+
+    @Query("""
+            SELECT h FROM GoalChatHistory h
+            WHERE h.sessionId = :sessionId AND h.userId = :userId
+              AND (h.timestamp > :timestamp OR (h.timestamp = :timestamp AND h.id > :id))
+            ORDER BY h.timestamp ASC, h.id ASC
+            """)
+    List<GoalChatHistory> findPageAfter(@Param("sessionId") String sessionId,
+                                        @Param("userId") Long userId,
+                                        @Param("timestamp") LocalDateTime timestamp,
+                                        @Param("id") Long id,
+                                        Pageable pageable);
+
     @Modifying
     void deleteBySessionIdAndUserId(String sessionId, Long userId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE GoalChatHistory g SET g.starred = :starred WHERE g.userId = :userId AND g.sessionId IN :sessionIds")
+    int updateStarredForSessions(@Param("userId") Long userId,
+                                 @Param("sessionIds") Collection<String> sessionIds,
+                                 @Param("starred") boolean starred);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE GoalChatHistory g SET g.goalLabel = :goalLabel WHERE g.userId = :userId AND g.sessionId IN :sessionIds")
+    int updateGoalLabelForSessions(@Param("userId") Long userId,
+                                   @Param("sessionIds") Collection<String> sessionIds,
+                                   @Param("goalLabel") String goalLabel);
 }
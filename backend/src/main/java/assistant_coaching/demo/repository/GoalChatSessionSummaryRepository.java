@@ -0,0 +1,49 @@
+package assistant_coaching.demo.repository;
+
+import assistant_coaching.demo.model.GoalChatSessionSummary;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface GoalChatSessionSummaryRepository extends JpaRepository<GoalChatSessionSummary, String> {
+
+    List<GoalChatSessionSummary> findByUserIdOrderByLastTimestampDescSessionIdDesc(Long userId, Pageable pageable);
+
+    /**
+     * Keyset page: sessions strictly older than ({@code lastTimestamp}, {@code sessionId}),
+     * served by the (user_id, last_timestamp DESC, session_id DESC) index. A null
+     * {@code userId} matches anonymous sessions, like the derived first-page query.
+     */
+    @Query("""
+            SELECT s FROM GoalChatSessionSummary s
+            WHERE (s.userId = :userId OR (:userId IS NULL AND s.userId IS NULL))
+              AND (s.lastTimestamp < :lastTimestamp
+                   OR (s.lastTimestamp = :lastTimestamp AND s.sessionId < :sessionId))
+            ORDER BY s.lastTimestamp DESC, s.sessionId DESC
+            """)
+    List<GoalChatSessionSummary> findPageBefore(@Param("userId") Long userId,
+                                                @Param("lastTimestamp") LocalDateTime lastTimestamp,
+                                                @Param("sessionId") String sessionId,
+                                                Pageable pageable);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE GoalChatSessionSummary s SET s.starred = :starred WHERE s.userId = :userId AND s.sessionId IN :sessionIds")
+    int updateStarredForSessions(@Param("userId") Long userId,
+                                 @Param("sessionIds") Collection<String> sessionIds,
+                                 @Param("starred") boolean starred);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE GoalChatSessionSummary s SET s.goalLabel = :goalLabel WHERE s.userId = :userId AND s.sessionId IN :sessionIds")
+    int updateGoalLabelForSessions(@Param("userId") Long userId,
+                                   @Param("sessionIds") Collection<String> sessionIds,
+                                   @Param("goalLabel") String goalLabel);
+
+    @Modifying
+    void deleteBySessionIdAndUserId(String sessionId, Long userId);
+}
@@ -1,10 +1,38 @@
 package assistant_coaching.demo.repository;
 
+import assistant_coaching.demo.dto.InteractionSummaryDto;
 import assistant_coaching.demo.model.InteractionLog;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface InteractionLogRepository extends JpaRepository<InteractionLog, Long> {
-    List<InteractionLog> findBySessionIdOrderByTimestampAsc(Long sessionId);
+    /**
+     * The latest interactions of a session, newest first, read straight into DTOs so no
+     * entity is loaded or tracked.
+     */
+    @Query("""
+            SELECT new assistant_coaching.demo.dto.InteractionSummaryDto(l.timestamp, l.userInput, l.assistantReply)
+            FROM InteractionLog l
+            WHERE l.session.id = :sessionId
+            ORDER BY l.timestamp DESC, l.id DESC
+            """)
+    List<InteractionSummaryDto> findLatestSummaries(@Param("sessionId") Long sessionId, Pageable pageable);
+
+    List<InteractionLog> findBySessionIdOrderByTimestampAscIdAsc(Long sessionId, Pageable pageable);
+
+    @Query("""
+            SELECT l FROM InteractionLog l
+            WHERE l.session.id = :sessionId
+              AND (l.timestamp > :timestamp OR (l.timestamp = :timestamp AND l.id > :id))
+            ORDER BY l.timestamp ASC, l.id ASC
+            """)
+    List<InteractionLog> findPageAfter(@Param("sessionId") Long sessionId,
+                                       @Param("timestamp") LocalDateTime timestamp,
+                                       @Param("id") Long id,
+                                       Pageable pageable);
 }
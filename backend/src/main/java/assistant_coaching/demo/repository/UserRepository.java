@@ -2,11 +2,16 @@ package assistant_coaching.demo.repository;
 
 import assistant_coaching.demo.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
 
     boolean existsByEmailIgnoreCaseAndIdNot(String email, Long id);
+
+    @Query("select u.id from User u order by u.id")
+    List<Long> findAllIds();
 }
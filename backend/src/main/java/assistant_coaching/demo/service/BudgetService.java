@@ -1,5 +1,7 @@
 package assistant_coaching.demo.service;
 
+import assistant_coaching.demo.analytics.BudgetTotals;
+import assistant_coaching.demo.analytics.RollupService;
 import assistant_coaching.demo.dto.BudgetCategoryResponse;
 import assistant_coaching.demo.dto.BudgetSnapshotResponse;
 import assistant_coaching.demo.dto.BudgetTipDto;
@@ -18,35 +20,34 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 @Service
 public class BudgetService {
 
     private final BudgetRepository repository;
+    private final RollupService rollups;
     private final NumberFormat currencyFormat = NumberFormat.getNumberInstance(Locale.FRANCE);
 
-    public BudgetService(BudgetRepository repository) {
+    public BudgetService(BudgetRepository repository, RollupService rollups) {
         this.repository = repository;
+        this.rollups = rollups;
         currencyFormat.setMaximumFractionDigits(0);
     }
 
     @Transactional(readOnly = true)
     public BudgetSnapshotResponse getSnapshot(Integer year, Integer month) {
         YearMonth resolved = resolveYearMonth(year, month);
-        List<Budget> monthly = repository.findByYearMonth(resolved.getYear(), resolved.getMonthValue());
-        List<Budget> rangeBudgets = repository.findRangeBudgets(
+        List<Budget> budgets = repository.findForMonth(
+                resolved.getYear(),
+                resolved.getMonthValue(),
                 resolved.atDay(1),
                 resolved.atEndOfMonth(),
                 BudgetPeriodType.MONTHLY
         );
 
-        List<Budget> budgets = Stream.concat(monthly.stream(), rangeBudgets.stream())
-                .sorted(Comparator.comparing(Budget::getCategory))
-                .toList();
-
-        double totalBudget = budgets.stream().mapToDouble(b -> b.getBudgetAmount().doubleValue()).sum();
-        double totalSpent = budgets.stream().mapToDouble(b -> b.getSpentAmount().doubleValue()).sum();
+        BudgetTotals totals = rollups.budgetTotals(resolved);
+        double totalBudget = totals.budgetAmount();
+        double totalSpent = totals.spentAmount();
         double remaining = Math.max(totalBudget - totalSpent, 0);
 
         List<BudgetCategoryResponse> categories = budgets.stream()
@@ -82,6 +83,7 @@ public class BudgetService {
         budget.setSpentAmount(BigDecimal.ZERO);
         applyBudgetData(budget, request, normalizedCategory, target, range);
         Budget saved = repository.save(budget);
+        rollups.applyBudget(saved, 1);
         return new BudgetCategoryResponse(saved);
     }
 
@@ -92,14 +94,17 @@ public class BudgetService {
         String normalizedCategory = normalizeCategory(request.getCategory());
         LocalDateRange range = resolveDateRange(request, target);
         ensureNotDuplicate(id, normalizedCategory, target, request.getPeriodType(), range);
+        rollups.applyBudget(existing, -1);
         applyBudgetData(existing, request, normalizedCategory, target, range);
         Budget saved = repository.save(existing);
+        rollups.applyBudget(saved, 1);
         return new BudgetCategoryResponse(saved);
     }
 
     @Transactional
     public void deleteBudget(long id) {
         Budget existing = repository.findById(id).orElseThrow(() -> new BudgetNotFoundException(id));
+        rollups.applyBudget(existing, -1);
         repository.delete(existing);
     }
 
@@ -196,7 +201,7 @@ public class BudgetService {
         return new LocalDateRange(start, end);
     }
 
-    private BudgetTipDto buildAdvice(List<Budget> budgets, double remaining) {
+    BudgetTipDto buildAdvice(List<Budget> budgets, double remaining) {
         if (budgets.isEmpty()) {
             return null;
         }
@@ -1,106 +1,53 @@
 package assistant_coaching.demo.service;
 
+import assistant_coaching.demo.analytics.AnalyticsEngine;
+import assistant_coaching.demo.analytics.RollupRow;
+import assistant_coaching.demo.analytics.RollupService;
 import assistant_coaching.demo.dto.CategoryShareDto;
 import assistant_coaching.demo.dto.FinancialAnalysisResponse;
 import assistant_coaching.demo.dto.PeriodAnalysisDto;
 import assistant_coaching.demo.model.AnalysisPeriod;
-import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.pdmodel.PDPage;
-import org.apache.pdfbox.pdmodel.PDPageContentStream;
-import org.apache.pdfbox.pdmodel.common.PDRectangle;
-import org.apache.pdfbox.pdmodel.font.PDType1Font;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.EnumMap;
 import java.util.List;
-import java.io.ByteArrayOutputStream;
+import java.util.Map;
 
 @Service
 public class FinancialAnalysisService {
 
+    private final RollupService rollups;
+    private final AnalyticsEngine engine;
+
+    public FinancialAnalysisService(RollupService rollups, AnalyticsEngine engine) {
+        this.rollups = rollups;
+        this.engine = engine;
+    }
+
     public FinancialAnalysisResponse getAnalysis() {
         return new FinancialAnalysisResponse(
                 List.of(buildWeek(), buildMonth(), buildYear())
         );
     }
 
-    public byte[] generatePdfReport() {
-        PeriodAnalysisDto month = buildMonth();
-        try (PDDocument document = new PDDocument();
-             ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-            PDPage page = new PDPage(PDRectangle.A4);
-            document.addPage(page);
-
-            try (PDPageContentStream content = new PDPageContentStream(document, page)) {
-                content.beginText();
-                content.setFont(PDType1Font.HELVETICA_BOLD, 18);
-                content.newLineAtOffset(50, 770);
-                content.showText("Rapport Financier IA");
-                content.endText();
-
-                content.beginText();
-                content.setFont(PDType1Font.HELVETICA, 12);
-                content.newLineAtOffset(50, 740);
-                content.showText("Periode: " + "Mois en cours");
-                content.endText();
-
-                content.beginText();
-                content.setFont(PDType1Font.HELVETICA_BOLD, 14);
-                content.newLineAtOffset(50, 710);
-                content.showText("Score et tendances");
-                content.endText();
-
-                content.beginText();
-                content.setFont(PDType1Font.HELVETICA, 12);
-                content.newLineAtOffset(50, 690);
-                content.showText("Revenus: " + month.getRevenue() + " MAD / Depenses: " + month.getExpense() + " MAD");
-                content.endText();
-
-                content.beginText();
-                content.setFont(PDType1Font.HELVETICA, 12);
-                content.newLineAtOffset(50, 670);
-                content.showText("Variation revenus: " + month.getRevenueChange() + "% | Variation depenses: " + month.getExpenseChange() + "%");
-                content.endText();
-
-                content.beginText();
-                content.setFont(PDType1Font.HELVETICA_BOLD, 14);
-                content.newLineAtOffset(50, 640);
-                content.showText("Analyse IA");
-                content.endText();
-
-                content.beginText();
-                content.setFont(PDType1Font.HELVETICA, 12);
-                content.newLineAtOffset(50, 620);
-                content.showText(shorten(month.getInsightBody()));
-                content.endText();
-
-                float y = 590;
-                content.beginText();
-                content.setFont(PDType1Font.HELVETICA_BOLD, 14);
-                content.newLineAtOffset(50, y);
-                content.showText("Recommandations");
-                content.endText();
-                y -= 20;
-                for (String reco : month.getRecommendations()) {
-                    content.beginText();
-                    content.setFont(PDType1Font.HELVETICA, 12);
-                    content.newLineAtOffset(55, y);
-                    content.showText("- " + shorten(reco));
-                    content.endText();
-                    y -= 18;
-                    if (y < 80) break;
-                }
-            }
-
-            document.save(out);
-            return out.toByteArray();
-        } catch (Exception ex) {
-            throw new RuntimeException("Impossible de generer le PDF du rapport.", ex);
+    /**
+     * Analysis computed from the user's own transactions: each period reads only the rollup
+     * rows of its trend horizon at its own grain, so a few dozen rows at most.
+     */
+    @Transactional(readOnly = true)
+    public FinancialAnalysisResponse getAnalysis(Long userId) {
+        if (userId == null) {
+            return getAnalysis();
         }
-    }
-
-    private String shorten(String text) {
-        if (text == null) return "";
-        return text.length() > 140 ? text.substring(0, 140) + "..." : text;
+        LocalDate today = LocalDate.now();
+        Map<AnalysisPeriod, List<RollupRow>> rows = new EnumMap<>(AnalysisPeriod.class);
+        for (AnalysisPeriod period : AnalysisPeriod.values()) {
+            rows.put(period, rollups.rows(userId, AnalyticsEngine.grainOf(period),
+                    AnalyticsEngine.horizonStart(period, today), today));
+        }
+        return new FinancialAnalysisResponse(engine.analyse(rows, today));
     }
 
     private PeriodAnalysisDto buildWeek() {
@@ -1,5 +1,8 @@
 package assistant_coaching.demo.service;
 
+import assistant_coaching.demo.dto.CursorPage;
+import assistant_coaching.demo.dto.InteractionSummaryDto;
+import assistant_coaching.demo.dto.PageCursor;
 import assistant_coaching.demo.dto.StartSessionRequest;
 import assistant_coaching.demo.model.CoachingSession;
 import assistant_coaching.demo.model.FinancialGoal;
@@ -10,13 +13,18 @@ import assistant_coaching.demo.repository.FinancialGoalRepository;
 import assistant_coaching.demo.repository.InteractionLogRepository;
 import assistant_coaching.demo.repository.UserRepository;
 import jakarta.transaction.Transactional;
+import org.hibernate.Hibernate;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
+import java.util.function.Function;
 
 @Service
 public class SessionService {
@@ -52,18 +60,53 @@ public class SessionService {
         return sessionRepository.save(session);
     }
 
+    /**
+     * Loads the session with its owner and focus goal initialised so callers can keep using it
+     * after the transaction ends (the voice turn continues on a reactive pipeline).
+     */
+    @Transactional
     public Optional<CoachingSession> findSession(Long sessionId) {
-        return sessionRepository.findById(sessionId);
+        Optional<CoachingSession> session = sessionRepository.findById(sessionId);
+        session.ifPresent(found -> {
+            Hibernate.initialize(found.getUser());
+            Hibernate.initialize(found.getFocusGoal());
+        });
+        return session;
     }
 
-    public List<InteractionLog> getInteractions(Long sessionId) {
-        return logRepository.findBySessionIdOrderByTimestampAsc(sessionId);
+    /**
+     * The last {@code turns} interactions of a session in chronological order. Cost only
+     * depends on the window size, not on how long the session is.
+     */
+    public List<InteractionSummaryDto> recentInteractions(Long sessionId, int turns) {
+        if (turns < 1) {
+            return List.of();
+        }
+        List<InteractionSummaryDto> latest =
+                new ArrayList<>(logRepository.findLatestSummaries(sessionId, PageRequest.of(0, turns)));
+        Collections.reverse(latest);
+        return latest;
     }
 
+    /**
+     * Interactions of a session in chronological order, one keyset page at a time.
+     */
+    public CursorPage<InteractionLog> getInteractionsPage(Long sessionId, int size, PageCursor cursor) {
+        PageRequest pageRequest = PageRequest.of(0, size + 1);
+        List<InteractionLog> rows = cursor == null
+                ? logRepository.findBySessionIdOrderByTimestampAscIdAsc(sessionId, pageRequest)
+                : logRepository.findPageAfter(sessionId, cursor.timestamp(), cursor.longKey(), pageRequest);
+        return CursorPage.of(rows, size,
+                log -> new PageCursor(log.getTimestamp(), String.valueOf(log.getId())),
+                Function.identity());
+    }
+
+    @Transactional
     public InteractionLog recordInteraction(CoachingSession session, String channel, String userInput, String assistantReply,
                                             String modelName, Integer promptTokens, Integer completionTokens, Integer totalTokens) {
         InteractionLog log = new InteractionLog(channel, userInput, assistantReply);
-        session.addInteraction(log);
+        // The session may be detached at this point: only the owning side is set so the
+        // lazy interactions collection is never loaded just to append one row.
         log.setSession(session);
         log.setModelName(modelName);
         log.setPromptTokens(promptTokens);
@@ -1,39 +1,68 @@
 package assistant_coaching.demo.service;
 
+import assistant_coaching.demo.dto.CursorPage;
 import assistant_coaching.demo.dto.InteractionSummaryDto;
+import assistant_coaching.demo.dto.PageCursor;
 import assistant_coaching.demo.dto.VoiceInputRequest;
 import assistant_coaching.demo.dto.VoiceResponseDto;
 import assistant_coaching.demo.llm.LlmResult;
 import assistant_coaching.demo.llm.LlmService;
+import assistant_coaching.demo.llm.VoiceConversation;
+import assistant_coaching.demo.llm.VoiceConversationCache;
 import assistant_coaching.demo.model.CoachingSession;
 import assistant_coaching.demo.model.FinancialGoal;
 import assistant_coaching.demo.model.InteractionLog;
-import jakarta.transaction.Transactional;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
-import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
 public class VoiceService {
 
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final SessionService sessionService;
     private final LlmService llmService;
+    private final VoiceConversationCache conversations;
 
-    public VoiceService(SessionService sessionService, LlmService llmService) {
+    public VoiceService(SessionService sessionService, LlmService llmService, VoiceConversationCache conversations) {
         this.sessionService = sessionService;
         this.llmService = llmService;
+        this.conversations = conversations;
+    }
+
+    /**
+     * Handles one voice turn. The context comes from the in-memory conversation ring, so
+     * once a session is warm the database is no longer read before the LLM call; the LLM
+     * call runs with no transaction or connection held, and a short write transaction
+     * stores the new turn, which is then appended to the ring.
+     */
+    public Mono<VoiceResponseDto> processVoiceInput(VoiceInputRequest request) {
+        return Mono.defer(() -> {
+                    VoiceConversation cached = conversations.find(request.getSessionId());
+                    if (cached != null) {
+                        return Mono.just(cached);
+                    }
+                    return Mono.fromCallable(() -> conversations.getOrWarm(request.getSessionId(), this::warmConversation))
+                            .subscribeOn(Schedulers.boundedElastic());
+                })
+                .flatMap(conversation -> llmService.generateReplyAsync(conversation, request.getTranscript())
+                        .publishOn(Schedulers.boundedElastic())
+                        .map(llmResult -> completeTurn(conversation, request, llmResult)));
     }
 
-    @Transactional
-    public VoiceResponseDto processVoiceInput(VoiceInputRequest request) {
-        CoachingSession session = sessionService.findSession(request.getSessionId())
+    private VoiceConversation warmConversation(Long sessionId) {
+        CoachingSession session = sessionService.findSession(sessionId)
                 .orElseThrow(() -> new IllegalArgumentException("Session introuvable"));
+        return conversations.warm(session, sessionService.recentInteractions(sessionId, conversations.warmTurns()));
+    }
 
-        List<InteractionLog> history = sessionService.getInteractions(session.getId());
-        LlmResult llmResult = llmService.generateReply(session, history, request.getTranscript());
-        sessionService.recordInteraction(
+    private VoiceResponseDto completeTurn(VoiceConversation conversation, VoiceInputRequest request, LlmResult llmResult) {
+        CoachingSession session = conversation.getSession();
+        InteractionLog stored = sessionService.recordInteraction(
                 session,
                 "voice",
                 request.getTranscript(),
@@ -43,10 +72,7 @@ public class VoiceService {
                 llmResult.getCompletionTokens(),
                 llmResult.getTotalTokens()
         );
-
-        List<InteractionSummaryDto> recent = sessionService.getInteractions(session.getId()).stream()
-                .map(this::toSummary)
-                .collect(Collectors.toList());
+        conversations.append(conversation, toSummary(stored));
 
         String focusGoal = Optional.ofNullable(session.getFocusGoal())
                 .map(FinancialGoal::getTitle)
@@ -57,15 +83,15 @@ public class VoiceService {
                 llmResult.getReply(),
                 session.getStatus().name(),
                 focusGoal,
-                recent,
+                conversation.recentTurns(),
                 llmResult.getFallbackNotice(),
                 llmResult.getQuickReplies());
     }
 
-    public List<InteractionSummaryDto> getSessionInteractions(Long sessionId) {
-        return sessionService.getInteractions(sessionId).stream()
-                .map(this::toSummary)
-                .collect(Collectors.toList());
+    public CursorPage<InteractionSummaryDto> getSessionInteractions(Long sessionId, Integer limit, PageCursor cursor) {
+        int size = limit == null || limit < 1 ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        CursorPage<InteractionLog> page = sessionService.getInteractionsPage(sessionId, size, cursor);
+        return new CursorPage<>(page.items().stream().map(this::toSummary).toList(), page.next());
     }
 
     private InteractionSummaryDto toSummary(InteractionLog log) {
@@ -0,0 +1,74 @@
+package assistant_coaching.demo.analytics;
+
+import assistant_coaching.demo.dto.PeriodAnalysisDto;
+import assistant_coaching.demo.model.AnalysisPeriod;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnalyticsEngineTest {
+
+    private final AnalyticsEngine engine = new AnalyticsEngine();
+
+    @Test
+    void analyse_bucketsEachGrainIntoItsPeriod() {
+        LocalDate today = LocalDate.of(2026, 10, 14);
+        Map<AnalysisPeriod, List<RollupRow>> rows = Map.of(
+                AnalysisPeriod.WEEK, List.of(
+                        new RollupRow(LocalDate.of(2026, 10, 13), "Alimentation", 0, 10_000),
+                        new RollupRow(LocalDate.of(2026, 10, 5), "Alimentation", 0, 5_000),
+                        new RollupRow(LocalDate.of(2026, 10, 1), "Salaire", 100_000, 0)),
+                AnalysisPeriod.MONTH, List.of(
+                        new RollupRow(LocalDate.of(2026, 10, 1), "Alimentation", 0, 15_000),
+                        new RollupRow(LocalDate.of(2026, 10, 1), "Salaire", 100_000, 0),
+                        new RollupRow(LocalDate.of(2026, 9, 1), "Transport", 0, 8_000)),
+                AnalysisPeriod.YEAR, List.of(
+                        new RollupRow(LocalDate.of(2026, 1, 1), "Alimentation", 0, 15_000),
+                        new RollupRow(LocalDate.of(2026, 1, 1), "Transport", 0, 8_000),
+                        new RollupRow(LocalDate.of(2025, 1, 1), "Logement", 0, 50_000)));
+
+        List<PeriodAnalysisDto> periods = engine.analyse(rows, today);
+
+        PeriodAnalysisDto week = periods.get(AnalysisPeriod.WEEK.ordinal());
+        assertThat(week.getExpense()).isEqualTo(100.0);
+        assertThat(week.getExpenseChange()).isEqualTo(100.0);
+        assertThat(week.getDistribution()).singleElement()
+                .satisfies(share -> assertThat(share.getValue()).isEqualTo(100.0));
+        assertThat(week.getInsightBody()).contains("Alimentation");
+
+        PeriodAnalysisDto month = periods.get(AnalysisPeriod.MONTH.ordinal());
+        assertThat(month.getRevenue()).isEqualTo(1000.0);
+        assertThat(month.getExpense()).isEqualTo(150.0);
+        assertThat(month.getExpenseTrend()).containsExactly(0.0, 0.0, 0.0, 80.0, 150.0);
+
+        PeriodAnalysisDto year = periods.get(AnalysisPeriod.YEAR.ordinal());
+        assertThat(year.getExpense()).isEqualTo(230.0);
+        assertThat(year.getExpenseChange()).isEqualTo(-54.0);
+        assertThat(year.getRecommendations()).isNotEmpty();
+    }
+
+    @Test
+    void analyse_withoutDataReturnsEmptyPeriods() {
+        List<PeriodAnalysisDto> periods = engine.analyse(Map.of(), LocalDate.of(2026, 10, 14));
+
+        assertThat(periods).hasSize(3);
+        assertThat(periods).allSatisfy(period -> {
+            assertThat(period.getRevenue()).isZero();
+            assertThat(period.getDistribution()).isEmpty();
+            assertThat(period.getRevenueTrend()).hasSize(AnalyticsEngine.TREND_POINTS);
+        });
+    }
+
+    @Test
+    void horizonStart_coversTheOldestTrendPoint() {
+        LocalDate today = LocalDate.of(2026, 10, 14);
+
+        assertThat(AnalyticsEngine.horizonStart(AnalysisPeriod.WEEK, today)).isEqualTo(LocalDate.of(2026, 9, 14));
+        assertThat(AnalyticsEngine.horizonStart(AnalysisPeriod.MONTH, today)).isEqualTo(LocalDate.of(2026, 6, 1));
+        assertThat(AnalyticsEngine.horizonStart(AnalysisPeriod.YEAR, today)).isEqualTo(LocalDate.of(2022, 1, 1));
+    }
+}
@@ -0,0 +1,84 @@
+package assistant_coaching.demo.analytics;
+
+import assistant_coaching.demo.model.Budget;
+import assistant_coaching.demo.model.BudgetPeriodType;
+import assistant_coaching.demo.model.FinancialTransaction;
+import assistant_coaching.demo.model.RollupGrain;
+import assistant_coaching.demo.model.TransactionType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.mail.host=localhost")
+class RollupServiceTest {
+
+    private static final int WRITERS = 8;
+
+    @Autowired
+    private RollupService rollups;
+
+    @Test
+    void concurrentFirstWritesShareOneRowPerPeriod() throws Exception {
+        LocalDate day = LocalDate.of(2031, 3, 14);
+        runConcurrently(() -> rollups.applyTransaction(new FinancialTransaction(
+                5150L, TransactionType.EXPENSE, "courses", new BigDecimal("12.50"), day, "Marche"), 1));
+
+        for (RollupGrain grain : RollupGrain.values()) {
+            LocalDate period = grain.periodStart(day);
+            assertThat(rollups.rows(5150L, grain, period, period))
+                    .containsExactly(new RollupRow(period, "courses", 0, WRITERS * 1_250L));
+        }
+    }
+
+    @Test
+    void concurrentFirstBudgetsShareOneMonthRow() throws Exception {
+        runConcurrently(() -> {
+            Budget budget = new Budget();
+            budget.setCategory("loisirs-concurrents");
+            budget.setBudgetAmount(new BigDecimal("100"));
+            budget.setSpentAmount(new BigDecimal("40"));
+            budget.setPeriodType(BudgetPeriodType.MONTHLY);
+            budget.setPeriodYear(2031);
+            budget.setPeriodMonth(5);
+            rollups.applyBudget(budget, 1);
+        });
+
+        assertThat(rollups.budgetTotals(YearMonth.of(2031, 5)))
+                .isEqualTo(new BudgetTotals(WRITERS * 10_000L, WRITERS * 4_000L));
+    }
+
+    private static void runConcurrently(Runnable write) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        try {
+            List<CompletableFuture<Void>> writes = new ArrayList<>();
+            for (int i = 0; i < WRITERS; i++) {
+                writes.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException(ex);
+                    }
+                    write.run();
+                }, executor));
+            }
+            start.countDown();
+            CompletableFuture.allOf(writes.toArray(CompletableFuture[]::new)).get();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package assistant_coaching.demo.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoundedSessionStoreTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void evictsLeastRecentlyUsedEntryWhenFull() {
+        BoundedSessionStore<String, String> store = store(2, 0, Duration.ofHours(1));
+        store.put("a", "A");
+        store.put("b", "B");
+        store.get("a");
+        store.put("c", "C");
+
+        assertThat(store.get("b")).isNull();
+        assertThat(store.get("a")).isEqualTo("A");
+        assertThat(store.get("c")).isEqualTo("C");
+        assertThat(store.stats().evictions()).isEqualTo(1);
+    }
+
+    @Test
+    void enforcesWeightCap() {
+        BoundedSessionStore<String, String> store = store(100, 10, Duration.ofHours(1));
+        store.put("a", "123456");
+        store.put("b", "123456");
+
+        assertThat(store.size()).isEqualTo(1);
+        assertThat(store.get("b")).isEqualTo("123456");
+    }
+
+    @Test
+    void expiresIdleEntriesAndReloadsThem() {
+        BoundedSessionStore<String, String> store = store(10, 0, Duration.ofMinutes(5));
+        store.put("a", "A");
+        clock.addAndGet(Duration.ofMinutes(6).toNanos());
+
+        String reloaded = store.getOrLoad("a", key -> "A2");
+
+        assertThat(reloaded).isEqualTo("A2");
+        SessionStoreStats stats = store.stats();
+        assertThat(stats.misses()).isEqualTo(1);
+        assertThat(stats.evictions()).isEqualTo(1);
+        assertThat(store.get("a")).isEqualTo("A2");
+        assertThat(store.stats().hits()).isEqualTo(1);
+    }
+
+    @Test
+    void sweepDropsIdleEntriesWithoutAnyWrite() {
+        BoundedSessionStore<String, String> store = store(10, 0, Duration.ofMinutes(5));
+        store.put("a", "A");
+        store.put("b", "B");
+        clock.addAndGet(Duration.ofMinutes(3).toNanos());
+        store.get("b");
+        clock.addAndGet(Duration.ofMinutes(3).toNanos());
+
+        store.evictExpired();
+
+        assertThat(store.size()).isEqualTo(1);
+        assertThat(store.stats().weight()).isEqualTo(1);
+        assertThat(store.stats().evictions()).isEqualTo(1);
+    }
+
+    private BoundedSessionStore<String, String> store(int maxEntries, long maxWeight, Duration idleTtl) {
+        SessionStoreProperties.Limits limits = new SessionStoreProperties.Limits();
+        limits.setMaxEntries(maxEntries);
+        limits.setMaxWeight(maxWeight);
+        limits.setIdleTtl(idleTtl);
+        return new BoundedSessionStore<>("test", limits, String::length, clock::get);
+    }
+}
@@ -0,0 +1,64 @@
+package assistant_coaching.demo.goalchat;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnswerExtractorTest {
+
+    @Test
+    void extractsKeywordAnchoredFacts() {
+        GoalFacts facts = AnswerExtractor.extract(
+                "Je gagne 9 500 dh, j'ai un crédit de 20k à 4,5 % et je veux y arriver dans 2 ans, plutôt prudent.",
+                null);
+
+        assertThat(facts.monthlyIncome()).isEqualTo(9_500L);
+        assertThat(facts.debtAmount()).isEqualTo(20_000L);
+        assertThat(facts.ratePercent()).isEqualTo(4.5);
+        assertThat(facts.horizonMonths()).isEqualTo(24);
+        assertThat(facts.riskTolerance()).isEqualTo(GoalFacts.RiskTolerance.LOW);
+    }
+
+    @Test
+    void doesNotReadDurationsOrRatesAsAmounts() {
+        GoalFacts years = AnswerExtractor.extract("j'économise depuis 10 ans", null);
+        GoalFacts rate = AnswerExtractor.extract("je voudrais épargner 15 %", null);
+        GoalFacts decimalRate = AnswerExtractor.extract("j'épargne 10,5 %", null);
+        GoalFacts months = AnswerExtractor.extract("je touche 12 mois", null);
+
+        assertThat(years.monthlySavings()).isNull();
+        assertThat(years.horizonMonths()).isEqualTo(120);
+        assertThat(rate.monthlySavings()).isNull();
+        assertThat(rate.ratePercent()).isEqualTo(15.0);
+        assertThat(decimalRate.monthlySavings()).isNull();
+        assertThat(months.monthlyIncome()).isNull();
+        assertThat(AnswerExtractor.extract("15 %", "Combien peux-tu mettre de côté ?").monthlySavings()).isNull();
+    }
+
+    @Test
+    void readsTheStatedAmountAndItsBoundEvenWhenUnattributed() {
+        AnswerExtractor.Reading income = AnswerExtractor.read("> 12 000 dh", "Quel est ton revenu ?");
+        AnswerExtractor.Reading other = AnswerExtractor.read("viser 750 au total", "Et ton objectif ?");
+        AnswerExtractor.Reading horizon = AnswerExtractor.read("18", "As-tu une échéance particulière ?");
+
+        assertThat(income.amount()).isEqualTo(12_000L);
+        assertThat(income.bound()).isEqualTo(">");
+        assertThat(other.facts().isEmpty()).isTrue();
+        assertThat(other.amount()).isEqualTo(750L);
+        assertThat(other.bound()).isEqualTo("=");
+        assertThat(horizon.amount()).isNull();
+    }
+
+    @Test
+    void attributesBareAmountsToTheQuestionAsked() {
+        GoalFacts savings = AnswerExtractor.extract("environ 800", "Combien peux-tu mettre de côté chaque mois ?");
+        GoalFacts horizon = AnswerExtractor.extract("18", "As-tu une échéance particulière ?");
+        GoalFacts merged = savings.merge(horizon).merge(AnswerExtractor.extract("aucune idée", "Et ton revenu ?"));
+
+        assertThat(savings.monthlySavings()).isEqualTo(800L);
+        assertThat(horizon.horizonMonths()).isEqualTo(18);
+        assertThat(merged.monthlySavings()).isEqualTo(800L);
+        assertThat(merged.horizonMonths()).isEqualTo(18);
+        assertThat(merged.monthlyIncome()).isNull();
+    }
+}
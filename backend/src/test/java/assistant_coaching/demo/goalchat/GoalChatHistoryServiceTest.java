@@ -0,0 +1,115 @@
+package assistant_coaching.demo.goalchat;
+
+import assistant_coaching.demo.dto.CursorPage;
+import assistant_coaching.demo.dto.PageCursor;
+import assistant_coaching.demo.model.GoalChatHistory;
+import assistant_coaching.demo.model.GoalChatSessionSummary;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "spring.mail.host=localhost")
+class GoalChatHistoryServiceTest {
+
+    @Autowired
+    private GoalChatHistoryService historyService;
+
+    @Test
+    void keepsOneSummaryPerSessionAndPagesThemByKeyset() {
+        long userId = 4242L;
+        for (String sessionId : List.of("summary-a", "summary-b", "summary-c")) {
+            historyService.recordEntry(sessionId, userId, "monthly_budget", "Budget", null, "Bonjour", "m", 10, 5, 15);
+            historyService.recordEntry(sessionId, userId, "monthly_budget", "Budget", "2000", "Merci", "m", 20, 5, 25);
+        }
+        historyService.markSessionStarred("summary-b", userId, true);
+
+        CursorPage<GoalChatSessionSummary> first = historyService.recentSessions(2, userId, null);
+        CursorPage<GoalChatSessionSummary> second =
+                historyService.recentSessions(2, userId, PageCursor.decode(first.nextCursor()));
+        List<GoalChatSessionSummary> firstPage = first.items();
+        List<GoalChatSessionSummary> secondPage = second.items();
+
+        assertThat(firstPage).hasSize(2);
+        assertThat(secondPage).hasSize(1);
+        assertThat(second.next()).isNull();
+        assertThat(firstPage.get(0).getLastUserInput()).isEqualTo("2000");
+        assertThat(firstPage.get(0).getEntryCount()).isEqualTo(2);
+        assertThat(firstPage.get(0).getTotalTokens()).isEqualTo(40);
+        assertThat(List.of(firstPage.get(0), firstPage.get(1), secondPage.get(0)))
+                .extracting(GoalChatSessionSummary::getSessionId)
+                .containsExactlyInAnyOrder("summary-a", "summary-b", "summary-c")
+                .doesNotHaveDuplicates();
+        assertThat(List.of(firstPage.get(0), firstPage.get(1), secondPage.get(0)))
+                .filteredOn(GoalChatSessionSummary::isStarred)
+                .extracting(GoalChatSessionSummary::getSessionId)
+                .containsExactly("summary-b");
+    }
+
+    @Test
+    void storesTheAmountOfTheLatestAnswerOnTheSummary() {
+        historyService.recordEntry("amount-session", 91L, "emergency_fund", "Fonds", null,
+                "Quel est ton revenu mensuel ?", "m", 1, 1, 2);
+        historyService.recordEntry("amount-session", 91L, "emergency_fund", "Fonds", "< 900 dh",
+                "D'accord, et ton objectif ?", "m", 1, 1, 2);
+        assertThat(amountLabel("amount-session")).isEqualTo("< 900 MAD");
+
+        historyService.recordEntry("amount-session", 91L, "emergency_fund", "Fonds", "viser 750 au total",
+                "Note !", "m", 1, 1, 2);
+        assertThat(amountLabel("amount-session")).isEqualTo("= 750 MAD");
+
+        historyService.recordEntry("amount-session", 91L, "emergency_fund", "Fonds", "je ne sais pas",
+                "D'accord", "m", 1, 1, 2);
+        assertThat(amountLabel("amount-session")).isNull();
+    }
+
+    private String amountLabel(String sessionId) {
+        return GoalChatSessionSummaryService.amountLabel(historyService.sessionSummary(sessionId, 91L).orElseThrow());
+    }
+
+    @Test
+    void rethrowsIntegrityViolationsOtherThanTheSummaryRace() {
+        assertThatThrownBy(() -> historyService.recordEntry("invalid-session", 92L, null, "Fonds", "1000", "Merci",
+                "m", 1, 1, 2)).isInstanceOf(DataIntegrityViolationException.class);
+
+        assertThat(historyService.sessionSummary("invalid-session", 92L)).isEmpty();
+    }
+
+    @Test
+    void pagesTheEntriesOfOneSessionInChronologicalOrder() {
+        for (int i = 0; i < 5; i++) {
+            historyService.recordEntry("paged-session", 77L, "monthly_budget", "Budget", "q" + i, "r" + i, "m", 1, 1, 2);
+        }
+
+        CursorPage<GoalChatHistory> first = historyService.entriesPage("paged-session", 77L, 3, null);
+        CursorPage<GoalChatHistory> second =
+                historyService.entriesPage("paged-session", 77L, 3, PageCursor.decode(first.nextCursor()));
+
+        assertThat(first.items()).extracting(GoalChatHistory::getUserInput).containsExactly("q0", "q1", "q2");
+        assertThat(second.items()).extracting(GoalChatHistory::getUserInput).containsExactly("q3", "q4");
+        assertThat(second.nextCursor()).isNull();
+    }
+
+    @Test
+    void pagesAnonymousSessionsPastTheFirstPage() {
+        for (String sessionId : List.of("anonymous-a", "anonymous-b", "anonymous-c")) {
+            historyService.recordEntry(sessionId, null, "monthly_budget", "Budget", "1000", "Merci", "m", 1, 1, 2);
+        }
+
+        List<String> sessionIds = new ArrayList<>();
+        PageCursor cursor = null;
+        do {
+            CursorPage<GoalChatSessionSummary> page = historyService.recentSessions(2, null, cursor);
+            page.items().forEach(summary -> sessionIds.add(summary.getSessionId()));
+            cursor = page.nextCursor() == null ? null : PageCursor.decode(page.nextCursor());
+        } while (cursor != null);
+
+        assertThat(sessionIds).contains("anonymous-a", "anonymous-b", "anonymous-c").doesNotHaveDuplicates();
+    }
+}
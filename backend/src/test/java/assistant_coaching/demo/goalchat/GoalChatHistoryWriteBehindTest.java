@@ -0,0 +1,116 @@
+package assistant_coaching.demo.goalchat;
+
+import assistant_coaching.demo.model.GoalChatHistory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.mail.host=localhost",
+        "app.goal-chat.write-behind.enabled=true",
+        "app.goal-chat.write-behind.queue-capacity=2",
+        "app.goal-chat.write-behind.flush-interval=1h",
+        "app.goal-chat.write-behind.spill-file=build/tmp/write-behind-test/history.spill"
+})
+class GoalChatHistoryWriteBehindTest {
+
+    private static final Path SPILL_FILE = Path.of("build/tmp/write-behind-test/history.spill");
+    private static final Path REPLAY_FILE = Path.of("build/tmp/write-behind-test/history.spill.replay");
+    private static final Path DEAD_LETTER_FILE = Path.of("build/tmp/write-behind-test/history.spill.dead");
+
+    @Autowired
+    private GoalChatHistoryService historyService;
+
+    @Autowired
+    private GoalChatHistoryWriteBehind writeBehind;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void queuesTurnsSpillsOverflowAndPersistsThemOnRead() {
+        long spilled = writeBehind.spilled();
+        for (int i = 0; i < 3; i++) {
+            historyService.recordEntry("wb-session", 7L, "emergency_fund", "Epargne",
+                    "question " + i, "reponse " + i, "gpt-4o-mini", 1, 2, 3);
+        }
+
+        assertThat(writeBehind.spilled()).isEqualTo(spilled + 1);
+        assertThat(Files.exists(SPILL_FILE)).isTrue();
+
+        List<GoalChatHistory> entries = historyService.entriesForSession("wb-session", 7L);
+
+        assertThat(entries).extracting(GoalChatHistory::getUserInput).containsExactly("question 0", "question 1");
+        assertThat(writeBehind.pending()).isZero();
+        assertThat(historyService.sessionSummary("wb-session", 7L))
+                .hasValueSatisfying(summary -> assertThat(summary.getLastEntryId()).isEqualTo(entries.get(1).getId()));
+        assertThat(meterRegistry.get("goal_chat.history.written").functionCounter().count()).isGreaterThanOrEqualTo(2);
+        assertThat(historyService.markSessionsStarred(List.of("wb-session"), 7L, true)).isEqualTo(2);
+        assertThat(historyService.entriesForSession("wb-session", 7L)).allMatch(GoalChatHistory::isStarred);
+    }
+
+    @Test
+    void failedFlushDoesNotRollBackTheCallerTransaction() throws IOException {
+        historyService.recordEntry("wb-starred", 7L, "emergency_fund", "Epargne",
+                "question", "reponse", "gpt-4o-mini", 1, 2, 3);
+        historyService.entriesForSession("wb-starred", 7L);
+        historyService.recordEntry("wb-broken", 7L, null, "Epargne", "question", "reponse", null, null, null, null);
+        long spilled = writeBehind.spilled();
+
+        assertThat(historyService.markSessionsStarred(List.of("wb-starred"), 7L, true)).isEqualTo(1);
+
+        assertThat(writeBehind.spilled()).isEqualTo(spilled + 1);
+        assertThat(historyService.entriesForSession("wb-starred", 7L)).allMatch(GoalChatHistory::isStarred);
+        Files.deleteIfExists(SPILL_FILE);
+    }
+
+    @Test
+    void replaySavesGoodRowsAndDeadLettersTheOthers() throws IOException {
+        Files.createDirectories(SPILL_FILE.getParent());
+        List<String> lines = List.of(
+                spilled("avant"),
+                "{pas du json",
+                jsonMapper.writeValueAsString(new GoalChatHistoryWriteBehind.PendingEntry("wb-replay", 7L, null,
+                        "Epargne", "sans objectif", "reponse", LocalDateTime.now(), null, null, null, null)),
+                spilled("apres"));
+        Files.write(SPILL_FILE, lines, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        long deadLettered = writeBehind.deadLettered();
+
+        writeBehind.replaySpill();
+
+        assertThat(historyService.entriesForSession("wb-replay", 7L))
+                .extracting(GoalChatHistory::getUserInput)
+                .containsExactly("avant", "apres");
+        assertThat(writeBehind.deadLettered()).isEqualTo(deadLettered + 2);
+        assertThat(Files.readAllLines(DEAD_LETTER_FILE)).containsExactly(lines.get(1), lines.get(2));
+        assertThat(Files.exists(SPILL_FILE)).isFalse();
+        assertThat(Files.exists(REPLAY_FILE)).isFalse();
+    }
+
+    private String spilled(String userInput) {
+        return jsonMapper.writeValueAsString(new GoalChatHistoryWriteBehind.PendingEntry("wb-replay", 7L,
+                "emergency_fund", "Epargne", userInput, "reponse", LocalDateTime.now(), "gpt-4o-mini", 1, 2, 3));
+    }
+
+    @AfterAll
+    static void removeSpillFile() throws IOException {
+        Files.deleteIfExists(SPILL_FILE);
+        Files.deleteIfExists(REPLAY_FILE);
+        Files.deleteIfExists(DEAD_LETTER_FILE);
+    }
+}
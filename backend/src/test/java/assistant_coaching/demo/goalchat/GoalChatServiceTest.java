@@ -0,0 +1,92 @@
+package assistant_coaching.demo.goalchat;
+
+import assistant_coaching.demo.cache.SessionStoreFactory;
+import assistant_coaching.demo.cache.SessionStoreProperties;
+import assistant_coaching.demo.dto.GoalMessageRequest;
+import assistant_coaching.demo.dto.GoalSessionStartRequest;
+import assistant_coaching.demo.llm.ContextWindowManager;
+import assistant_coaching.demo.llm.LlmGateway;
+import assistant_coaching.demo.llm.LlmMetrics;
+import assistant_coaching.demo.llm.LlmResponseCache;
+import assistant_coaching.demo.llm.OpenAiProperties;
+import assistant_coaching.demo.model.GoalChatHistory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class GoalChatServiceTest {
+
+    @Mock
+    private LlmGateway gateway;
+
+    @Mock
+    private LlmResponseCache responseCache;
+
+    @Mock
+    private GoalChatHistoryService historyService;
+
+    private final OpenAiProperties properties = new OpenAiProperties();
+    private final GoalQuestionBank questionBank = new GoalQuestionBank();
+    private final List<GoalChatHistory> stored = new ArrayList<>();
+
+    @Test
+    void evictedSessionResumesAtTheNextQuestion() {
+        when(historyService.recordEntry(anyString(), any(), anyString(), anyString(), any(), anyString(), any(),
+                any(), any(), any())).thenAnswer(invocation -> {
+            GoalChatHistory entry = new GoalChatHistory(invocation.getArgument(0), invocation.getArgument(1),
+                    invocation.getArgument(2), invocation.getArgument(3), invocation.getArgument(4),
+                    invocation.getArgument(5));
+            stored.add(entry);
+            return entry;
+        });
+        List<String> questions = questionBank.questionsFor("emergency_fund");
+
+        GoalChatService service = service();
+        GoalSessionStartRequest start = new GoalSessionStartRequest();
+        start.setGoalId("emergency_fund");
+        start.setGoalLabel("Fonds d'urgence");
+        start.setUserId(1L);
+        String sessionId = service.startSession(start).block().getSessionId();
+        assertThat(service.continueConversation(message(sessionId, "Je gagne 9000 dirhams")).block()
+                .getAssistantMessage()).isEqualTo(questions.get(1));
+
+        // A fresh service has an empty session store: the session is rebuilt from history.
+        when(historyService.entriesForSession(sessionId, 1L)).thenReturn(stored);
+        GoalChatService restarted = service();
+
+        assertThat(restarted.continueConversation(message(sessionId, "2000 par mois")).block()
+                .getAssistantMessage()).isEqualTo(questions.get(2));
+        assertThat(stored.get(stored.size() - 1).getAssistantReply()).isEqualTo(questions.get(2));
+    }
+
+    private GoalChatService service() {
+        HybridEngineProperties hybrid = new HybridEngineProperties();
+        hybrid.setEnabled(true);
+        hybrid.setSharePercent(100);
+        FallbackCoachFormatter formatter = new FallbackCoachFormatter();
+        LlmMetrics metrics = new LlmMetrics(new SimpleMeterRegistry(), properties);
+        SessionStoreFactory storeFactory = new SessionStoreFactory(new SessionStoreProperties(), metrics);
+        return new GoalChatService(properties, gateway, questionBank, formatter, historyService, storeFactory,
+                new ContextWindowManager(properties), responseCache, new GoalTurnRouter(properties, questionBank),
+                new LocalTurnEngine(hybrid, questionBank, formatter, metrics));
+    }
+
+    private static GoalMessageRequest message(String sessionId, String text) {
+        GoalMessageRequest request = new GoalMessageRequest();
+        request.setSessionId(sessionId);
+        request.setUserId(1L);
+        request.setMessage(text);
+        return request;
+    }
+}
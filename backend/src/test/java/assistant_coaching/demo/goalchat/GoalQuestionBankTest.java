@@ -0,0 +1,54 @@
+package assistant_coaching.demo.goalchat;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GoalQuestionBankTest {
+
+    @Test
+    void rendersTheBundledTemplateWithGoalQuestions() {
+        GoalQuestionBank bank = new GoalQuestionBank();
+
+        String prompt = bank.systemPrompt("debt_repayment", "Rembourser mon credit");
+
+        assertThat(prompt)
+                .startsWith("Tu es un coach financier personnel qui guide un utilisateur francophone. "
+                        + "Objectif prioritaire : Rembourser mon credit. ")
+                .contains("Questions recommandees : 1. Quel type de dette souhaites-tu rembourser")
+                .endsWith("ni de conseils illegaux.");
+        assertThat(bank.systemPrompt("unknown", "X")).contains("1. Peux-tu me décrire brièvement ton objectif financier ?");
+    }
+
+    @Test
+    void internsSystemMessagesPerGoalAndLabel() {
+        GoalQuestionBank bank = new GoalQuestionBank();
+
+        assertThat(bank.systemMessage("emergency_fund", "Epargne"))
+                .isSameAs(bank.systemMessage("emergency_fund", "Epargne"))
+                .isNotSameAs(bank.systemMessage("emergency_fund", "Autre"));
+    }
+
+    @Test
+    void reloadsTheTemplateWhenTheFileChanges(@TempDir Path dir) throws IOException, InterruptedException {
+        Path file = dir.resolve("prompt.txt");
+        Files.writeString(file, "Objectif {{goalLabel}}");
+        GoalQuestionBank bank = new GoalQuestionBank(new FileSystemResource(file), Duration.ofMillis(1));
+        assertThat(bank.systemPrompt("emergency_fund", "A")).isEqualTo("Objectif A");
+
+        Files.writeString(file, "# commentaire\nNouveau {{goalLabel}}\n{{questions}}");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(5)));
+        Thread.sleep(5);
+
+        assertThat(bank.systemPrompt("emergency_fund", "A")).startsWith("Nouveau A 1. Quel est ton revenu");
+    }
+}
@@ -0,0 +1,107 @@
+package assistant_coaching.demo.goalchat;
+
+import assistant_coaching.demo.llm.LlmMessage;
+import assistant_coaching.demo.llm.LlmRoute;
+import assistant_coaching.demo.llm.OpenAiProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.PropertiesPropertySourceLoader;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GoalTurnRouterTest {
+
+    @Test
+    void routesQuestionsToSmallModelUntilEveryQuestionIsAnswered() {
+        GoalQuestionBank questionBank = new GoalQuestionBank();
+        GoalTurnRouter router = new GoalTurnRouter(properties(), questionBank);
+        GoalChatSession session = new GoalChatSession("s1", "emergency_fund", "Fonds d'urgence", 1L);
+        session.addMessage(new LlmMessage("user", "Commence la conversation"));
+
+        assertThat(router.classify(session)).isEqualTo(GoalTurnType.OPENING);
+        session.addMessage(new LlmMessage("assistant", "Quel est ton revenu ?"));
+        session.addMessage(new LlmMessage("user", "3000"));
+        LlmRoute questionRoute = router.route(session);
+
+        int questions = questionBank.questionsFor("emergency_fund").size();
+        for (int i = 1; i < questions; i++) {
+            session.addMessage(new LlmMessage("assistant", "Question " + i));
+            session.addMessage(new LlmMessage("user", "Reponse " + i));
+        }
+        LlmRoute planRoute = router.route(session);
+        GoalTurnType planTurn = router.classify(session);
+        session.addMessage(new LlmMessage("assistant", "Voici ton plan"));
+        session.addMessage(new LlmMessage("user", "Et si je gagne plus ?"));
+
+        assertThat(questionRoute).isEqualTo(new LlmRoute("small", 200, Duration.ofSeconds(20)));
+        assertThat(planTurn).isEqualTo(GoalTurnType.PLAN);
+        assertThat(planRoute).isEqualTo(new LlmRoute("large", 600, Duration.ofSeconds(40)));
+        assertThat(router.classify(session)).isEqualTo(GoalTurnType.FOLLOW_UP);
+        assertThat(router.route(session)).isEqualTo(new LlmRoute("small", 300, Duration.ofSeconds(20)));
+    }
+
+    @Test
+    void disabledRoutingKeepsGlobalSettings() {
+        OpenAiProperties properties = properties();
+        properties.getRouting().setEnabled(false);
+        GoalTurnRouter router = new GoalTurnRouter(properties, new GoalQuestionBank());
+
+        assertThat(router.route(new GoalChatSession("s1", "emergency_fund", "Fonds d'urgence", 1L))).isNull();
+    }
+
+    @Test
+    void routingProfileSendsQuestionsToTheSmallModelAndThePlanToTheLargeOne() throws IOException {
+        OpenAiProperties properties = bind("application.properties", "application-routing.properties");
+        GoalQuestionBank questionBank = new GoalQuestionBank();
+        GoalTurnRouter router = new GoalTurnRouter(properties, questionBank);
+        GoalChatSession session = new GoalChatSession("s1", "emergency_fund", "Fonds d'urgence", 1L);
+        session.addMessage(new LlmMessage("assistant", "Quel est ton revenu ?"));
+        session.addMessage(new LlmMessage("user", "3000"));
+        LlmRoute questionRoute = router.route(session);
+        for (int i = 1; i < questionBank.questionsFor("emergency_fund").size(); i++) {
+            session.addMessage(new LlmMessage("assistant", "Question " + i));
+            session.addMessage(new LlmMessage("user", "Reponse " + i));
+        }
+
+        assertThat(questionRoute.model()).isEqualTo("gpt-4o-mini");
+        assertThat(router.route(session)).isEqualTo(new LlmRoute("gpt-4o", 900, Duration.ofSeconds(30)));
+        assertThat(bind("application.properties").getRouting().isEnabled()).isFalse();
+    }
+
+    private static OpenAiProperties bind(String... resources) throws IOException {
+        List<PropertySource<?>> sources = new ArrayList<>();
+        for (String resource : resources) {
+            sources.addAll(new PropertiesPropertySourceLoader().load(resource, new ClassPathResource(resource)));
+        }
+        Collections.reverse(sources);
+        return new Binder(ConfigurationPropertySources.from(sources)).bind("llm", OpenAiProperties.class)
+                .orElseThrow(IllegalStateException::new);
+    }
+
+    private static OpenAiProperties properties() {
+        OpenAiProperties properties = new OpenAiProperties();
+        properties.getRouting().setEnabled(true);
+        OpenAiProperties.Route question = new OpenAiProperties.Route();
+        question.setModel("small");
+        question.setMaxTokens(200);
+        OpenAiProperties.Route plan = new OpenAiProperties.Route();
+        plan.setModel("large");
+        plan.setTimeout(Duration.ofSeconds(40));
+        properties.getRouting().getTurns().put("question", question);
+        OpenAiProperties.Route followUp = new OpenAiProperties.Route();
+        followUp.setModel("small");
+        followUp.setMaxTokens(300);
+        properties.getRouting().getTurns().put("plan", plan);
+        properties.getRouting().getTurns().put("follow-up", followUp);
+        return properties;
+    }
+}
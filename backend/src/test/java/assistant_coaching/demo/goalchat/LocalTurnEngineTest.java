@@ -0,0 +1,63 @@
+package assistant_coaching.demo.goalchat;
+
+import assistant_coaching.demo.llm.LlmMetrics;
+import assistant_coaching.demo.llm.LlmResult;
+import assistant_coaching.demo.llm.OpenAiProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalTurnEngineTest {
+
+    private final GoalQuestionBank questionBank = new GoalQuestionBank();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void asksQuestionBankLocallyAndLeavesFollowUpsAndPlanToLlm() {
+        LocalTurnEngine engine = engine(100);
+        GoalChatSession session = new GoalChatSession("s1", "emergency_fund", "Fonds d'urgence", 1L);
+        List<String> questions = questionBank.questionsFor("emergency_fund");
+
+        LlmResult opening = engine.opening(session);
+        assertThat(opening.getModel()).isEqualTo(LocalTurnEngine.LOCAL_MODEL);
+        assertThat(opening.getReply()).contains(questions.get(0));
+
+        engine.recordAnswer(session, "Pourquoi cette question ?");
+        assertThat(engine.nextTurn(session)).isNull();
+
+        engine.recordAnswer(session, "3000 dirhams");
+        assertThat(engine.nextTurn(session).getReply()).isEqualTo(questions.get(1));
+        for (int i = 2; i < questions.size(); i++) {
+            engine.recordAnswer(session, "reponse " + i);
+            assertThat(engine.nextTurn(session).getReply()).isEqualTo(questions.get(i));
+        }
+        engine.recordAnswer(session, "derniere reponse");
+
+        assertThat(engine.nextTurn(session)).isNull();
+        assertThat(session.fallbackAnswerCount()).isEqualTo(questions.size());
+        engine.recordTurn(session, opening, System.nanoTime());
+        engine.recordTurn(session, opening, System.nanoTime());
+        assertThat(registry.get("goal_chat.turns").tag("arm", "hybrid").tag("source", "local").timer().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void sessionsOutsideTheHybridShareStayOnTheLlm() {
+        LocalTurnEngine engine = engine(0);
+        GoalChatSession session = new GoalChatSession("s2", "emergency_fund", "Fonds d'urgence", 1L);
+
+        assertThat(engine.opening(session)).isNull();
+        assertThat(engine.nextTurn(session)).isNull();
+    }
+
+    private LocalTurnEngine engine(int sharePercent) {
+        HybridEngineProperties properties = new HybridEngineProperties();
+        properties.setEnabled(true);
+        properties.setSharePercent(sharePercent);
+        return new LocalTurnEngine(properties, questionBank, new FallbackCoachFormatter(),
+                new LlmMetrics(registry, new OpenAiProperties()));
+    }
+}
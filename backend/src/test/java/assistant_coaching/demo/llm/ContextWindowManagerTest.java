@@ -0,0 +1,72 @@
+package assistant_coaching.demo.llm;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContextWindowManagerTest {
+
+    @Test
+    void keepsSystemPromptAndFoldsOlderTurnsIntoSummary() {
+        OpenAiProperties properties = new OpenAiProperties();
+        properties.getContext().setMaxPromptTokens(400);
+        properties.getContext().setMinRecentMessages(2);
+        properties.getContext().setSummaryMaxChars(200);
+        ContextWindowManager manager = new ContextWindowManager(properties);
+        RollingSummary summary = new RollingSummary();
+
+        List<LlmMessage> history = new ArrayList<>();
+        history.add(new LlmMessage("system", "Tu es un coach."));
+        for (int i = 0; i < 40; i++) {
+            history.add(new LlmMessage("user", "Reponse numero " + i + " " + "x".repeat(60)));
+            history.add(new LlmMessage("assistant", "Question suivante " + i + " " + "y".repeat(60)));
+        }
+
+        List<LlmMessage> prompt = manager.window(history, summary);
+
+        assertThat(prompt.get(0).getContent()).isEqualTo("Tu es un coach.");
+        assertThat(prompt.get(1).getRole()).isEqualTo("system");
+        assertThat(prompt.get(1).getContent()).contains("Résumé");
+        assertThat(prompt.get(prompt.size() - 1)).isSameAs(history.get(history.size() - 1));
+        assertThat(ContextWindowManager.estimateTokens(prompt)).isLessThanOrEqualTo(400);
+        assertThat(summary.foldedCount()).isEqualTo(history.size() - prompt.size() + 1);
+    }
+
+    @Test
+    void refreshesSummaryIncrementally() {
+        OpenAiProperties properties = new OpenAiProperties();
+        properties.getContext().setMaxPromptTokens(300);
+        properties.getContext().setMinRecentMessages(2);
+        ContextWindowManager manager = new ContextWindowManager(properties);
+        RollingSummary summary = new RollingSummary();
+
+        List<LlmMessage> history = new ArrayList<>();
+        history.add(new LlmMessage("system", "Tu es un coach."));
+        for (int i = 0; i < 10; i++) {
+            history.add(new LlmMessage("user", "Reponse " + i + " " + "x".repeat(80)));
+        }
+        manager.window(history, summary);
+        int foldedBefore = summary.foldedCount();
+
+        history.add(new LlmMessage("user", "Nouvelle reponse " + "z".repeat(80)));
+        manager.window(history, summary);
+
+        assertThat(summary.foldedCount()).isGreaterThanOrEqualTo(foldedBefore);
+        assertThat(summary.foldedCount()).isLessThanOrEqualTo(foldedBefore + 1);
+    }
+
+    @Test
+    void sendsShortConversationsUnchanged() {
+        ContextWindowManager manager = new ContextWindowManager(new OpenAiProperties());
+        List<LlmMessage> history = List.of(
+                new LlmMessage("system", "Tu es un coach."),
+                new LlmMessage("user", "Bonjour"));
+
+        List<LlmMessage> prompt = manager.window(history, new RollingSummary());
+
+        assertThat(prompt).containsExactlyElementsOf(history);
+    }
+}
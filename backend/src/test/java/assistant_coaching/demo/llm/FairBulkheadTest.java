@@ -0,0 +1,78 @@
+package assistant_coaching.demo.llm;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FairBulkheadTest {
+
+    @Test
+    void queuesOverflowAndReleasesRoundRobinAcrossUsers() {
+        FairBulkhead bulkhead = new FairBulkhead(settings(1, 10, 5));
+        Sinks.One<String> first = Sinks.one();
+        List<String> started = new ArrayList<>();
+
+        bulkhead.submit("alice", () -> first.asMono().flux()).subscribe();
+        bulkhead.submit("alice", () -> {
+            started.add("alice-2");
+            return Flux.just("a2");
+        }).subscribe();
+        bulkhead.submit("alice", () -> {
+            started.add("alice-3");
+            return Flux.just("a3");
+        }).subscribe();
+        bulkhead.submit("bob", () -> {
+            started.add("bob-1");
+            return Flux.just("b1");
+        }).subscribe();
+
+        assertThat(bulkhead.inFlight()).isEqualTo(1);
+        assertThat(bulkhead.queued()).isEqualTo(3);
+
+        first.tryEmitValue("a1");
+
+        assertThat(started).containsExactly("alice-2", "bob-1", "alice-3");
+        assertThat(bulkhead.inFlight()).isZero();
+        assertThat(bulkhead.queued()).isZero();
+    }
+
+    @Test
+    void rejectsWhenUserQueueIsFull() {
+        FairBulkhead bulkhead = new FairBulkhead(settings(1, 10, 1));
+        Sinks.One<String> blocker = Sinks.one();
+        bulkhead.submit("alice", () -> blocker.asMono().flux()).subscribe();
+        bulkhead.submit("alice", () -> Flux.just("queued")).subscribe();
+
+        StepVerifier.create(bulkhead.submit("alice", () -> Flux.just("rejected")))
+                .expectError(FairBulkhead.BulkheadFullException.class)
+                .verify();
+        assertThat(bulkhead.rejected()).isEqualTo(1);
+    }
+
+    @Test
+    void cancellingAQueuedCallFreesItsSlot() {
+        FairBulkhead bulkhead = new FairBulkhead(settings(1, 10, 5));
+        Sinks.One<String> blocker = Sinks.one();
+        bulkhead.submit("alice", () -> blocker.asMono().flux()).subscribe();
+
+        bulkhead.submit("bob", () -> Flux.just("never")).subscribe().dispose();
+
+        assertThat(bulkhead.queued()).isZero();
+        blocker.tryEmitValue("done");
+        assertThat(bulkhead.inFlight()).isZero();
+    }
+
+    private OpenAiProperties.Bulkhead settings(int concurrent, int queued, int perUser) {
+        OpenAiProperties.Bulkhead settings = new OpenAiProperties.Bulkhead();
+        settings.setMaxConcurrentCalls(concurrent);
+        settings.setMaxQueuedCalls(queued);
+        settings.setMaxQueuedPerUser(perUser);
+        return settings;
+    }
+}
@@ -0,0 +1,78 @@
+package assistant_coaching.demo.llm;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LlmCircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void opensAfterConsecutiveFailuresAndClosesAfterSuccessfulProbe() {
+        LlmCircuitBreaker breaker = new LlmCircuitBreaker(settings(), now::get);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(breaker.tryAcquire()).isTrue();
+            breaker.onFailure(false);
+        }
+        assertThat(breaker.state()).isEqualTo(LlmCircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+
+        advance(Duration.ofSeconds(10));
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isFalse();
+        breaker.onSuccess();
+
+        assertThat(breaker.state()).isEqualTo(LlmCircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.shortCircuited()).isEqualTo(2);
+    }
+
+    @Test
+    void quotaErrorOpensImmediatelyForTheQuotaPeriod() {
+        LlmCircuitBreaker breaker = new LlmCircuitBreaker(settings(), now::get);
+
+        breaker.tryAcquire();
+        breaker.onFailure(true);
+
+        advance(Duration.ofSeconds(30));
+        assertThat(breaker.tryAcquire()).isFalse();
+        advance(Duration.ofSeconds(30));
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void failedProbeDoublesTheOpenPeriod() {
+        LlmCircuitBreaker breaker = new LlmCircuitBreaker(settings(), now::get);
+        for (int i = 0; i < 3; i++) {
+            breaker.tryAcquire();
+            breaker.onFailure(false);
+        }
+
+        advance(Duration.ofSeconds(10));
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onFailure(false);
+
+        advance(Duration.ofSeconds(15));
+        assertThat(breaker.tryAcquire()).isFalse();
+        advance(Duration.ofSeconds(5));
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    private void advance(Duration duration) {
+        now.addAndGet(duration.toNanos());
+    }
+
+    private OpenAiProperties.CircuitBreaker settings() {
+        OpenAiProperties.CircuitBreaker settings = new OpenAiProperties.CircuitBreaker();
+        settings.setFailureThreshold(3);
+        settings.setOpenDuration(Duration.ofSeconds(10));
+        settings.setMaxOpenDuration(Duration.ofMinutes(1));
+        settings.setQuotaOpenDuration(Duration.ofMinutes(1));
+        return settings;
+    }
+}
@@ -0,0 +1,104 @@
+package assistant_coaching.demo.llm;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LlmGatewayHedgingTest {
+
+    private static final LlmCallContext CONTEXT = new LlmCallContext("u1", LlmCallContext.VOICE, "other_goal");
+
+    @Test
+    void slowFirstAttemptLosesToHedgeAndOnlyWinnerTokensAreKept() {
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicBoolean slowCancelled = new AtomicBoolean();
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> attempts.incrementAndGet() == 1
+                        ? Mono.delay(Duration.ofSeconds(5)).map(tick -> completion("lent", 100))
+                        .doOnCancel(() -> slowCancelled.set(true))
+                        : Mono.just(completion("rapide", 444)))
+                .build();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        OpenAiProperties properties = properties();
+        LlmGateway gateway = new LlmGateway(properties, webClient, JsonMapper.builder().build(),
+                new LlmMetrics(registry, properties));
+
+        LlmResult result = gateway.complete(List.of(new LlmMessage("user", "Bonjour")), CONTEXT)
+                .block(Duration.ofSeconds(3));
+
+        assertThat(result.getReply()).isEqualTo("rapide");
+        assertThat(result.getTotalTokens()).isEqualTo(444);
+        assertThat(attempts).hasValue(2);
+        assertThat(slowCancelled).isTrue();
+        assertThat(registry.get("llm.hedges").tag("outcome", "won").counter().count()).isEqualTo(1);
+        assertThat(registry.get("llm.tokens").tag("type", "prompt").counter().count()).isEqualTo(444);
+    }
+
+    @Test
+    void hedgeBudgetCapsShareOfHedgedCalls() {
+        OpenAiProperties.Hedging settings = properties().getHedging();
+        settings.setMaxHedgePercent(10);
+        HedgePolicy policy = new HedgePolicy(settings);
+
+        int granted = 0;
+        for (int i = 0; i < 100; i++) {
+            policy.onCall();
+            if (policy.tryAcquire()) {
+                granted++;
+            }
+        }
+
+        assertThat(granted).isEqualTo(10);
+    }
+
+    @Test
+    void quietPeriodDoesNotSaveUpABurstOfHedges() {
+        OpenAiProperties.Hedging settings = properties().getHedging();
+        settings.setMaxHedgePercent(10);
+        HedgePolicy policy = new HedgePolicy(settings);
+        for (int i = 0; i < 10_000; i++) {
+            policy.onCall();
+        }
+
+        int granted = 0;
+        for (int i = 0; i < 20; i++) {
+            policy.onCall();
+            if (policy.tryAcquire()) {
+                granted++;
+            }
+        }
+
+        // The MAX_BURST saved hedges, then one per ten calls.
+        assertThat(granted).isEqualTo(HedgePolicy.MAX_BURST + 1);
+    }
+
+    private static OpenAiProperties properties() {
+        OpenAiProperties properties = new OpenAiProperties();
+        properties.setApiKey("test");
+        properties.getHedging().setEnabled(true);
+        properties.getHedging().setMinDelay(Duration.ofMillis(50));
+        properties.getHedging().setMaxHedgePercent(100);
+        return properties;
+    }
+
+    private static ClientResponse completion(String content, int tokens) {
+        return ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body("{\"choices\":[{\"message\":{\"role\":\"assistant\",\"content\":\"" + content + "\"}}],"
+                        + "\"usage\":{\"prompt_tokens\":" + tokens + ",\"completion_tokens\":1,\"total_tokens\":" + tokens + "}}")
+                .build();
+    }
+}
@@ -0,0 +1,91 @@
+package assistant_coaching.demo.llm;
+
+import assistant_coaching.demo.cache.SessionStoreFactory;
+import assistant_coaching.demo.cache.SessionStoreProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LlmResponseCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final OpenAiProperties properties = new OpenAiProperties();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final LlmResponseCache cache;
+
+    LlmResponseCacheTest() {
+        properties.getResponseCache().setMaxVariants(2);
+        properties.getResponseCache().setTtl(Duration.ofMinutes(10));
+        LlmMetrics metrics = new LlmMetrics(registry, properties);
+        cache = new LlmResponseCache(properties, new SessionStoreFactory(new SessionStoreProperties(), metrics),
+                metrics, now::get);
+    }
+
+    @Test
+    void collectsVariantsThenRotatesThroughThemWithoutTokens() {
+        List<LlmMessage> prompt = List.of(new LlmMessage("system", "Coach"), new LlmMessage("user", "Bonjour"));
+
+        assertThat(call(prompt).getReply()).isEqualTo("reply-1");
+        assertThat(call(prompt).getReply()).isEqualTo("reply-2");
+        LlmResult first = call(prompt);
+        LlmResult second = call(prompt);
+
+        assertThat(calls).hasValue(2);
+        assertThat(List.of(first.getReply(), second.getReply())).containsExactly("reply-1", "reply-2");
+        assertThat(first.getTotalTokens()).isZero();
+        assertThat(cache.stats().hits()).isEqualTo(2);
+        assertThat(cache.stats().misses()).isEqualTo(2);
+        assertThat(registry.get("llm.cache.hits").functionCounter().count()).isEqualTo(2);
+        assertThat(registry.get("llm.cache.misses").functionCounter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void normalisesWhitespaceAndCaseInTheKey() {
+        String key = cache.keyFor("OPENING", null, List.of(new LlmMessage("user", "  Commence   la conversation ")));
+
+        assertThat(cache.keyFor("OPENING", null, List.of(new LlmMessage("user", "commence la\nconversation"))))
+                .isEqualTo(key);
+        assertThat(cache.keyFor("OPENING", null, List.of(new LlmMessage("system", "commence la conversation"))))
+                .isNotEqualTo(key);
+    }
+
+    @Test
+    void keysOnTheTurnAndTheEffectiveRoute() {
+        List<LlmMessage> prompt = List.of(new LlmMessage("user", "Bonjour"));
+        String key = cache.keyFor("OPENING", null, prompt);
+
+        assertThat(cache.keyFor("OPENING", LlmRoute.defaults(properties), prompt)).isEqualTo(key);
+        assertThat(cache.keyFor("QUESTION", null, prompt)).isNotEqualTo(key);
+        assertThat(cache.keyFor("OPENING", new LlmRoute("gpt-4o", properties.getMaxTokens(), Duration.ofSeconds(20)),
+                prompt)).isNotEqualTo(key);
+        assertThat(cache.keyFor("OPENING", new LlmRoute(properties.getModel(), 250, Duration.ofSeconds(20)),
+                prompt)).isNotEqualTo(key);
+    }
+
+    @Test
+    void expiredVariantsAreFetchedAgain() {
+        List<LlmMessage> prompt = List.of(new LlmMessage("user", "Bonjour"));
+        call(prompt);
+        call(prompt);
+
+        now.addAndGet(Duration.ofMinutes(11).toNanos());
+        call(prompt);
+
+        assertThat(calls).hasValue(3);
+    }
+
+    private LlmResult call(List<LlmMessage> prompt) {
+        return cache.getOrCompute("OPENING", null, prompt, () -> Mono.fromSupplier(() -> {
+            int n = calls.incrementAndGet();
+            return new LlmResult("reply-" + n, "gpt-4o-mini", 10, 20, 30);
+        })).block();
+    }
+}
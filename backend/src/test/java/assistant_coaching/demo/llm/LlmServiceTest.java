@@ -1,12 +1,16 @@
 package assistant_coaching.demo.llm;
 
+import assistant_coaching.demo.cache.SessionStoreFactory;
+import assistant_coaching.demo.cache.SessionStoreProperties;
 import assistant_coaching.demo.goalchat.FallbackCoachFormatter;
 import assistant_coaching.demo.goalchat.GoalQuestionBank;
 import assistant_coaching.demo.model.CoachingSession;
 import assistant_coaching.demo.model.FinancialGoal;
 import assistant_coaching.demo.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.web.reactive.function.client.WebClient;
+import tools.jackson.databind.json.JsonMapper;
 
 import java.lang.reflect.Field;
 import java.math.BigDecimal;
@@ -24,7 +28,11 @@ class LlmServiceTest {
         WebClient webClient = WebClient.builder().baseUrl("https://example.com").build();
         GoalQuestionBank questionBank = new GoalQuestionBank();
         FallbackCoachFormatter formatter = new FallbackCoachFormatter();
-        LlmService service = new LlmService(properties, webClient, questionBank, formatter);
+        LlmMetrics metrics = new LlmMetrics(new SimpleMeterRegistry(), properties);
+        SessionStoreFactory storeFactory = new SessionStoreFactory(new SessionStoreProperties(), metrics);
+        LlmGateway gateway = new LlmGateway(properties, webClient, JsonMapper.builder().build(), metrics);
+        LlmService service = new LlmService(properties, gateway, questionBank, formatter, storeFactory,
+                new ContextWindowManager(properties));
 
         User user = new User("hello@example.com", "Voice Tester");
         FinancialGoal goal = new FinancialGoal("But securise", BigDecimal.valueOf(1500), LocalDate.now().plusMonths(1));
@@ -33,7 +41,7 @@ class LlmServiceTest {
         idField.setAccessible(true);
         idField.set(session, 42L);
 
-        LlmResult result = service.generateReply(session, List.of(), "Quels conseils ?");
+        LlmResult result = service.generateReplyAsync(session, List.of(), "Quels conseils ?").block();
 
         assertThat(result.getReply()).isNotBlank();
         assertThat(result.getFallbackNotice()).contains("Mode hors-ligne activé");
@@ -0,0 +1,193 @@
+package assistant_coaching.demo.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local stand-in for the OpenAI chat-completions endpoint so the chat flows can be
+ * load-tested without spending quota. Point {@code llm.base-url} at {@link #baseUrl()}
+ * (any non-blank {@code llm.api-key} works).
+ * <p>
+ * Latency is drawn from a log-normal distribution fitted on the configured median and
+ * p99; a share of calls can answer 500 or 429 ({@code insufficient_quota}), and
+ * {@code "stream": true} requests get SSE chunks spread over the same latency.
+ */
+public class FakeOpenAiServer implements AutoCloseable {
+
+    private static final double Z_99 = 2.326;
+    private static final String REPLY_WORDS =
+            "Pour avancer sur votre objectif, mettez de cote une somme fixe chaque mois et revoyez vos depenses variables.";
+
+    private final Settings settings;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final AtomicInteger threadIds = new AtomicInteger();
+    private final LongAdder completions = new LongAdder();
+    private final LongAdder streams = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+
+    public FakeOpenAiServer(Settings settings) throws IOException {
+        this.settings = settings;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", settings.port()), 512);
+        // One thread per in-flight call: the simulated latency is a sleep, like a slow provider.
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "fake-openai-" + threadIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.createContext("/v1/chat/completions", this::handle);
+        server.setExecutor(executor);
+    }
+
+    public FakeOpenAiServer start() {
+        server.start();
+        return this;
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/chat/completions";
+    }
+
+    public String describe() {
+        return String.format("fake OpenAI: %d completions, %d streams, %d errors, %d rate-limited",
+                completions.sum(), streams.sum(), errors.sum(), rateLimited.sum());
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String body = readBody(exchange.getRequestBody());
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, "{\"error\":{\"message\":\"method not allowed\"}}");
+                return;
+            }
+            double roll = ThreadLocalRandom.current().nextDouble();
+            if (roll < settings.rateLimitRate()) {
+                rateLimited.increment();
+                respond(exchange, 429, "{\"error\":{\"type\":\"insufficient_quota\",\"message\":\"fake quota exceeded\"}}");
+                return;
+            }
+            if (roll < settings.rateLimitRate() + settings.errorRate()) {
+                errors.increment();
+                sleep(sampleLatencyMillis() / 2);
+                respond(exchange, 500, "{\"error\":{\"type\":\"server_error\",\"message\":\"fake failure\"}}");
+                return;
+            }
+            if (body.replace(" ", "").contains("\"stream\":true")) {
+                streams.increment();
+                stream(exchange);
+            } else {
+                completions.increment();
+                sleep(sampleLatencyMillis());
+                respond(exchange, 200, completionJson());
+            }
+        }
+    }
+
+    private void stream(HttpExchange exchange) throws IOException {
+        String[] words = REPLY_WORDS.split(" ");
+        long pause = sampleLatencyMillis() / (words.length + 1);
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+        sleep(pause);
+        for (int i = 0; i < words.length; i++) {
+            String token = (i == 0 ? "" : " ") + words[i];
+            writeEvent(out, "{\"choices\":[{\"index\":0,\"delta\":{\"content\":\"" + token + "\"}}]}");
+            sleep(pause);
+        }
+        writeEvent(out, "{\"choices\":[],\"usage\":" + usageJson() + "}");
+        writeEvent(out, "[DONE]");
+    }
+
+    private void writeEvent(OutputStream out, String data) throws IOException {
+        out.write(("data: " + data + "\n\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private String completionJson() {
+        return "{\"id\":\"chatcmpl-fake\",\"object\":\"chat.completion\",\"model\":\"fake\","
+                + "\"choices\":[{\"index\":0,\"message\":{\"role\":\"assistant\",\"content\":\"" + REPLY_WORDS
+                + "\"},\"finish_reason\":\"stop\"}],\"usage\":" + usageJson() + "}";
+    }
+
+    private String usageJson() {
+        return "{\"prompt_tokens\":420,\"completion_tokens\":24,\"total_tokens\":444}";
+    }
+
+    long sampleLatencyMillis() {
+        double median = Math.max(1, settings.medianLatencyMillis());
+        double p99 = Math.max(median, settings.p99LatencyMillis());
+        double sigma = Math.log(p99 / median) / Z_99;
+        double sample = median * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian());
+        return Math.round(sample);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private static String readBody(InputStream in) throws IOException {
+        return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @param port              0 picks a free port
+     * @param errorRate         share of calls answered with HTTP 500
+     * @param rateLimitRate     share of calls answered with HTTP 429
+     */
+    public record Settings(int port, long medianLatencyMillis, long p99LatencyMillis,
+                           double errorRate, double rateLimitRate) {
+
+        public static Settings fromSystemProperties() {
+            return new Settings(
+                    Integer.getInteger("fake.port", 8090),
+                    Long.getLong("fake.latency.median-ms", 800),
+                    Long.getLong("fake.latency.p99-ms", 4000),
+                    Double.parseDouble(System.getProperty("fake.error-rate", "0.02")),
+                    Double.parseDouble(System.getProperty("fake.rate-limit-rate", "0.01")));
+        }
+    }
+
+    /**
+     * Runs the server standalone ({@code ./gradlew fakeOpenAi}) until the JVM is stopped.
+     */
+    public static void main(String[] args) throws Exception {
+        FakeOpenAiServer server = new FakeOpenAiServer(Settings.fromSystemProperties()).start();
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        System.out.println("Fake OpenAI listening on " + server.baseUrl());
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,65 @@
+package assistant_coaching.demo.loadtest;
+
+import assistant_coaching.demo.llm.LlmCallContext;
+import assistant_coaching.demo.llm.LlmCallException;
+import assistant_coaching.demo.llm.LlmGateway;
+import assistant_coaching.demo.llm.LlmMessage;
+import assistant_coaching.demo.llm.LlmMetrics;
+import assistant_coaching.demo.llm.LlmResult;
+import assistant_coaching.demo.llm.LlmStreamChunk;
+import assistant_coaching.demo.llm.OpenAiProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FakeOpenAiServerTest {
+
+    private static final LlmCallContext CONTEXT = new LlmCallContext("u1", LlmCallContext.VOICE, "other_goal");
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void gatewayTalksToFakeServer() throws Exception {
+        try (FakeOpenAiServer server = new FakeOpenAiServer(new FakeOpenAiServer.Settings(0, 5, 20, 0, 0)).start()) {
+            LlmGateway gateway = gateway(server);
+            List<LlmMessage> messages = List.of(new LlmMessage("user", "Bonjour"));
+
+            LlmResult result = gateway.complete(messages, CONTEXT).block(Duration.ofSeconds(10));
+            List<LlmStreamChunk> chunks = gateway.stream(messages, CONTEXT).collectList().block(Duration.ofSeconds(10));
+
+            assertThat(result.getReply()).contains("objectif");
+            assertThat(result.getTotalTokens()).isEqualTo(444);
+            assertThat(chunks).hasSizeGreaterThan(2);
+            assertThat(registry.get("llm.calls").tag("outcome", "ok").timer().count()).isEqualTo(2);
+            assertThat(registry.get("llm.tokens").tag("type", "prompt").counter().count()).isEqualTo(840);
+        }
+    }
+
+    @Test
+    void rateLimitedCallsSurfaceAsQuotaErrors() throws Exception {
+        try (FakeOpenAiServer server = new FakeOpenAiServer(new FakeOpenAiServer.Settings(0, 5, 20, 0, 1)).start()) {
+            LlmGateway gateway = gateway(server);
+
+            assertThatThrownBy(() -> gateway.complete(List.of(new LlmMessage("user", "Bonjour")), CONTEXT)
+                    .block(Duration.ofSeconds(10)))
+                    .isInstanceOf(LlmCallException.class)
+                    .hasMessageContaining("quota");
+            assertThat(registry.get("llm.calls").tag("outcome", "429").timer().count()).isEqualTo(1);
+        }
+    }
+
+    private LlmGateway gateway(FakeOpenAiServer server) {
+        OpenAiProperties properties = new OpenAiProperties();
+        properties.setApiKey("fake");
+        properties.setBaseUrl(server.baseUrl());
+        WebClient webClient = WebClient.builder().baseUrl(server.baseUrl()).build();
+        return new LlmGateway(properties, webClient, JsonMapper.builder().build(), new LlmMetrics(registry, properties));
+    }
+}
@@ -0,0 +1,53 @@
+package assistant_coaching.demo.loadtest;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects per-step latencies from concurrent virtual users and summarises them with
+ * nearest-rank percentiles.
+ */
+class LatencyRecorder {
+
+    private final Map<String, ConcurrentLinkedQueue<Long>> samples = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+
+    void record(String step, long nanos, boolean success) {
+        samples.computeIfAbsent(step, key -> new ConcurrentLinkedQueue<>()).add(nanos);
+        if (!success) {
+            failures.computeIfAbsent(step, key -> new LongAdder()).increment();
+        }
+    }
+
+    Summary summarise(String step, long elapsedNanos) {
+        long[] sorted = samples.getOrDefault(step, new ConcurrentLinkedQueue<>()).stream()
+                .mapToLong(Long::longValue)
+                .sorted()
+                .toArray();
+        long failed = failures.containsKey(step) ? failures.get(step).sum() : 0;
+        double seconds = Math.max(elapsedNanos, 1) / 1e9;
+        return new Summary(step, sorted.length, failed, sorted.length / seconds,
+                percentileMillis(sorted, 50), percentileMillis(sorted, 95), percentileMillis(sorted, 99),
+                sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+    }
+
+    static double percentileMillis(long[] sorted, int percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))] / 1e6;
+    }
+
+    record Summary(String step, int count, long failed, double perSecond,
+                   double p50Millis, double p95Millis, double p99Millis, double maxMillis) {
+
+        @Override
+        public String toString() {
+            return String.format("%-10s n=%-6d err=%-5d %8.1f req/s  p50=%8.1f ms  p95=%8.1f ms  p99=%8.1f ms  max=%8.1f ms",
+                    step, count, failed, perSecond, p50Millis, p95Millis, p99Millis, maxMillis);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package assistant_coaching.demo.loadtest;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Scripted goal chat scenario driven at a fixed concurrency against a running backend,
+ * through the {@code /api/voice} endpoints of {@code GoalChatController}: start a session,
+ * send N messages, then read the conversation back page by page, following the
+ * {@code X-Next-Cursor} header. Prints throughput and p50/p95/p99 per step, which is
+ * where saturation of the request threads blocked on LLM calls shows up.
+ * <p>
+ * Run with {@code ./gradlew loadTest -Pload.base-url=... -Pload.concurrency=...}; start
+ * {@code ./gradlew fakeOpenAi} first and the backend with
+ * {@code --llm.base-url=http://127.0.0.1:8090/v1/chat/completions --llm.api-key=fake}.
+ */
+public class VoiceScenarioRunner {
+
+    static final String START = "start";
+    static final String MESSAGE = "message";
+    static final String HISTORY = "history";
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final List<String> ANSWERS = List.of(
+            "Je gagne 2500 euros par mois",
+            "J'arrive a mettre 200 euros de cote chaque mois",
+            "J'aimerais y arriver en 12 mois",
+            "Je prefere rester prudent",
+            "Que me conseilles-tu maintenant ?");
+
+    private final Settings settings;
+    private final HttpClient httpClient;
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private final LatencyRecorder recorder = new LatencyRecorder();
+
+    public VoiceScenarioRunner(Settings settings) {
+        this.settings = settings;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+    }
+
+    public List<LatencyRecorder.Summary> run() throws Exception {
+        ExecutorService users = Executors.newFixedThreadPool(settings.concurrency());
+        long started = System.nanoTime();
+        try {
+            List<Future<?>> scenarios = new ArrayList<>(settings.sessions());
+            for (int i = 0; i < settings.sessions(); i++) {
+                int user = i;
+                scenarios.add(users.submit(() -> {
+                    scenario(user);
+                    return null;
+                }));
+            }
+            for (Future<?> scenario : scenarios) {
+                scenario.get();
+            }
+        } finally {
+            users.shutdownNow();
+        }
+        long elapsed = System.nanoTime() - started;
+        return List.of(
+                recorder.summarise(START, elapsed),
+                recorder.summarise(MESSAGE, elapsed),
+                recorder.summarise(HISTORY, elapsed));
+    }
+
+    private void scenario(int user) {
+        long userId = settings.firstUserId() + user;
+        HttpResponse<String> started = call(START, post("/api/voice/start", Map.of(
+                "goalId", "emergency_fund",
+                "goalLabel", "Constituer une epargne de precaution",
+                "userId", userId)));
+        JsonNode session = started == null ? null : readTree(started.body());
+        if (session == null || !session.hasNonNull("sessionId")) {
+            return;
+        }
+        String sessionId = session.get("sessionId").asString();
+        for (int turn = 0; turn < settings.messagesPerSession(); turn++) {
+            call(MESSAGE, post("/api/voice/message", Map.of(
+                    "sessionId", sessionId,
+                    "message", ANSWERS.get(turn % ANSWERS.size()),
+                    "userId", userId)));
+        }
+        String cursor = null;
+        do {
+            String query = "?userId=" + userId + "&limit=" + settings.historyPageSize()
+                    + (cursor == null ? "" : "&cursor=" + URLEncoder.encode(cursor, StandardCharsets.UTF_8));
+            HttpResponse<String> page = call(HISTORY, HttpRequest.newBuilder(uri("/api/voice/history/"
+                            + URLEncoder.encode(sessionId, StandardCharsets.UTF_8) + query))
+                    .timeout(settings.requestTimeout())
+                    .GET()
+                    .build());
+            cursor = page == null ? null : page.headers().firstValue(NEXT_CURSOR_HEADER).orElse(null);
+        } while (cursor != null);
+    }
+
+    private HttpRequest post(String path, Object body) {
+        return HttpRequest.newBuilder(uri(path))
+                .timeout(settings.requestTimeout())
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(jsonMapper.writeValueAsString(body)))
+                .build();
+    }
+
+    private JsonNode readTree(String body) {
+        try {
+            return jsonMapper.readTree(body);
+        } catch (RuntimeException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Sends the request and records its latency; returns the response when it succeeded.
+     */
+    private HttpResponse<String> call(String step, HttpRequest request) {
+        long started = System.nanoTime();
+        try {
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            boolean ok = response.statusCode() / 100 == 2;
+            recorder.record(step, System.nanoTime() - started, ok);
+            return ok ? response : null;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            recorder.record(step, System.nanoTime() - started, false);
+            return null;
+        } catch (Exception ex) {
+            recorder.record(step, System.nanoTime() - started, false);
+            return null;
+        }
+    }
+
+    private URI uri(String path) {
+        return URI.create(settings.baseUrl() + path);
+    }
+
+    public record Settings(String baseUrl, int concurrency, int sessions, int messagesPerSession,
+                           int historyPageSize, long firstUserId, Duration requestTimeout) {
+
+        public static Settings fromSystemProperties() {
+            return new Settings(
+                    System.getProperty("load.base-url", "http://localhost:8081"),
+                    Integer.getInteger("load.concurrency", 32),
+                    Integer.getInteger("load.sessions", 200),
+                    Integer.getInteger("load.messages", 5),
+                    Integer.getInteger("load.history-page", 5),
+                    Long.getLong("load.first-user-id", 100_000L),
+                    Duration.ofSeconds(Long.getLong("load.timeout-seconds", 60)));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Settings settings = Settings.fromSystemProperties();
+        System.out.printf("Goal chat scenario against %s: %d sessions x %d messages, concurrency %d%n",
+                settings.baseUrl(), settings.sessions(), settings.messagesPerSession(), settings.concurrency());
+        for (LatencyRecorder.Summary summary : new VoiceScenarioRunner(settings).run()) {
+            System.out.println(summary);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package assistant_coaching.demo.report;
+
+import assistant_coaching.demo.dto.ReportJobStatusDto;
+import assistant_coaching.demo.repository.UserRepository;
+import assistant_coaching.demo.service.FinancialAnalysisService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BulkReportJobServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private BulkReportJobService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void rendersOneReportPerUserAndStreamsThemAsZip() throws Exception {
+        service = service(5);
+
+        ReportJobStatusDto submitted = service.submit();
+        ReportJobStatusDto status = awaitFinished(submitted.jobId());
+
+        assertThat(status.state()).isEqualTo("COMPLETED");
+        assertThat(status.completed()).isEqualTo(3);
+        assertThat(status.progressPercent()).isEqualTo(100.0);
+        assertThat(directory.resolve("archive").resolve(submitted.jobId())).isDirectory();
+
+        ByteArrayOutputStream zip = new ByteArrayOutputStream();
+        service.writeArchive(submitted.jobId(), zip);
+        assertThat(entries(zip)).hasSize(3).allMatch(name -> name.endsWith(".pdf"));
+    }
+
+    @Test
+    void keepsAJobWhileItsArchiveIsBeingDownloaded() throws Exception {
+        service = service(1);
+        String first = service.submit().jobId();
+        awaitFinished(first);
+
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ByteArrayOutputStream zip = new ByteArrayOutputStream();
+        OutputStream slowClient = new FilterOutputStream(zip) {
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                writing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(ex);
+                }
+                out.write(bytes, offset, length);
+            }
+        };
+        CompletableFuture<Void> download = CompletableFuture.runAsync(() -> {
+            try {
+                service.writeArchive(first, slowClient);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+
+        String second = service.submit().jobId();
+        awaitFinished(second);
+        assertThat(service.status(first).state()).isEqualTo("COMPLETED");
+        release.countDown();
+        download.get(10, TimeUnit.SECONDS);
+
+        assertThat(entries(zip)).hasSize(3);
+        assertThatThrownBy(() -> service.status(first)).isInstanceOf(ResponseStatusException.class);
+        assertThat(directory.resolve("archive").resolve(first)).doesNotExist();
+    }
+
+    private BulkReportJobService service(int retainedJobs) {
+        UserRepository users = mock(UserRepository.class);
+        when(users.findAllIds()).thenReturn(List.of(1L, 2L, 3L));
+        FinancialAnalysisService analysis = mock(FinancialAnalysisService.class);
+        when(analysis.getAnalysis(anyLong())).thenReturn(new FinancialAnalysisService(null, null).getAnalysis());
+
+        ReportProperties properties = new ReportProperties();
+        properties.getBulk().setParallelism(2);
+        properties.getBulk().setRetainedJobs(retainedJobs);
+        properties.getBulk().setArchiveDirectory(directory.resolve("archive"));
+        properties.getBulk().setScratchDirectory(directory.resolve("scratch"));
+        properties.getBulk().setMaxMainMemoryBytes(64 * 1024);
+        return new BulkReportJobService(users, analysis, new PdfReportRenderer(), properties);
+    }
+
+    private ReportJobStatusDto awaitFinished(String jobId) throws InterruptedException {
+        ReportJobStatusDto status = service.status(jobId);
+        for (int i = 0; i < 200 && !"COMPLETED".equals(status.state()) && !"FAILED".equals(status.state()); i++) {
+            Thread.sleep(50);
+            status = service.status(jobId);
+        }
+        return status;
+    }
+
+    private static List<String> entries(ByteArrayOutputStream zip) throws IOException {
+        List<String> entries = new ArrayList<>();
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zip.toByteArray()))) {
+            for (ZipEntry entry = in.getNextEntry(); entry != null; entry = in.getNextEntry()) {
+                entries.add(entry.getName());
+            }
+        }
+        return entries;
+    }
+}
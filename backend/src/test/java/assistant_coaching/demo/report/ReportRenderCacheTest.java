@@ -0,0 +1,97 @@
+package assistant_coaching.demo.report;
+
+import assistant_coaching.demo.dto.CategoryShareDto;
+import assistant_coaching.demo.dto.PeriodAnalysisDto;
+import assistant_coaching.demo.model.AnalysisPeriod;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReportRenderCacheTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void concurrentRequestsForTheSameDataRenderOnce() throws Exception {
+        ReportRenderCache cache = new ReportRenderCache(properties(10));
+        AtomicInteger renders = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Path>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return cache.getOrRender("demo-2026-10-abc", out -> {
+                        renders.incrementAndGet();
+                        sleep();
+                        out.write("%PDF-test".getBytes());
+                    });
+                }));
+            }
+            start.countDown();
+            for (Future<Path> result : results) {
+                assertThat(Files.readString(result.get(5, TimeUnit.SECONDS))).isEqualTo("%PDF-test");
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertThat(renders).hasValue(1);
+        assertThat(cache.renders()).isEqualTo(1);
+    }
+
+    @Test
+    void longAnalysisFlowsOverSeveralPages() throws Exception {
+        String longInsight = String.join(" ", Collections.nCopies(400, "depenses"));
+        List<CategoryShareDto> shares = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            shares.add(new CategoryShareDto("Categorie " + i, 5, "#1E88E5"));
+        }
+        List<PeriodAnalysisDto> periods = new ArrayList<>();
+        for (AnalysisPeriod period : AnalysisPeriod.values()) {
+            periods.add(new PeriodAnalysisDto(period, 1000, 5, 800, -2,
+                    List.of(1d, 2d, 3d, 4d, 5d), List.of(1d, 1d, 2d, 2d, 3d), shares,
+                    "Analyse", longInsight, List.of("Économisez → sur le transport")));
+        }
+        ReportRenderCache cache = new ReportRenderCache(properties(10));
+        PdfReportRenderer renderer = new PdfReportRenderer();
+        ReportData data = new ReportData(YearMonth.of(2026, 10), periods);
+
+        Path file = cache.getOrRender("user-1-" + ReportFingerprint.of(data), out -> renderer.render(data, out));
+
+        try (PDDocument document = PDDocument.load(file.toFile())) {
+            assertThat(document.getNumberOfPages()).isGreaterThan(1);
+        }
+    }
+
+    private ReportProperties properties(int maxEntries) {
+        ReportProperties properties = new ReportProperties();
+        properties.setCacheDirectory(directory);
+        properties.setCacheMaxEntries(maxEntries);
+        return properties;
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(100);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,29 +1,44 @@
 package assistant_coaching.demo.service;
 
+import assistant_coaching.demo.cache.SessionStoreFactory;
+import assistant_coaching.demo.cache.SessionStoreProperties;
+import assistant_coaching.demo.dto.InteractionSummaryDto;
 import assistant_coaching.demo.dto.VoiceInputRequest;
+import assistant_coaching.demo.llm.ContextWindowManager;
+import assistant_coaching.demo.llm.LlmMetrics;
 import assistant_coaching.demo.llm.LlmResult;
 import assistant_coaching.demo.llm.LlmService;
+import assistant_coaching.demo.llm.OpenAiProperties;
+import assistant_coaching.demo.llm.VoiceConversation;
+import assistant_coaching.demo.llm.VoiceConversationCache;
 import assistant_coaching.demo.model.CoachingSession;
 import assistant_coaching.demo.model.FinancialGoal;
 import assistant_coaching.demo.model.InteractionLog;
 import assistant_coaching.demo.model.SessionStatus;
 import assistant_coaching.demo.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
 
 import java.lang.reflect.Field;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,13 +50,19 @@ class VoiceServiceTest {
     @Mock
     private LlmService llmService;
 
-    @InjectMocks
     private VoiceService voiceService;
 
     private CoachingSession session;
 
     @BeforeEach
     void setUp() throws NoSuchFieldException, IllegalAccessException {
+        OpenAiProperties properties = new OpenAiProperties();
+        SessionStoreFactory storeFactory = new SessionStoreFactory(new SessionStoreProperties(),
+                new LlmMetrics(new SimpleMeterRegistry(), properties));
+        VoiceConversationCache conversations = new VoiceConversationCache(properties, storeFactory,
+                new ContextWindowManager(properties));
+        voiceService = new VoiceService(sessionService, llmService, conversations);
+
         User user = new User("test@example.com", "Test User");
         FinancialGoal goal = new FinancialGoal("Épargne", BigDecimal.valueOf(2000), LocalDate.now().plusMonths(3));
         session = new CoachingSession(user, goal);
@@ -62,8 +83,8 @@ class VoiceServiceTest {
         InteractionLog stored = new InteractionLog("voice", "Bonjour", "Conseil");
 
         when(sessionService.findSession(1L)).thenReturn(Optional.of(session));
-        when(sessionService.getInteractions(1L)).thenReturn(Collections.emptyList(), List.of(stored));
-        when(llmService.generateReply(session, Collections.emptyList(), "Bonjour")).thenReturn(llmResult);
+        when(sessionService.recentInteractions(1L, 36)).thenReturn(Collections.emptyList());
+        when(llmService.generateReplyAsync(any(VoiceConversation.class), eq("Bonjour"))).thenReturn(Mono.just(llmResult));
         when(sessionService.recordInteraction(
                 eq(session),
                 eq("voice"),
@@ -75,11 +96,60 @@ class VoiceServiceTest {
                 eq(15)))
                 .thenReturn(stored);
 
-        var response = voiceService.processVoiceInput(request);
+        var response = voiceService.processVoiceInput(request).block();
 
         assertThat(response.getSessionId()).isEqualTo(1L);
         assertThat(response.getReply()).isEqualTo("Conseil");
         assertThat(response.getRecentInteractions()).hasSize(1);
         assertThat(response.getRecentInteractions().get(0).getAssistantReply()).isEqualTo("Conseil");
     }
+
+    @Test
+    void processVoiceInput_readsLaterTurnsFromTheWarmConversation() {
+        VoiceInputRequest request = new VoiceInputRequest();
+        request.setSessionId(1L);
+        request.setTranscript("Bonjour");
+
+        LlmResult llmResult = new LlmResult("Conseil", "gpt-test", 10, 5, 15);
+        when(sessionService.findSession(1L)).thenReturn(Optional.of(session));
+        when(sessionService.recentInteractions(1L, 36)).thenReturn(Collections.emptyList());
+        when(llmService.generateReplyAsync(any(VoiceConversation.class), eq("Bonjour"))).thenReturn(Mono.just(llmResult));
+        when(sessionService.recordInteraction(any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> new InteractionLog("voice", "Bonjour", "Conseil"));
+
+        voiceService.processVoiceInput(request).block();
+        var response = voiceService.processVoiceInput(request).block();
+
+        assertThat(response.getRecentInteractions()).hasSize(2);
+        verify(sessionService, times(1)).findSession(1L);
+        verify(sessionService, times(1)).recentInteractions(1L, 36);
+    }
+
+    @Test
+    void processVoiceInput_rebuildsTheDigestWhenWarmingALongSession() {
+        VoiceInputRequest request = new VoiceInputRequest();
+        request.setSessionId(1L);
+        request.setTranscript("Et maintenant ?");
+
+        LocalDateTime start = LocalDateTime.now().minusHours(1);
+        List<InteractionSummaryDto> history = IntStream.range(0, 14)
+                .mapToObj(i -> new InteractionSummaryDto(start.plusMinutes(i), "question " + i, "reponse " + i))
+                .toList();
+        when(sessionService.findSession(1L)).thenReturn(Optional.of(session));
+        when(sessionService.recentInteractions(1L, 36)).thenReturn(history);
+        ArgumentCaptor<VoiceConversation> warmed = ArgumentCaptor.forClass(VoiceConversation.class);
+        when(llmService.generateReplyAsync(warmed.capture(), eq("Et maintenant ?")))
+                .thenReturn(Mono.just(new LlmResult("Conseil", "gpt-test", 10, 5, 15)));
+        when(sessionService.recordInteraction(any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> new InteractionLog("voice", "Et maintenant ?", "Conseil"));
+
+        voiceService.processVoiceInput(request).block();
+
+        // Warmed with turns 2..13 in the ring; the new turn then pushed turn 2 into the digest.
+        VoiceConversation conversation = warmed.getValue();
+        assertThat(conversation.getSummary().text())
+                .contains("Utilisateur : question 0", "Coach : reponse 1", "Utilisateur : question 2")
+                .doesNotContain("question 3");
+        assertThat(conversation.recentTurns().get(0).getUserInput()).isEqualTo("question 3");
+    }
 }